@@ -0,0 +1,80 @@
+package com.nsp.portal.benchmark;
+
+import com.nsp.portal.entity.User;
+import com.nsp.portal.enums.Role;
+import com.nsp.portal.repository.UserRepository;
+import com.nsp.portal.security.CredentialVersionRegistry;
+import com.nsp.portal.security.JwtKeyRing;
+import com.nsp.portal.security.JwtRequestFilter;
+import com.nsp.portal.security.JwtUtil;
+import com.nsp.portal.security.RemoteJwksCache;
+import com.nsp.portal.security.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+/**
+ * Wires the authentication components by hand, without a Spring context or database,
+ * so the benchmarks measure only the code on the request path.
+ */
+final class AuthFixtures {
+    
+    static final String EMAIL = "student@example.com";
+    static final long USER_ID = 42L;
+    
+    private AuthFixtures() {}
+    
+    static JwtUtil jwtUtil() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "tokenLifetimeMillis", 900000L);
+        ReflectionTestUtils.setField(keyRing, "clockSkewMillis", 60000L);
+        keyRing.init();
+        
+        RemoteJwksCache remoteJwksCache = new RemoteJwksCache();
+        ReflectionTestUtils.setField(remoteJwksCache, "trustedUrls", new String[0]);
+        
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "");
+        ReflectionTestUtils.setField(jwtUtil, "acceptLegacyTokens", false);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 900000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 100000L);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(jwtUtil, "jwtKeyRing", keyRing);
+        ReflectionTestUtils.setField(jwtUtil, "remoteJwksCache", remoteJwksCache);
+        jwtUtil.initVerifiedTokenCache();
+        return jwtUtil;
+    }
+    
+    static User user() {
+        User user = new User(EMAIL, "{bcrypt}unused", "9876543210", Role.STUDENT);
+        user.setId(USER_ID);
+        return user;
+    }
+    
+    static JwtRequestFilter jwtRequestFilter(JwtUtil jwtUtil) {
+        JwtRequestFilter filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userRepository", stubUserRepository(user()));
+        ReflectionTestUtils.setField(filter, "credentialVersionRegistry", new CredentialVersionRegistry());
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", new TokenRevocationList());
+        return filter;
+    }
+    
+    // Answers user lookups from memory; the filter only touches the database for legacy tokens
+    private static UserRepository stubUserRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findByEmail", "findById" -> Optional.of(user);
+                case "toString" -> "StubUserRepository";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
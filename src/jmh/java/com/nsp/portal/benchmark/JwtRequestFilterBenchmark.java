@@ -0,0 +1,77 @@
+package com.nsp.portal.benchmark;
+
+import com.nsp.portal.security.JwtRequestFilter;
+import com.nsp.portal.security.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a full JwtRequestFilter pass for an authenticated request.
+ * 
+ * The claims variant uses a token carrying identity claims and never touches the user
+ * repository; the legacy variant uses a token without them, which falls back to a
+ * (stubbed, in-memory) user lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+    
+    private JwtRequestFilter filter;
+    private String claimsToken;
+    private String legacyToken;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = AuthFixtures.jwtUtil();
+        filter = AuthFixtures.jwtRequestFilter(jwtUtil);
+        claimsToken = jwtUtil.generateToken(AuthFixtures.user(), "Delhi", null);
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.withUsername(AuthFixtures.EMAIL)
+            .password("unused")
+            .roles("STUDENT")
+            .build();
+        legacyToken = jwtUtil.generateToken(userDetails);
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+    
+    @Benchmark
+    public Authentication filterClaimsToken() throws Exception {
+        return filter(claimsToken);
+    }
+    
+    @Benchmark
+    public Authentication filterLegacyToken() throws Exception {
+        return filter(legacyToken);
+    }
+    
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/profile");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
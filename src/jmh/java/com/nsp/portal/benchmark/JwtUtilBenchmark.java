@@ -0,0 +1,74 @@
+package com.nsp.portal.benchmark;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.nsp.portal.entity.User;
+import com.nsp.portal.security.JwtUtil;
+import com.nsp.portal.security.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of token generation and validation in JwtUtil.
+ * The uncached variant clears the verified-token cache first, so it measures a full
+ * ES256 signature check and claims decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+    
+    private JwtUtil jwtUtil;
+    private User user;
+    private UserDetails userDetails;
+    private String token;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        jwtUtil = AuthFixtures.jwtUtil();
+        user = AuthFixtures.user();
+        userDetails = org.springframework.security.core.userdetails.User.withUsername(AuthFixtures.EMAIL)
+            .password("unused")
+            .roles("STUDENT")
+            .build();
+        token = jwtUtil.generateToken(user, "Delhi", null);
+        verifiedTokens = (Cache<String, VerifiedToken>) ReflectionTestUtils.getField(jwtUtil, "verifiedTokens");
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user, "Delhi", null);
+    }
+    
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+    
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+    
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        verifiedTokens.invalidateAll();
+        return jwtUtil.verify(token);
+    }
+}
@@ -1,5 +1,7 @@
 package com.nsp.portal.config;
 
+import com.nsp.portal.security.AuthRateLimitFilter;
+import com.nsp.portal.security.BCryptCostCalibrator;
 import com.nsp.portal.security.JwtRequestFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -46,6 +48,9 @@ public class SecurityConfig {
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
     
+    @Autowired
+    private AuthRateLimitFilter authRateLimitFilter;
+    
     /**
      * Configures the SecurityFilterChain for the application.
      * 
@@ -55,7 +60,7 @@ public class SecurityConfig {
      * 3. Set session creation policy to STATELESS
      * 4. Configure authorization rules for all endpoints:
      *    - Public endpoints: /api/auth/**
-     *    - STUDENT role: /api/schemes, /api/applications, /api/student/**
+     *    - STUDENT role: /api/schemes/**, /api/applications, /api/student/**
      *    - INSTITUTE role: /api/institute/**
      *    - STATE_OFFICER role: /api/state/**
      *    - MINISTRY role: /api/ministry/**
@@ -77,16 +82,22 @@ public class SecurityConfig {
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                 // Test endpoints - allow public access for verification
                 .requestMatchers("/api/test/**").permitAll()
+                .requestMatchers("/api/auth/password").authenticated()
                 .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/schemes").hasRole("STUDENT")
+                // Public JWT verification keys
+                .requestMatchers("/.well-known/jwks.json").permitAll()
+                .requestMatchers("/api/schemes", "/api/schemes/**").hasRole("STUDENT")
                 .requestMatchers("/api/applications/**").hasRole("STUDENT")
+                .requestMatchers("/api/uploads/**").hasRole("STUDENT")
                 .requestMatchers("/api/student/**").hasRole("STUDENT")
                 .requestMatchers("/api/institute/**").hasRole("INSTITUTE")
                 .requestMatchers("/api/state/**").hasRole("STATE_OFFICER")
                 .requestMatchers("/api/ministry/**").hasRole("MINISTRY")
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+            // Throttle login and registration before any token or password work
+            .addFilterBefore(authRateLimitFilter, JwtRequestFilter.class);
         
         return http.build();
     }
@@ -112,14 +123,15 @@ public class SecurityConfig {
     /**
      * Defines the PasswordEncoder bean for password hashing.
      * 
-     * TODO: DEVELOPER 1 - This method is already implemented.
-     * BCryptPasswordEncoder is used for hashing passwords securely.
+     * BCryptPasswordEncoder is used for hashing passwords securely, with the
+     * work factor chosen for this machine by BCryptCostCalibrator.
      * 
+     * @param costCalibrator the startup BCrypt cost calibration
      * @return BCryptPasswordEncoder instance
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BCryptCostCalibrator costCalibrator) {
+        return new BCryptPasswordEncoder(costCalibrator.getCost());
     }
     
     /**
@@ -0,0 +1,90 @@
+package com.nsp.portal.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.context.request.AsyncWebRequestInterceptor;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC configuration.
+ * 
+ * Registers open-entity-manager-in-view (spring.jpa.open-in-view is switched off so Boot does
+ * not register it for every path) for all requests except those streaming a body to storage:
+ * upload chunks and multipart requests, whichever endpoint they target. The request-scoped
+ * entity manager holds its JDBC connection until the request ends, which for an upload would
+ * mean holding a pooled connection while the body trickles in over a slow uplink. Auth
+ * requests are excluded too, so a registration waiting for a password hashing thread does not
+ * hold the connection its duplicate check used.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(new SkipStreamedBodies(interceptor))
+            .excludePathPatterns("/api/auth/**");
+    }
+    
+    /**
+     * Applies open-entity-manager-in-view only to requests that do not stream a body.
+     * Every callback is skipped for a streamed request, since the interceptor unbinds on
+     * completion whether or not it bound anything.
+     */
+    private static class SkipStreamedBodies implements AsyncWebRequestInterceptor {
+        
+        private final OpenEntityManagerInViewInterceptor delegate;
+        
+        SkipStreamedBodies(OpenEntityManagerInViewInterceptor delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void preHandle(WebRequest request) {
+            if (!isStreamed(request)) {
+                delegate.preHandle(request);
+            }
+        }
+        
+        @Override
+        public void postHandle(WebRequest request, @Nullable ModelMap model) {
+            if (!isStreamed(request)) {
+                delegate.postHandle(request, model);
+            }
+        }
+        
+        @Override
+        public void afterCompletion(WebRequest request, @Nullable Exception ex) {
+            if (!isStreamed(request)) {
+                delegate.afterCompletion(request, ex);
+            }
+        }
+        
+        @Override
+        public void afterConcurrentHandlingStarted(WebRequest request) {
+            if (!isStreamed(request)) {
+                delegate.afterConcurrentHandlingStarted(request);
+            }
+        }
+        
+        private static boolean isStreamed(WebRequest request) {
+            String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+            if (contentType == null) {
+                return false;
+            }
+            contentType = contentType.toLowerCase();
+            return contentType.startsWith("multipart/") || contentType.startsWith("application/octet-stream");
+        }
+    }
+}
@@ -4,11 +4,19 @@ import com.nsp.portal.dto.AuthResponse;
 import com.nsp.portal.dto.StudentRegistrationRequest;
 import com.nsp.portal.dto.InstituteRegistrationRequest;
 import com.nsp.portal.dto.LoginRequest;
+import com.nsp.portal.dto.RefreshTokenRequest;
+import com.nsp.portal.dto.ChangePasswordRequest;
+import com.nsp.portal.security.AuthRateLimiter;
+import com.nsp.portal.security.AuthenticatedUser;
+import com.nsp.portal.security.CurrentUser;
+import com.nsp.portal.security.HashingCapacityExceededException;
 import com.nsp.portal.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +27,9 @@ import org.springframework.web.bind.annotation.*;
  * 1. POST /api/auth/register/student - Register a new student
  * 2. POST /api/auth/register/institute - Submit institute registration request
  * 3. POST /api/auth/login - Authenticate any user and return JWT
+ * 4. POST /api/auth/refresh - Rotate the refresh token and issue a new access token
+ * 5. POST /api/auth/logout - Revoke the access token and refresh token family
+ * 6. POST /api/auth/password - Change the password and revoke all earlier tokens
  * 
  * This controller is responsible for:
  * - Student registration with profile creation
@@ -35,6 +46,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+    
     /**
      * Registers a new student user.
      * 
@@ -44,6 +58,12 @@ public class AuthController {
     @Operation(summary = "Register Student", description = "Registers a new student user with profile")
     @PostMapping("/register/student")
     public ResponseEntity<AuthResponse> registerStudent(@Valid @RequestBody StudentRegistrationRequest request) {
+        // Per-address throttling, checked before the duplicate lookup and any BCrypt work
+        long retryAfter = authRateLimiter.checkEmail(request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, "Too many registration attempts, please retry later");
+        }
+        
         try {
             Object result = authService.registerStudent(request);
             
@@ -58,6 +78,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(new AuthResponse("Registration failed"));
             }
             
+        } catch (HashingCapacityExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(new AuthResponse("Registration failed: " + e.getMessage()));
@@ -73,6 +95,12 @@ public class AuthController {
     @Operation(summary = "Register Institute", description = "Submits an institute registration request")
     @PostMapping("/register/institute")
     public ResponseEntity<AuthResponse> registerInstitute(@Valid @RequestBody InstituteRegistrationRequest request) {
+        // Per-address throttling, checked before the duplicate lookup and any BCrypt work
+        long retryAfter = authRateLimiter.checkEmail(request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, "Too many registration attempts, please retry later");
+        }
+        
         try {
             Object result = authService.registerInstitute(request);
             
@@ -87,6 +115,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(new AuthResponse("Registration failed"));
             }
             
+        } catch (HashingCapacityExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(new AuthResponse("Registration failed: " + e.getMessage()));
@@ -102,6 +132,12 @@ public class AuthController {
     @Operation(summary = "User Login", description = "Authenticates user and returns JWT token")
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+        // Per-account throttling against credential stuffing, checked before any BCrypt work
+        long retryAfter = authRateLimiter.checkEmail(request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, "Too many login attempts, please retry later");
+        }
+        
         try {
             Object result = authService.login(request);
             
@@ -116,9 +152,135 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(new AuthResponse("Login failed"));
             }
             
+        } catch (HashingCapacityExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(new AuthResponse("Login failed: " + e.getMessage()));
         }
     }
+    
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     * 
+     * @param request the refresh request
+     * @return ResponseEntity with the new tokens
+     */
+    @Operation(summary = "Refresh Token", description = "Rotates the refresh token and issues a new short-lived access token")
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        // Per-token throttling bounds replays of one token; guessing is bounded per IP by the filter
+        long retryAfter = authRateLimiter.checkRefreshToken(request.getRefreshToken());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, "Too many refresh attempts, please retry later");
+        }
+        
+        try {
+            Object result = authService.refresh(request);
+            
+            if (result instanceof AuthResponse) {
+                AuthResponse response = (AuthResponse) result;
+                if (response.getMessage().contains("successfully")) {
+                    return ResponseEntity.ok(response);
+                } else {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+                }
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthResponse("Token refresh failed"));
+            }
+            
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(new AuthResponse("Token refresh failed: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Logs out by revoking the access token and the refresh token family.
+     * 
+     * @param authorization the Authorization header carrying the access token
+     * @param request the refresh token to revoke (optional)
+     * @return ResponseEntity with logout result
+     */
+    @Operation(summary = "Logout", description = "Revokes the current access token and refresh token family")
+    @PostMapping("/logout")
+    public ResponseEntity<AuthResponse> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                               @RequestBody(required = false) RefreshTokenRequest request) {
+        try {
+            String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+            String refreshToken = request != null ? request.getRefreshToken() : null;
+            
+            Object result = authService.logout(accessToken, refreshToken);
+            
+            if (result instanceof AuthResponse) {
+                return ResponseEntity.ok((AuthResponse) result);
+            } else {
+                return ResponseEntity.badRequest().body(new AuthResponse("Logout failed"));
+            }
+            
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(new AuthResponse("Logout failed: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Changes the authenticated user's password.
+     * Tokens issued before the change stop working; the response carries a new session.
+     * 
+     * @param currentUser the authenticated user
+     * @param request the current and new passwords
+     * @return ResponseEntity with the new tokens
+     */
+    @Operation(summary = "Change Password", description = "Changes the password and revokes all previously issued tokens")
+    @PostMapping("/password")
+    public ResponseEntity<AuthResponse> changePassword(@CurrentUser AuthenticatedUser currentUser,
+                                                       @Valid @RequestBody ChangePasswordRequest request) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthResponse("User not authenticated"));
+        }
+        // Verifies a password, so it shares the account's login budget
+        long retryAfter = authRateLimiter.checkEmail(currentUser.getEmail());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter, "Too many password change attempts, please retry later");
+        }
+        
+        try {
+            Object result = authService.changePassword(currentUser.getId(), request);
+            
+            if (result instanceof AuthResponse) {
+                AuthResponse response = (AuthResponse) result;
+                if (response.getMessage().contains("successfully")) {
+                    return ResponseEntity.ok(response);
+                } else {
+                    return ResponseEntity.badRequest().body(response);
+                }
+            } else {
+                return ResponseEntity.badRequest().body(new AuthResponse("Password change failed"));
+            }
+            
+        } catch (HashingCapacityExceededException e) {
+            return tooManyRequests(e);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(new AuthResponse("Password change failed: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Builds a 429 response telling the client when to retry.
+     * 
+     * @param e the capacity exception raised by the hashing executor
+     * @return ResponseEntity with Retry-After header
+     */
+    private ResponseEntity<AuthResponse> tooManyRequests(HashingCapacityExceededException e) {
+        return tooManyRequests(e.getRetryAfterSeconds(), "Server is busy, please retry shortly");
+    }
+    
+    private ResponseEntity<AuthResponse> tooManyRequests(long retryAfterSeconds, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(new AuthResponse(message));
+    }
 }
@@ -3,17 +3,22 @@ package com.nsp.portal.controller;
 import com.nsp.portal.dto.InstituteProfileUpdateRequest;
 import com.nsp.portal.dto.ApplicationVerificationRequest;
 import com.nsp.portal.dto.InstituteResponse;
+import com.nsp.portal.dto.ResourceStamp;
+import com.nsp.portal.entity.InstituteProfile;
+import com.nsp.portal.security.AuthenticatedUser;
+import com.nsp.portal.security.CurrentUser;
+import com.nsp.portal.service.IdempotencyService;
 import com.nsp.portal.service.InstituteService;
-import com.nsp.portal.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -38,20 +43,45 @@ public class InstituteController {
     private InstituteService instituteService;
     
     @Autowired
-    private UserService userService;
+    private IdempotencyService idempotencyService;
     
     /**
      * Gets the institute's profile information.
+     * Answers 304 without a database read when the request's validators match the known
+     * profile version, and after reloading the profile when its stamp had expired.
      * 
+     * @param webRequest the request, for conditional GET handling
      * @return institute profile details
      */
     @Operation(summary = "Get Institute Profile", description = "Retrieves the logged-in institute's profile information")
     @GetMapping("/profile")
-    public ResponseEntity<Object> getInstituteProfile() {
+    public ResponseEntity<Object> getInstituteProfile(@CurrentUser AuthenticatedUser currentUser, WebRequest webRequest) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
+            
+            // Private and always revalidated; the revalidation is usually a 304 from memory
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            ResourceStamp known = instituteService.getInstituteProfileStamp(instituteId);
+            if (known != null && webRequest.checkNotModified(known.getEtag(), known.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+            
             Object profile = instituteService.getInstituteProfile(instituteId);
-            return ResponseEntity.ok(profile);
+            ResourceStamp stamp = profile instanceof InstituteProfile
+                ? instituteService.getInstituteProfileStamp(instituteId)
+                : null;
+            if (stamp == null) {
+                return ResponseEntity.ok(profile);
+            }
+            // The stamp may only now be known again, e.g. after it expired from the registry
+            if (webRequest.checkNotModified(stamp.getEtag(), stamp.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl).eTag(stamp.getEtag());
+            if (stamp.getLastModified() >= 0) {
+                response.lastModified(stamp.getLastModified());
+            }
+            return response.body(profile);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(new InstituteResponse("Error retrieving profile: " + e.getMessage()));
@@ -66,9 +96,10 @@ public class InstituteController {
      */
     @Operation(summary = "Update Institute Profile", description = "Updates the logged-in institute's profile information")
     @PutMapping("/profile")
-    public ResponseEntity<Object> updateInstituteProfile(@RequestBody InstituteProfileUpdateRequest profileUpdate) {
+    public ResponseEntity<Object> updateInstituteProfile(@CurrentUser AuthenticatedUser currentUser,
+                                                         @RequestBody InstituteProfileUpdateRequest profileUpdate) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object updatedProfile = instituteService.updateInstituteProfile(instituteId, profileUpdate);
             return ResponseEntity.ok(updatedProfile);
         } catch (Exception e) {
@@ -84,9 +115,9 @@ public class InstituteController {
      */
     @Operation(summary = "Get Pending Applications", description = "Retrieves all pending applications for institute verification")
     @GetMapping("/applications/pending")
-    public ResponseEntity<Object> getPendingApplications() {
+    public ResponseEntity<Object> getPendingApplications(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object applications = instituteService.getPendingApplications(instituteId);
             return ResponseEntity.ok(applications);
         } catch (Exception e) {
@@ -104,10 +135,11 @@ public class InstituteController {
     @Operation(summary = "Get All Applications", description = "Retrieves all applications for the institute with optional status filtering")
     @GetMapping("/applications")
     public ResponseEntity<Object> getAllApplications(
+            @CurrentUser AuthenticatedUser currentUser,
             @Parameter(description = "Application status filter (optional)")
             @RequestParam(required = false) String status) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object applications = instituteService.getAllApplications(instituteId, status);
             return ResponseEntity.ok(applications);
         } catch (Exception e) {
@@ -125,10 +157,11 @@ public class InstituteController {
     @Operation(summary = "Get Application by ID", description = "Retrieves a specific application by its ID")
     @GetMapping("/applications/{applicationId}")
     public ResponseEntity<Object> getApplicationById(
+            @CurrentUser AuthenticatedUser currentUser,
             @Parameter(description = "Application ID", required = true)
             @PathVariable Long applicationId) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object application = instituteService.getApplicationById(instituteId, applicationId);
             if (application != null) {
                 return ResponseEntity.ok(application);
@@ -143,25 +176,37 @@ public class InstituteController {
     
     /**
      * Verifies a student's scholarship application.
+     * A repeated request carrying the same Idempotency-Key gets the original result.
      * 
+     * @param idempotencyKey optional key identifying this verification across retries
      * @param applicationId the application ID
      * @param verificationRequest the verification details
      * @return verification result
      */
     @Operation(summary = "Verify Application", description = "Verifies a student's scholarship application")
     @PostMapping("/applications/{applicationId}/verify")
-    public ResponseEntity<Object> verifyApplication(
+    public ResponseEntity<?> verifyApplication(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Application ID", required = true)
             @PathVariable Long applicationId,
             @RequestBody ApplicationVerificationRequest verificationRequest) {
-        try {
-            Long instituteId = getCurrentInstituteId();
-            Object result = instituteService.verifyApplication(instituteId, applicationId, verificationRequest);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                .body(new InstituteResponse("Error verifying application: " + e.getMessage()));
-        }
+        Long instituteId = currentUser.getId();
+        return idempotencyService.execute(idempotencyKey, instituteId, "verify-application",
+                new Object[] {applicationId, verificationRequest}, () -> {
+            try {
+                Object result = instituteService.verifyApplication(instituteId, applicationId, verificationRequest);
+                // Only a success may be stored for replay; a refusal must run again on retry
+                if (result.toString().contains("successfully")) {
+                    return ResponseEntity.ok(result);
+                } else {
+                    return ResponseEntity.badRequest().body(result);
+                }
+            } catch (Exception e) {
+                return ResponseEntity.internalServerError()
+                    .body(new InstituteResponse("Error verifying application: " + e.getMessage()));
+            }
+        });
     }
     
     /**
@@ -174,13 +219,18 @@ public class InstituteController {
     @Operation(summary = "Reject Application", description = "Rejects a student's scholarship application")
     @PostMapping("/applications/{applicationId}/reject")
     public ResponseEntity<Object> rejectApplication(
+            @CurrentUser AuthenticatedUser currentUser,
             @Parameter(description = "Application ID", required = true)
             @PathVariable Long applicationId,
             @RequestBody ApplicationVerificationRequest rejectionRequest) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object result = instituteService.rejectApplication(instituteId, applicationId, rejectionRequest);
-            return ResponseEntity.ok(result);
+            if (result.toString().contains("successfully")) {
+                return ResponseEntity.ok(result);
+            } else {
+                return ResponseEntity.badRequest().body(result);
+            }
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(new InstituteResponse("Error rejecting application: " + e.getMessage()));
@@ -194,9 +244,9 @@ public class InstituteController {
      */
     @Operation(summary = "Get Institute Dashboard", description = "Retrieves institute dashboard statistics and summary data")
     @GetMapping("/dashboard")
-    public ResponseEntity<Object> getDashboard() {
+    public ResponseEntity<Object> getDashboard(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object dashboard = instituteService.getDashboard(instituteId);
             return ResponseEntity.ok(dashboard);
         } catch (Exception e) {
@@ -212,9 +262,9 @@ public class InstituteController {
      */
     @Operation(summary = "Get Registered Students", description = "Retrieves all students registered with this institute")
     @GetMapping("/students")
-    public ResponseEntity<Object> getRegisteredStudents() {
+    public ResponseEntity<Object> getRegisteredStudents(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object students = instituteService.getRegisteredStudents(instituteId);
             return ResponseEntity.ok(students);
         } catch (Exception e) {
@@ -232,10 +282,11 @@ public class InstituteController {
     @Operation(summary = "Get Student Details", description = "Retrieves details of a specific student registered with this institute")
     @GetMapping("/students/{studentId}")
     public ResponseEntity<Object> getStudentDetails(
+            @CurrentUser AuthenticatedUser currentUser,
             @Parameter(description = "Student ID", required = true)
             @PathVariable Long studentId) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object student = instituteService.getStudentDetails(instituteId, studentId);
             if (student != null) {
                 return ResponseEntity.ok(student);
@@ -255,9 +306,9 @@ public class InstituteController {
      */
     @Operation(summary = "Get Available Schemes", description = "Retrieves all scholarship schemes available for this institute")
     @GetMapping("/schemes")
-    public ResponseEntity<Object> getAvailableSchemes() {
+    public ResponseEntity<Object> getAvailableSchemes(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object schemes = instituteService.getAvailableSchemes(instituteId);
             return ResponseEntity.ok(schemes);
         } catch (Exception e) {
@@ -273,9 +324,9 @@ public class InstituteController {
      */
     @Operation(summary = "Get Registration Status", description = "Retrieves institute registration status and approval information")
     @GetMapping("/registration/status")
-    public ResponseEntity<Object> getRegistrationStatus() {
+    public ResponseEntity<Object> getRegistrationStatus(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            Long instituteId = getCurrentInstituteId();
+            Long instituteId = currentUser.getId();
             Object status = instituteService.getRegistrationStatus(instituteId);
             return ResponseEntity.ok(status);
         } catch (Exception e) {
@@ -283,15 +334,4 @@ public class InstituteController {
                 .body(new InstituteResponse("Error retrieving registration status: " + e.getMessage()));
         }
     }
-    
-    /**
-     * Helper method to get the current institute's user ID from the security context.
-     * 
-     * @return current institute user ID
-     */
-    private Long getCurrentInstituteId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userService.getUserIdByEmail(email);
-    }
 }
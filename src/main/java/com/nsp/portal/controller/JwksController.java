@@ -0,0 +1,36 @@
+package com.nsp.portal.controller;
+
+import com.nsp.portal.security.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the public JWT signing keys of this node as a JSON Web Key Set.
+ * Peer nodes and internal services cache these keys to verify tokens locally.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+@Tag(name = "Keys", description = "Public JWT verification keys")
+public class JwksController {
+    
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+    
+    @Operation(summary = "JSON Web Key Set", description = "Returns the active, next and retiring ES256 public keys")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+            .body(Map.of("keys", jwtKeyRing.publicJwks()));
+    }
+}
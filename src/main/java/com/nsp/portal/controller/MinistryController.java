@@ -1,10 +1,16 @@
 package com.nsp.portal.controller;
 
+import com.nsp.portal.security.AuthenticatedUser;
+import com.nsp.portal.security.CurrentUser;
+import com.nsp.portal.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Ministry Controller for handling ministry-level operations.
  * 
@@ -14,6 +20,10 @@ import org.springframework.web.bind.annotation.*;
  * 3. POST /api/ministry/applications/{appId}/reject - Rejects the final application
  * 4. GET /api/ministry/institutes/pending - Fetches pending institute requests
  * 5. POST /api/ministry/institutes/{regId}/approve - Approves institute registration
+ * 6. POST /api/ministry/schemes/{schemeId}/eligibility-check - Checks applications against the scheme rule
+ * 7. GET /api/ministry/schemes/{schemeId}/eligible-students - Lists registered students who qualify
+ * 8. GET /api/ministry/schemes/{schemeId}/versions - Lists the immutable versions of a scheme's terms
+ * 9. GET /api/ministry/schemes/{schemeId}/budget - Shows a scheme's budget and remaining headroom
  * 
  * This controller is responsible for:
  * - Final approval of scholarship applications
@@ -30,6 +40,9 @@ public class MinistryController {
     @Autowired
     private com.nsp.portal.service.MinistryService ministryService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     /**
      * Fetches all applications approved by State Officers.
      * 
@@ -51,27 +64,30 @@ public class MinistryController {
     }
     
     /**
-     * Grants the scholarship to an approved application.
-     * 
-     * TODO: DEVELOPER 5 - Implement this method:
-     * 1. Validate the grant request
-     * 2. Call ministryService.grantScholarship()
-     * 3. Return success response with grant details
+     * Grants the scholarship to an approved application, reserving the amount from the scheme budget.
+     * A repeated request carrying the same Idempotency-Key gets the original grant.
      * 
+     * @param currentUser the authenticated ministry officer
+     * @param idempotencyKey optional key identifying this grant across retries
      * @param appId the application ID to grant
-     * @param grantData the grant details
+     * @param grantData the grant details, optionally with "remarks"
      * @return ResponseEntity with grant result
      */
     @PostMapping("/applications/{appId}/grant")
     public ResponseEntity<?> grantScholarship(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @PathVariable Long appId,
-            @RequestBody Object grantData) {
-        // TODO: Implement scholarship grant logic
-        // 1. Validate request
-        // 2. Call service method
-        // 3. Return response
-        
-        return ResponseEntity.ok("Grant scholarship endpoint - TODO: Implement");
+            @RequestBody(required = false) Object grantData) {
+        return idempotencyService.execute(idempotencyKey, currentUser.getId(), "grant-scholarship",
+                new Object[] {appId, grantData}, () -> {
+            Object result = ministryService.grantScholarship(appId, currentUser.getId(), grantData);
+            if (result instanceof Map) {
+                return ResponseEntity.ok(result);
+            } else {
+                return ResponseEntity.badRequest().body(result);
+            }
+        });
     }
     
     /**
@@ -141,4 +157,70 @@ public class MinistryController {
         
         return ResponseEntity.ok("Approve institute registration endpoint - TODO: Implement");
     }
+    
+    /**
+     * Checks every application of a scheme against the scheme's eligibility rule.
+     * 
+     * @param schemeId the scheme ID
+     * @return ResponseEntity with eligible and ineligible counts and the ineligible application IDs
+     */
+    @PostMapping("/schemes/{schemeId}/eligibility-check")
+    public ResponseEntity<?> checkSchemeEligibility(@PathVariable Long schemeId) {
+        Object result = ministryService.checkSchemeEligibility(schemeId);
+        if (result instanceof Map) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Finds every registered student who qualifies for a scheme.
+     * 
+     * @param schemeId the scheme ID
+     * @param limit maximum number of student IDs to list
+     * @return ResponseEntity with the eligible student count and IDs
+     */
+    @GetMapping("/schemes/{schemeId}/eligible-students")
+    public ResponseEntity<?> findEligibleStudents(@PathVariable Long schemeId,
+                                                  @RequestParam(defaultValue = "1000") int limit) {
+        Object result = ministryService.findEligibleStudents(schemeId, limit);
+        if (result instanceof Map) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Lists the immutable versions of a scheme's terms.
+     * 
+     * @param schemeId the scheme ID
+     * @return ResponseEntity with the versions ordered by version number
+     */
+    @GetMapping("/schemes/{schemeId}/versions")
+    public ResponseEntity<?> getSchemeVersions(@PathVariable Long schemeId) {
+        Object result = ministryService.getSchemeVersions(schemeId);
+        if (result instanceof List) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Shows a scheme's budget, allocated amount and remaining headroom.
+     * 
+     * @param schemeId the scheme ID
+     * @return ResponseEntity with the budget summary
+     */
+    @GetMapping("/schemes/{schemeId}/budget")
+    public ResponseEntity<?> getSchemeBudget(@PathVariable Long schemeId) {
+        Object result = ministryService.getSchemeBudget(schemeId);
+        if (result instanceof Map) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
 }
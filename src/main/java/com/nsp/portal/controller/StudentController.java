@@ -1,29 +1,54 @@
 package com.nsp.portal.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nsp.portal.dto.ResourceStamp;
 import com.nsp.portal.dto.StudentProfileUpdateRequest;
 import com.nsp.portal.dto.ScholarshipApplicationRequest;
 import com.nsp.portal.dto.StudentResponse;
+import com.nsp.portal.dto.UploadSessionRequest;
+import com.nsp.portal.dto.UploadSessionStatus;
+import com.nsp.portal.security.AuthenticatedUser;
+import com.nsp.portal.security.CurrentUser;
+import com.nsp.portal.service.DocumentUploadService;
+import com.nsp.portal.service.IdempotencyService;
 import com.nsp.portal.service.StudentService;
-import com.nsp.portal.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUpload;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.UploadContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Student Controller for handling all student-specific operations.
  * 
  * This controller is responsible for:
  * - Viewing available scholarship schemes
- * - Submitting scholarship applications with document uploads
+ * - Uploading documents in resumable chunks or in one streamed request
+ * - Submitting scholarship applications
  * - Managing student profile information
  * - Tracking application status
  */
@@ -38,23 +63,55 @@ public class StudentController {
     private StudentService studentService;
     
     @Autowired
-    private UserService userService;
+    private DocumentUploadService documentUploadService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    // Room in a multipart request for part headers, boundaries and small form fields
+    private static final long MULTIPART_OVERHEAD_BYTES = 64 * 1024;
+    
+    // Largest "application" part accepted by the multipart submission
+    private static final int MAX_APPLICATION_PART_BYTES = 64 * 1024;
+    
+    @Value("${upload.stream.max-files-per-request:10}")
+    private int maxFilesPerRequest;
+    
+    @Value("${upload.max-file-size-bytes:10485760}")
+    private long maxFileSize;
+    
+    @Value("${http.cache.schemes.max-age-seconds:60}")
+    private long schemesMaxAgeSeconds;
     
     /**
      * Fetches all available scholarship schemes.
+     * Answers 304 when If-None-Match carries the current catalog ETag.
      * 
-     * @return ResponseEntity with list of scholarship schemes
+     * @param webRequest the request, for conditional GET handling
+     * @return ResponseEntity with the JSON array of open scholarship schemes
      */
     @Operation(summary = "Get All Schemes", description = "Retrieves all available scholarship schemes")
     @GetMapping("/schemes")
-    public ResponseEntity<?> getAllSchemes() {
+    public ResponseEntity<?> getAllSchemes(WebRequest webRequest) {
         try {
-            Object result = studentService.getAllSchemes();
-            if (result instanceof List) {
-                return ResponseEntity.ok(result);
-            } else {
-                return ResponseEntity.badRequest().body(result);
+            CacheControl cacheControl = CacheControl.maxAge(schemesMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate();
+            // Read the ETag before the body: if the catalog is swapped in between, the client
+            // holds a newer body under an older tag and simply revalidates next time
+            String etag = studentService.getAvailableSchemesEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
             }
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(studentService.getAvailableSchemesJson());
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body("Error retrieving schemes: " + e.getMessage());
@@ -62,31 +119,194 @@ public class StudentController {
     }
     
     /**
-     * Submits a new scholarship application with document uploads.
+     * Fetches the open scholarship schemes the logged-in student is eligible for.
      * 
-     * @param applicationData the application form data
-     * @param documents the uploaded documents
-     * @return ResponseEntity with application submission result
+     * @param currentUser the authenticated student
+     * @return ResponseEntity with the JSON array of eligible schemes
      */
-    @Operation(summary = "Submit Application", description = "Submits a new scholarship application with documents")
-    @PostMapping("/applications")
-    public ResponseEntity<?> submitApplication(
-            @RequestPart("application") @Valid ScholarshipApplicationRequest applicationData,
-            @RequestPart(value = "documents", required = false) MultipartFile[] documents) {
+    @Operation(summary = "Get Eligible Schemes", description = "Retrieves the open scholarship schemes matching the logged-in student's profile")
+    @GetMapping("/schemes/eligible")
+    public ResponseEntity<?> getEligibleSchemes(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            // Convert application data to JSON string for the service
-            String applicationJson = convertToJson(applicationData);
+            Long studentId = currentUser != null ? currentUser.getId() : null;
+            if (studentId == null) {
+                return ResponseEntity.badRequest().body("User not authenticated");
+            }
             
-            Object result = studentService.submitApplication(applicationJson, documents);
-            if (result.toString().contains("success") || result.toString().contains("submitted")) {
-                return ResponseEntity.ok(result);
+            Object result = studentService.getEligibleSchemesJson(studentId);
+            if (result instanceof byte[]) {
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(result);
             } else {
                 return ResponseEntity.badRequest().body(result);
             }
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
-                .body("Error submitting application: " + e.getMessage());
+                .body("Error retrieving eligible schemes: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Searches active scholarship schemes by free text.
+     * 
+     * @param q the search text, e.g. "girl child engineering"
+     * @param limit maximum number of results
+     * @return ResponseEntity with ranked scheme summaries
+     */
+    @Operation(summary = "Search Schemes", description = "Full-text search over scheme name, description and eligibility criteria")
+    @GetMapping("/schemes/search")
+    public ResponseEntity<?> searchSchemes(@RequestParam String q,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        Object result = studentService.searchSchemes(q, limit);
+        if (result instanceof List) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Suggests search words for typeahead.
+     * 
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions
+     * @return ResponseEntity with suggested words
+     */
+    @Operation(summary = "Suggest Search Terms", description = "Typeahead suggestions for scheme search")
+    @GetMapping("/schemes/suggest")
+    public ResponseEntity<?> suggestSchemeSearch(@RequestParam String prefix,
+                                                 @RequestParam(defaultValue = "10") int limit) {
+        Object result = studentService.suggestSchemeSearch(prefix, limit);
+        if (result instanceof List) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Submits a new scholarship application referencing completed document uploads.
+     * A retry carrying the same Idempotency-Key gets the original result without a second submission.
+     * 
+     * @param currentUser the authenticated student
+     * @param idempotencyKey optional key identifying this submission across retries
+     * @param applicationData the application form data with the upload IDs of its documents
+     * @return ResponseEntity with application submission result
+     */
+    @Operation(summary = "Submit Application", description = "Submits a new scholarship application referencing completed uploads")
+    @PostMapping(value = "/applications", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> submitApplication(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody @Valid ScholarshipApplicationRequest applicationData) {
+        Long studentId = currentUser != null ? currentUser.getId() : null;
+        if (studentId == null) {
+            return ResponseEntity.badRequest().body("User not authenticated");
         }
+        return idempotencyService.execute(idempotencyKey, studentId, "submit-application", applicationData, () -> {
+            try {
+                // Convert application data to JSON string for the service
+                String applicationJson = convertToJson(applicationData);
+                
+                Object result = studentService.submitApplication(studentId, applicationJson);
+                if (result.toString().contains("success") || result.toString().contains("submitted")) {
+                    return ResponseEntity.ok(result);
+                } else {
+                    return ResponseEntity.badRequest().body(result);
+                }
+            } catch (Exception e) {
+                return ResponseEntity.internalServerError()
+                    .body("Error submitting application: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Submits a new scholarship application together with its documents in one multipart request.
+     * Kept for clients of the original form: an "application" JSON part and "documents" file
+     * parts. The documents are streamed to storage like POST /api/uploads/stream and attached
+     * as completed uploads, alongside any upload IDs already listed in the application. A retry
+     * carrying the same Idempotency-Key, the same application and files with the same checksums
+     * gets the original result.
+     * 
+     * @param currentUser the authenticated student
+     * @param idempotencyKey optional key identifying this submission across retries
+     * @param request the multipart request
+     * @return ResponseEntity with application submission result
+     */
+    @Operation(summary = "Submit Application With Documents", description = "Submits a new scholarship application with documents in one multipart request")
+    @PostMapping(value = "/applications", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitApplicationWithDocuments(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        Long studentId = currentUser != null ? currentUser.getId() : null;
+        if (studentId == null) {
+            return ResponseEntity.badRequest().body("User not authenticated");
+        }
+        List<UploadSessionStatus> stored = new ArrayList<>();
+        StringBuilder applicationPart = new StringBuilder();
+        Object failure = readParts(studentId, request, "application", applicationPart, stored);
+        ScholarshipApplicationRequest applicationData = null;
+        if (failure == null && applicationPart.length() == 0) {
+            failure = "Application part is required";
+        }
+        if (failure == null) {
+            try {
+                applicationData = objectMapper.readValue(applicationPart.toString(),
+                    ScholarshipApplicationRequest.class);
+                Set<ConstraintViolation<ScholarshipApplicationRequest>> violations = validator.validate(applicationData);
+                if (!violations.isEmpty()) {
+                    failure = violations.iterator().next().getMessage();
+                }
+            } catch (JsonProcessingException e) {
+                failure = "Invalid application part: " + e.getOriginalMessage();
+            }
+        }
+        if (failure != null) {
+            discardUploads(studentId, stored);
+            return ResponseEntity.badRequest().body(failure);
+        }
+        
+        // The key is bound to the parsed application and the checksums of the files streamed, so the
+        // body is read once; a retry that is replayed or refused discards the copies it stored
+        List<String> documents = new ArrayList<>();
+        for (UploadSessionStatus status : stored) {
+            documents.add(status.getDocumentType() + ":" + status.getSha256());
+        }
+        ScholarshipApplicationRequest submission = applicationData;
+        boolean[] executed = {false};
+        ResponseEntity<?> response = idempotencyService.execute(idempotencyKey, studentId, "submit-application",
+                new Object[] {applicationData, documents}, () -> {
+            executed[0] = true;
+            List<String> uploadIds = new ArrayList<>();
+            if (submission.getUploadIds() != null) {
+                uploadIds.addAll(submission.getUploadIds());
+            }
+            for (UploadSessionStatus status : stored) {
+                uploadIds.add(status.getUploadId());
+            }
+            submission.setUploadIds(uploadIds);
+            
+            try {
+                Object result = studentService.submitApplication(studentId, convertToJson(submission));
+                if (result.toString().contains("success") || result.toString().contains("submitted")) {
+                    return ResponseEntity.ok(result);
+                } else {
+                    discardUploads(studentId, stored);
+                    return ResponseEntity.badRequest().body(result);
+                }
+            } catch (Exception e) {
+                discardUploads(studentId, stored);
+                return ResponseEntity.internalServerError()
+                    .body("Error submitting application: " + e.getMessage());
+            }
+        });
+        if (!executed[0]) {
+            discardUploads(studentId, stored);
+        }
+        return response;
     }
     
     /**
@@ -96,9 +316,9 @@ public class StudentController {
      */
     @Operation(summary = "Get Student Applications", description = "Retrieves all applications submitted by the logged-in student")
     @GetMapping("/applications")
-    public ResponseEntity<?> getStudentApplications() {
+    public ResponseEntity<?> getStudentApplications(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            Long studentId = getCurrentUserId();
+            Long studentId = currentUser != null ? currentUser.getId() : null;
             if (studentId == null) {
                 return ResponseEntity.badRequest().body("User not authenticated");
             }
@@ -117,21 +337,43 @@ public class StudentController {
     
     /**
      * Gets the logged-in student's profile.
+     * Answers 304 without a database read when the request's validators match the known
+     * profile version, and after reloading the profile when its stamp had expired.
      * 
+     * @param webRequest the request, for conditional GET handling
      * @return ResponseEntity with student profile
      */
     @Operation(summary = "Get Student Profile", description = "Retrieves the logged-in student's profile information")
     @GetMapping("/student/profile")
-    public ResponseEntity<?> getStudentProfile() {
+    public ResponseEntity<?> getStudentProfile(@CurrentUser AuthenticatedUser currentUser, WebRequest webRequest) {
         try {
-            Long studentId = getCurrentUserId();
+            Long studentId = currentUser != null ? currentUser.getId() : null;
             if (studentId == null) {
                 return ResponseEntity.badRequest().body("User not authenticated");
             }
             
+            // Private and always revalidated; the revalidation is usually a 304 from memory
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            ResourceStamp known = studentService.getStudentProfileStamp(studentId);
+            if (known != null && webRequest.checkNotModified(known.getEtag(), known.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+            }
+            
             Object result = studentService.getStudentProfile(studentId);
             if (result instanceof com.nsp.portal.entity.StudentProfile) {
-                return ResponseEntity.ok(result);
+                ResourceStamp stamp = studentService.getStudentProfileStamp(studentId);
+                // The stamp may only now be known again, e.g. after it expired from the registry
+                if (stamp != null && webRequest.checkNotModified(stamp.getEtag(), stamp.getLastModified())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+                }
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl);
+                if (stamp != null) {
+                    response.eTag(stamp.getEtag());
+                    if (stamp.getLastModified() >= 0) {
+                        response.lastModified(stamp.getLastModified());
+                    }
+                }
+                return response.body(result);
             } else {
                 return ResponseEntity.badRequest().body(result);
             }
@@ -149,9 +391,10 @@ public class StudentController {
      */
     @Operation(summary = "Update Student Profile", description = "Updates the logged-in student's profile information")
     @PutMapping("/student/profile")
-    public ResponseEntity<?> updateStudentProfile(@Valid @RequestBody StudentProfileUpdateRequest profileUpdate) {
+    public ResponseEntity<?> updateStudentProfile(@CurrentUser AuthenticatedUser currentUser,
+                                                  @Valid @RequestBody StudentProfileUpdateRequest profileUpdate) {
         try {
-            Long studentId = getCurrentUserId();
+            Long studentId = currentUser != null ? currentUser.getId() : null;
             if (studentId == null) {
                 return ResponseEntity.badRequest().body("User not authenticated");
             }
@@ -169,49 +412,253 @@ public class StudentController {
     }
     
     /**
-     * Helper method to get current user ID from security context.
+     * Opens a resumable upload for one document.
+     * 
+     * @param currentUser the authenticated student
+     * @param request the file name, document type and total size
+     * @return ResponseEntity with the upload ID and chunk size
      */
-    private Long getCurrentUserId() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated()) {
-                String email = authentication.getName();
-                // Get user ID from email
-                return userService.getUserIdByEmail(email);
-            }
-        } catch (Exception e) {
-            // Log error if needed
+    @Operation(summary = "Start Upload", description = "Opens a resumable, chunked document upload")
+    @PostMapping("/uploads")
+    public ResponseEntity<?> startUpload(@CurrentUser AuthenticatedUser currentUser,
+                                         @Valid @RequestBody UploadSessionRequest request) {
+        Object result = documentUploadService.startUpload(currentUser.getId(), request);
+        if (result instanceof UploadSessionStatus) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
         }
-        return null;
     }
     
     /**
-     * Helper method to convert DTO to JSON string.
-     * This is a simple implementation - in production, use a proper JSON library.
+     * Stores whole documents streamed in one multipart/form-data request.
+     * Parts are parsed straight from the request and each file is written once, directly to
+     * storage, instead of being spooled to a temporary file first. A file part's field name is
+     * its document type ("documents" for a supporting document). If any file is refused, none
+     * of the request's files is kept.
+     * 
+     * @param currentUser the authenticated student
+     * @param request the multipart request
+     * @return ResponseEntity with the completed uploads, whose IDs can be submitted
+     */
+    @Operation(summary = "Stream Upload", description = "Stores whole documents from a multipart request in a single pass")
+    @PostMapping(value = "/uploads/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> streamUpload(@CurrentUser AuthenticatedUser currentUser, HttpServletRequest request) {
+        List<UploadSessionStatus> stored = new ArrayList<>();
+        Object failure = readParts(currentUser.getId(), request, null, null, stored);
+        if (failure == null && stored.isEmpty()) {
+            failure = "No files were uploaded";
+        }
+        
+        if (failure != null) {
+            discardUploads(currentUser.getId(), stored);
+            return ResponseEntity.badRequest().body(failure);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(stored);
+    }
+    
+    /**
+     * Receives one chunk of an upload as the raw request body.
+     * Answers 409 with the offset to resume from when the offset is not the one expected.
+     * 
+     * @param currentUser the authenticated student
+     * @param uploadId the upload ID
+     * @param offset the position of the chunk in the file
+     * @param chunk the chunk bytes
+     * @return ResponseEntity with the upload status and an Upload-Offset header
      */
-    private String convertToJson(ScholarshipApplicationRequest request) {
-        StringBuilder json = new StringBuilder();
-        json.append("{");
-        json.append("\"schemeId\":").append(request.getSchemeId());
-        if (request.getAdditionalNotes() != null) {
-            json.append(",\"additionalNotes\":\"").append(request.getAdditionalNotes()).append("\"");
+    @Operation(summary = "Upload Chunk", description = "Receives one chunk of a resumable upload at the given offset")
+    @PutMapping(value = "/uploads/{uploadId}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(@CurrentUser AuthenticatedUser currentUser,
+                                         @PathVariable String uploadId,
+                                         @RequestParam long offset,
+                                         InputStream chunk) {
+        // Check the offset before reading the body, so a stale retry is not transferred again
+        Object current = documentUploadService.getUploadStatus(currentUser.getId(), uploadId);
+        if (!(current instanceof UploadSessionStatus)) {
+            return ResponseEntity.badRequest().body(current);
         }
-        if (request.getFamilyIncome() != null) {
-            json.append(",\"familyIncome\":\"").append(request.getFamilyIncome()).append("\"");
+        UploadSessionStatus status = (UploadSessionStatus) current;
+        if (status.getReceivedBytes() != offset && status.getReceivedBytes() != status.getTotalSize()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Upload-Offset", String.valueOf(status.getReceivedBytes()))
+                .body(status);
         }
-        if (request.getAcademicYear() != null) {
-            json.append(",\"academicYear\":\"").append(request.getAcademicYear()).append("\"");
+        
+        Object result = documentUploadService.appendChunk(currentUser.getId(), uploadId, offset, chunk);
+        if (result instanceof UploadSessionStatus) {
+            return ResponseEntity.ok()
+                .header("Upload-Offset", String.valueOf(((UploadSessionStatus) result).getReceivedBytes()))
+                .body(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
         }
-        if (request.getCurrentSemester() != null) {
-            json.append(",\"currentSemester\":\"").append(request.getCurrentSemester()).append("\"");
+    }
+    
+    /**
+     * Gets the status of an upload, including the offset to resume from.
+     * 
+     * @param currentUser the authenticated student
+     * @param uploadId the upload ID
+     * @return ResponseEntity with the upload status and an Upload-Offset header
+     */
+    @Operation(summary = "Get Upload Status", description = "Returns the progress of a resumable upload")
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUploadStatus(@CurrentUser AuthenticatedUser currentUser,
+                                             @PathVariable String uploadId) {
+        Object result = documentUploadService.getUploadStatus(currentUser.getId(), uploadId);
+        if (result instanceof UploadSessionStatus) {
+            return ResponseEntity.ok()
+                .header("Upload-Offset", String.valueOf(((UploadSessionStatus) result).getReceivedBytes()))
+                .body(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Abandons an upload that is not attached to an application.
+     * 
+     * @param currentUser the authenticated student
+     * @param uploadId the upload ID
+     * @return ResponseEntity with the result
+     */
+    @Operation(summary = "Abort Upload", description = "Abandons an unattached upload and deletes its data")
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@CurrentUser AuthenticatedUser currentUser,
+                                         @PathVariable String uploadId) {
+        Object result = documentUploadService.abortUpload(currentUser.getId(), uploadId);
+        if (result.toString().contains("successfully")) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
+    /**
+     * Helper method to stream the file parts of a multipart request to storage.
+     * A file part's field name is its document type ("documents" for a supporting document).
+     * Other form fields are skipped, except the data field, which is read into data.
+     * 
+     * @param studentId the student ID
+     * @param request the multipart request
+     * @param dataField name of the part to read as text, or null for none
+     * @param data receives the data field
+     * @param stored receives the completed uploads, including those stored before a failure
+     * @return an error message, or null when every part was accepted
+     */
+    private Object readParts(Long studentId, HttpServletRequest request, String dataField,
+                             StringBuilder data, List<UploadSessionStatus> stored) {
+        try {
+            FileItemIterator parts = multipartParser().getItemIterator(uploadContext(request));
+            int partCount = 0;
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                if (++partCount > maxFilesPerRequest + 1) {
+                    return "At most " + maxFilesPerRequest + " files can be uploaded in one request";
+                }
+                // Browsers send a JSON blob as a file part, so the data field is matched by name
+                if (dataField != null && dataField.equals(part.getFieldName())) {
+                    try (InputStream content = part.openStream()) {
+                        byte[] bytes = content.readNBytes(MAX_APPLICATION_PART_BYTES + 1);
+                        if (bytes.length > MAX_APPLICATION_PART_BYTES) {
+                            return "Application part is too large";
+                        }
+                        data.append(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                    continue;
+                }
+                if (part.isFormField()) {
+                    // Skipped unread by the iterator
+                    continue;
+                }
+                if (stored.size() == maxFilesPerRequest) {
+                    return "At most " + maxFilesPerRequest + " files can be uploaded in one request";
+                }
+                String documentType = "documents".equals(part.getFieldName()) ? null : part.getFieldName();
+                try (InputStream content = part.openStream()) {
+                    Object result = documentUploadService.storeUpload(studentId, baseName(part.getName()),
+                        documentType, content);
+                    if (!(result instanceof UploadSessionStatus)) {
+                        return result;
+                    }
+                    stored.add((UploadSessionStatus) result);
+                }
+            }
+            return null;
+        } catch (FileUploadException | IOException e) {
+            return "Error reading upload: " + e.getMessage();
         }
-        if (request.getCgpa() != null) {
-            json.append(",\"cgpa\":\"").append(request.getCgpa()).append("\"");
+    }
+    
+    /**
+     * Helper method to abandon uploads stored for a request that failed.
+     */
+    private void discardUploads(Long studentId, List<UploadSessionStatus> stored) {
+        for (UploadSessionStatus status : stored) {
+            documentUploadService.abortUpload(studentId, status.getUploadId());
         }
-        if (request.getAttendancePercentage() != null) {
-            json.append(",\"attendancePercentage\":\"").append(request.getAttendancePercentage()).append("\"");
+    }
+    
+    /**
+     * Helper method to create a streaming multipart parser bounded by the upload properties:
+     * each part by the file size limit, the whole request by that limit times the file limit.
+     */
+    private FileUpload multipartParser() {
+        FileUpload upload = new FileUpload();
+        upload.setFileSizeMax(maxFileSize);
+        upload.setSizeMax(maxFileSize * maxFilesPerRequest + MULTIPART_OVERHEAD_BYTES);
+        upload.setFileCountMax(maxFilesPerRequest + 1);
+        return upload;
+    }
+    
+    /**
+     * Helper method to expose the servlet request to the multipart parser.
+     */
+    private UploadContext uploadContext(HttpServletRequest request) {
+        return new UploadContext() {
+            @Override
+            public String getCharacterEncoding() {
+                return request.getCharacterEncoding();
+            }
+            
+            @Override
+            public String getContentType() {
+                return request.getContentType();
+            }
+            
+            @Override
+            @Deprecated
+            public int getContentLength() {
+                return request.getContentLength();
+            }
+            
+            @Override
+            public long contentLength() {
+                return request.getContentLengthLong();
+            }
+            
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return request.getInputStream();
+            }
+        };
+    }
+    
+    /**
+     * Helper method to strip any client path from a part's file name.
+     */
+    private String baseName(String fileName) {
+        if (fileName == null) {
+            return null;
         }
-        json.append("}");
-        return json.toString();
+        return fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+    }
+    
+    /**
+     * Helper method to convert DTO to JSON string.
+     */
+    private String convertToJson(ScholarshipApplicationRequest request) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(request);
     }
 }
@@ -14,6 +14,8 @@ public class AuthResponse {
     private String email;
     private Role role;
     private String name;
+    private String refreshToken;
+    private Long expiresIn; // Access token lifetime in seconds
     
     // Default constructor
     public AuthResponse() {}
@@ -90,4 +92,20 @@ public class AuthResponse {
     public void setName(String name) {
         this.name = name;
     }
+    
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
@@ -0,0 +1,26 @@
+package com.nsp.portal.dto;
+
+/**
+ * Validator pair of a cacheable resource: a strong ETag and, where known, its last
+ * modification time. Used to answer conditional GETs without loading the resource.
+ */
+public class ResourceStamp {
+    
+    private final String etag;
+    private final long lastModified;
+    
+    // Constructor with fields; lastModified is epoch millis, or -1 if unknown
+    public ResourceStamp(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+    
+    // Getters
+    public String getEtag() {
+        return etag;
+    }
+    
+    public long getLastModified() {
+        return lastModified;
+    }
+}
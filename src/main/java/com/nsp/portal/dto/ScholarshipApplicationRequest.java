@@ -3,6 +3,8 @@ package com.nsp.portal.dto;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.util.List;
+
 /**
  * DTO for scholarship application submission.
  * Contains the basic information needed to submit an application.
@@ -25,6 +27,8 @@ public class ScholarshipApplicationRequest {
     
     private String attendancePercentage;
     
+    private List<String> uploadIds; // Completed upload sessions holding the documents
+    
     // Default constructor
     public ScholarshipApplicationRequest() {}
     
@@ -89,4 +93,12 @@ public class ScholarshipApplicationRequest {
     public void setAttendancePercentage(String attendancePercentage) {
         this.attendancePercentage = attendancePercentage;
     }
+    
+    public List<String> getUploadIds() {
+        return uploadIds;
+    }
+    
+    public void setUploadIds(List<String> uploadIds) {
+        this.uploadIds = uploadIds;
+    }
 }
@@ -0,0 +1,32 @@
+package com.nsp.portal.dto;
+
+/**
+ * Result of streaming a file into storage: where it was written, how many bytes it has and
+ * the hex SHA-256 of its content, computed while it was written.
+ */
+public class StoredFile {
+    
+    private final String filePath;
+    private final long size;
+    private final String sha256;
+    
+    // Constructor with fields
+    public StoredFile(String filePath, long size, String sha256) {
+        this.filePath = filePath;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+    
+    // Getters
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public String getSha256() {
+        return sha256;
+    }
+}
@@ -2,6 +2,8 @@ package com.nsp.portal.dto;
 
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 /**
@@ -40,6 +42,15 @@ public class StudentProfileUpdateRequest {
     
     private String ifscCode;
     
+    @PositiveOrZero(message = "Family income cannot be negative")
+    private BigDecimal familyIncome;
+    
+    private String academicLevel; // Primary, Secondary, Higher Secondary, College
+    
+    private String subject; // Science, Arts, Commerce
+    
+    private String instituteType; // Government, Private, Aided
+    
     // Default constructor
     public StudentProfileUpdateRequest() {}
     
@@ -155,4 +166,36 @@ public class StudentProfileUpdateRequest {
     public void setIfscCode(String ifscCode) {
         this.ifscCode = ifscCode;
     }
+    
+    public BigDecimal getFamilyIncome() {
+        return familyIncome;
+    }
+    
+    public void setFamilyIncome(BigDecimal familyIncome) {
+        this.familyIncome = familyIncome;
+    }
+    
+    public String getAcademicLevel() {
+        return academicLevel;
+    }
+    
+    public void setAcademicLevel(String academicLevel) {
+        this.academicLevel = academicLevel;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+    
+    public String getInstituteType() {
+        return instituteType;
+    }
+    
+    public void setInstituteType(String instituteType) {
+        this.instituteType = instituteType;
+    }
 }
@@ -0,0 +1,53 @@
+package com.nsp.portal.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * DTO for starting a chunked document upload.
+ * Declares the file up front so the server can fix the chunk size and check the size limit.
+ */
+public class UploadSessionRequest {
+    
+    @NotBlank(message = "File name is required")
+    private String fileName;
+    
+    private String documentType; // e.g., "AADHAR_CARD", "INCOME_CERTIFICATE"; defaults to SUPPORTING_DOCUMENT
+    
+    @Positive(message = "Total size must be positive")
+    private long totalSize;
+    
+    // Default constructor
+    public UploadSessionRequest() {}
+    
+    // Constructor with required fields
+    public UploadSessionRequest(String fileName, long totalSize) {
+        this.fileName = fileName;
+        this.totalSize = totalSize;
+    }
+    
+    // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public String getDocumentType() {
+        return documentType;
+    }
+    
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+    
+    public long getTotalSize() {
+        return totalSize;
+    }
+    
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+}
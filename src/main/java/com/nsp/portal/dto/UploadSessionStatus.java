@@ -0,0 +1,73 @@
+package com.nsp.portal.dto;
+
+import com.nsp.portal.entity.UploadSession;
+import com.nsp.portal.enums.UploadStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO describing an upload session.
+ * receivedBytes is the offset the next chunk must be sent at; sha256 is set for streamed uploads.
+ */
+public class UploadSessionStatus {
+    
+    private final String uploadId;
+    private final String fileName;
+    private final String documentType;
+    private final long totalSize;
+    private final int chunkSize;
+    private final long receivedBytes;
+    private final UploadStatus status;
+    private final String sha256;
+    private final LocalDateTime expiresAt;
+    
+    // Constructor from the session
+    public UploadSessionStatus(UploadSession session) {
+        this.uploadId = session.getId();
+        this.fileName = session.getOriginalFileName();
+        this.documentType = session.getDocumentType();
+        this.totalSize = session.getTotalSize();
+        this.chunkSize = session.getChunkSize();
+        this.receivedBytes = session.getReceivedBytes();
+        this.status = session.getStatus();
+        this.sha256 = session.getSha256();
+        this.expiresAt = session.getExpiresAt();
+    }
+    
+    // Getters
+    public String getUploadId() {
+        return uploadId;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public String getDocumentType() {
+        return documentType;
+    }
+    
+    public long getTotalSize() {
+        return totalSize;
+    }
+    
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+    
+    public UploadStatus getStatus() {
+        return status;
+    }
+    
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -43,6 +43,9 @@ public class ApplicationDocument {
     @Column(nullable = false)
     private LocalDateTime uploadDate;
     
+    @Column(length = 64)
+    private String sha256; // Hex SHA-256 of the content, when computed at upload
+    
     private String uploadRemarks;
     private boolean isVerified = false;
     private LocalDateTime verificationDate;
@@ -138,6 +141,14 @@ public class ApplicationDocument {
         this.uploadRemarks = uploadRemarks;
     }
     
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+    
     public boolean isVerified() {
         return isVerified;
     }
@@ -4,12 +4,17 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDateTime;
+
 /**
  * InstituteProfile entity containing institute-specific details.
  * Linked one-to-one with a User entity.
  */
 @Entity
-@Table(name = "institute_profiles")
+@Table(name = "institute_profiles", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_institute_profiles_institute_code", columnNames = "institute_code")
+})
+@EntityListeners(InstituteProfileListener.class)
 public class InstituteProfile {
     
     @Id
@@ -25,7 +30,7 @@ public class InstituteProfile {
     private String instituteName;
     
     @NotBlank(message = "Institute code is required")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String instituteCode;
     
     @NotNull(message = "Registration approval status is required")
@@ -45,6 +50,13 @@ public class InstituteProfile {
     private String affiliationBody; // CBSE, ICSE, State Board, etc.
     private String establishmentYear;
     
+    // Incremented on every update; exposed as the ETag of profile reads
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version = 0;
+    
+    private LocalDateTime updatedAt;
+    
     // Default constructor
     public InstituteProfile() {}
     
@@ -185,4 +197,20 @@ public class InstituteProfile {
     public void setEstablishmentYear(String establishmentYear) {
         this.establishmentYear = establishmentYear;
     }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
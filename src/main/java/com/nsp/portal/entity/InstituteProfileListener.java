@@ -0,0 +1,42 @@
+package com.nsp.portal.entity;
+
+import com.nsp.portal.event.InstituteProfileChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity listener that stamps the modification time of institute profiles and announces
+ * changes as an InstituteProfileChangedEvent.
+ * Instantiated through Spring's Hibernate bean container, so it can be autowired.
+ */
+@Component
+public class InstituteProfileListener {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PrePersist
+    @PreUpdate
+    public void touch(InstituteProfile profile) {
+        profile.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    @PostPersist
+    @PostUpdate
+    public void onProfileSaved(InstituteProfile profile) {
+        eventPublisher.publishEvent(new InstituteProfileChangedEvent(profile.getId(), false));
+    }
+    
+    @PostRemove
+    public void onProfileRemoved(InstituteProfile profile) {
+        eventPublisher.publishEvent(new InstituteProfileChangedEvent(profile.getId(), true));
+    }
+}
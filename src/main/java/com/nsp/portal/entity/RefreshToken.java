@@ -0,0 +1,137 @@
+package com.nsp.portal.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * RefreshToken entity for rotating refresh tokens.
+ * Only the SHA-256 hash of the token is stored. Every refresh replaces the token with a new
+ * one in the same family; presenting an already rotated token revokes the whole family.
+ */
+@Entity
+@Table(name = "refresh_tokens", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash")
+}, indexes = {
+    @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id")
+})
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 64)
+    private String tokenHash; // Hex encoded SHA-256 of the token value
+    
+    @NotNull(message = "User is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false, length = 36)
+    private String familyId; // Shared by all tokens descending from one login
+    
+    @Column(nullable = false)
+    private int tokenVersion; // User credential version at issue time
+    
+    @Column(nullable = false)
+    private LocalDateTime issuedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    private boolean revoked = false;
+    private LocalDateTime revokedAt;
+    
+    // Default constructor
+    public RefreshToken() {}
+    
+    // Constructor with required fields
+    public RefreshToken(String tokenHash, User user, String familyId, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.user = user;
+        this.familyId = familyId;
+        this.tokenVersion = user.getTokenVersion();
+        this.issuedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.revoked = false;
+    }
+    
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public String getFamilyId() {
+        return familyId;
+    }
+    
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+    
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+    
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+    
+    public LocalDateTime getIssuedAt() {
+        return issuedAt;
+    }
+    
+    public void setIssuedAt(LocalDateTime issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public boolean isRevoked() {
+        return revoked;
+    }
+    
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
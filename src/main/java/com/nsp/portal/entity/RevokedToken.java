@@ -0,0 +1,112 @@
+package com.nsp.portal.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * RevokedToken entity used to propagate access-token revocations between nodes.
+ * A row either revokes a single access token (tokenId) or every access token of a user
+ * issued before a credential version (userId + tokenVersion), whose email tells the other
+ * nodes which cached UserDetails to drop. Rows are only needed until the revoked tokens
+ * and cached details would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+    @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(length = 36)
+    private String tokenId; // jti of a single revoked access token
+    
+    private Long userId;
+    private Integer tokenVersion; // Tokens of userId with an older version are revoked
+    private String email; // Login of userId, whose cached UserDetails are stale
+    
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Default constructor
+    public RevokedToken() {}
+    
+    // Constructor revoking a single access token until it expires
+    public RevokedToken(String tokenId, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.revokedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+    
+    // Constructor revoking all access tokens of a user issued before the given credential version
+    public RevokedToken(Long userId, int tokenVersion, String email, LocalDateTime expiresAt) {
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.email = email;
+        this.revokedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTokenId() {
+        return tokenId;
+    }
+    
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+    
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,160 @@
+package com.nsp.portal.entity;
+
+import com.nsp.portal.enums.ClosurePhase;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * SchemeClosureCheckpoint entity recording the progress of closing one scheme after its deadline.
+ * Updated in the same transaction as every chunk of applications it covers, so a restarted job
+ * resumes after the last committed chunk. The lease keeps two nodes from closing the same
+ * scheme at once; an expired lease can be taken over.
+ */
+@Entity
+@Table(name = "scheme_closure_checkpoints", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_scheme_closure_scheme_date", columnNames = {"scheme_id", "closing_date"})
+})
+public class SchemeClosureCheckpoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "scheme_id", nullable = false)
+    private Long schemeId;
+    
+    @Column(name = "closing_date", nullable = false)
+    private LocalDate closingDate; // The applicationEndDate being closed; a later extension closes again
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ClosurePhase phase = ClosurePhase.CLOSE_APPLIED;
+    
+    @Column(nullable = false)
+    private long lastApplicationId; // Highest application ID handled in the current phase
+    
+    @Column(nullable = false)
+    private long closedCount;
+    
+    @Column(nullable = false)
+    private long frozenCount;
+    
+    @Column(length = 64)
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    
+    // Default constructor
+    public SchemeClosureCheckpoint() {}
+    
+    // Constructor with required fields
+    public SchemeClosureCheckpoint(Long schemeId, LocalDate closingDate) {
+        this.schemeId = schemeId;
+        this.closingDate = closingDate;
+        this.phase = ClosurePhase.CLOSE_APPLIED;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSchemeId() {
+        return schemeId;
+    }
+    
+    public void setSchemeId(Long schemeId) {
+        this.schemeId = schemeId;
+    }
+    
+    public LocalDate getClosingDate() {
+        return closingDate;
+    }
+    
+    public void setClosingDate(LocalDate closingDate) {
+        this.closingDate = closingDate;
+    }
+    
+    public ClosurePhase getPhase() {
+        return phase;
+    }
+    
+    public void setPhase(ClosurePhase phase) {
+        this.phase = phase;
+    }
+    
+    public long getLastApplicationId() {
+        return lastApplicationId;
+    }
+    
+    public void setLastApplicationId(long lastApplicationId) {
+        this.lastApplicationId = lastApplicationId;
+    }
+    
+    public long getClosedCount() {
+        return closedCount;
+    }
+    
+    public void setClosedCount(long closedCount) {
+        this.closedCount = closedCount;
+    }
+    
+    public long getFrozenCount() {
+        return frozenCount;
+    }
+    
+    public void setFrozenCount(long frozenCount) {
+        this.frozenCount = frozenCount;
+    }
+    
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+    
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+    
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+    
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -13,7 +13,12 @@ import java.util.List;
  * This is the central entity that manages the entire application workflow.
  */
 @Entity
-@Table(name = "scholarship_applications")
+@Table(name = "scholarship_applications", indexes = {
+    @Index(name = "idx_applications_scheme_status", columnList = "scheme_id, status, id")
+}, uniqueConstraints = {
+    // One application per student, scheme and academic year, whichever node receives it
+    @UniqueConstraint(name = "uk_applications_student_scheme_year", columnNames = {"student_id", "scheme_id", "academic_year"})
+})
 public class ScholarshipApplication {
     
     @Id
@@ -30,6 +35,11 @@ public class ScholarshipApplication {
     @JoinColumn(name = "scheme_id", nullable = false)
     private ScholarshipScheme scheme;
     
+    // Terms the application was submitted under; null only for rows older than scheme versioning
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scheme_version_id")
+    private ScholarshipSchemeVersion schemeVersion;
+    
     @NotNull(message = "Application date is required")
     @Column(nullable = false)
     private LocalDate applicationDate;
@@ -62,6 +72,8 @@ public class ScholarshipApplication {
     private String stateVerificationRemarks;
     private LocalDate ministryApprovalDate;
     private String ministryApprovalRemarks;
+    private BigDecimal grantedAmount; // Amount reserved from the scheme budget on grant
+    private LocalDate queueFrozenOn; // Scheme deadline at which the institute queue was frozen; documents are final
     
     // Document references
     @OneToMany(mappedBy = "application", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -250,6 +262,22 @@ public class ScholarshipApplication {
         this.ministryApprovalRemarks = ministryApprovalRemarks;
     }
     
+    public BigDecimal getGrantedAmount() {
+        return grantedAmount;
+    }
+    
+    public void setGrantedAmount(BigDecimal grantedAmount) {
+        this.grantedAmount = grantedAmount;
+    }
+    
+    public LocalDate getQueueFrozenOn() {
+        return queueFrozenOn;
+    }
+    
+    public void setQueueFrozenOn(LocalDate queueFrozenOn) {
+        this.queueFrozenOn = queueFrozenOn;
+    }
+    
     public List<ApplicationDocument> getDocuments() {
         return documents;
     }
@@ -257,4 +285,12 @@ public class ScholarshipApplication {
     public void setDocuments(List<ApplicationDocument> documents) {
         this.documents = documents;
     }
+    
+    public ScholarshipSchemeVersion getSchemeVersion() {
+        return schemeVersion;
+    }
+    
+    public void setSchemeVersion(ScholarshipSchemeVersion schemeVersion) {
+        this.schemeVersion = schemeVersion;
+    }
 }
@@ -1,18 +1,25 @@
 package com.nsp.portal.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 /**
  * ScholarshipScheme entity storing details about available scholarships.
  * Contains information about eligibility criteria and scholarship amounts.
+ * 
+ * allocatedAmount is only ever changed by the conditional budget update in
+ * ScholarshipSchemeRepository; dynamic updates keep scheme edits from writing it back.
  */
 @Entity
 @Table(name = "scholarship_schemes")
+@DynamicUpdate
+@EntityListeners(ScholarshipSchemeListener.class)
 public class ScholarshipScheme {
     
     @Id
@@ -31,6 +38,10 @@ public class ScholarshipScheme {
     @Column(nullable = false, length = 2000)
     private String eligibilityCriteria;
     
+    // Machine-checkable form of the criteria, see EligibilityRuleCompiler for the syntax
+    @Column(length = 2000)
+    private String eligibilityRule;
+    
     // Additional fields for comprehensive scheme information
     @NotNull(message = "Scholarship amount is required")
     @Positive(message = "Scholarship amount must be positive")
@@ -56,6 +67,14 @@ public class ScholarshipScheme {
     private String subject; // Science, Arts, Commerce, All
     private String instituteType; // Government, Private, Aided, All
     
+    // Budget accounting, not part of the public catalog
+    @JsonIgnore
+    private BigDecimal totalBudget; // Maximum total of grants; null means no limit
+    
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "numeric(19,2) default 0")
+    private BigDecimal allocatedAmount = BigDecimal.ZERO; // Sum of granted amounts
+    
     // Default constructor
     public ScholarshipScheme() {}
     
@@ -193,4 +212,24 @@ public class ScholarshipScheme {
     public void setInstituteType(String instituteType) {
         this.instituteType = instituteType;
     }
+    
+    public BigDecimal getTotalBudget() {
+        return totalBudget;
+    }
+    
+    public void setTotalBudget(BigDecimal totalBudget) {
+        this.totalBudget = totalBudget;
+    }
+    
+    public BigDecimal getAllocatedAmount() {
+        return allocatedAmount;
+    }
+    
+    public String getEligibilityRule() {
+        return eligibilityRule;
+    }
+    
+    public void setEligibilityRule(String eligibilityRule) {
+        this.eligibilityRule = eligibilityRule;
+    }
 }
@@ -0,0 +1,40 @@
+package com.nsp.portal.entity;
+
+import com.nsp.portal.event.SchemeCatalogChangedEvent;
+import com.nsp.portal.rule.EligibilityRuleCompiler;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that rejects schemes with a malformed eligibility rule and announces
+ * scheme changes as a SchemeCatalogChangedEvent.
+ * Instantiated through Spring's Hibernate bean container, so it can be autowired.
+ */
+@Component
+public class ScholarshipSchemeListener {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PrePersist
+    @PreUpdate
+    public void validateEligibilityRule(ScholarshipScheme scheme) {
+        String rule = scheme.getEligibilityRule();
+        if (rule != null && !rule.isBlank()) {
+            EligibilityRuleCompiler.compile(rule);
+        }
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onSchemeChanged(ScholarshipScheme scheme) {
+        eventPublisher.publishEvent(new SchemeCatalogChangedEvent(scheme.getId()));
+    }
+}
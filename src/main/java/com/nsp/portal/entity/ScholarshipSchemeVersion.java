@@ -0,0 +1,201 @@
+package com.nsp.portal.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Immutable, effective-dated copy of the terms of a ScholarshipScheme.
+ * A new version is appended whenever the terms change; existing rows are never updated,
+ * so applications can be pinned to the version they were submitted under.
+ */
+@Entity
+@Immutable
+@Table(name = "scholarship_scheme_versions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_scheme_versions_scheme_version", columnNames = {"scheme_id", "version_number"})
+})
+public class ScholarshipSchemeVersion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scheme_id", nullable = false, updatable = false)
+    private ScholarshipScheme scheme;
+    
+    // Read-only view of the foreign key, so detached versions never touch the lazy association
+    @Column(name = "scheme_id", insertable = false, updatable = false)
+    private Long schemeId;
+    
+    @Column(nullable = false, updatable = false)
+    private int versionNumber;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDate effectiveFrom;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Terms copied from the scheme
+    @Column(nullable = false, updatable = false)
+    private String schemeName;
+    
+    @Column(length = 1000, updatable = false)
+    private String description;
+    
+    @Column(length = 2000, updatable = false)
+    private String eligibilityCriteria;
+    
+    @Column(length = 2000, updatable = false)
+    private String eligibilityRule;
+    
+    @Column(nullable = false, updatable = false)
+    private BigDecimal scholarshipAmount;
+    
+    @Column(updatable = false)
+    private BigDecimal familyIncomeLimit;
+    
+    @Column(updatable = false)
+    private String category;
+    
+    @Column(updatable = false)
+    private String gender;
+    
+    @Column(updatable = false)
+    private String domicileState;
+    
+    @Column(updatable = false)
+    private String academicLevel;
+    
+    @Column(updatable = false)
+    private String subject;
+    
+    @Column(updatable = false)
+    private String instituteType;
+    
+    // Default constructor for JPA
+    protected ScholarshipSchemeVersion() {}
+    
+    // Constructor copying the current terms of the scheme
+    public ScholarshipSchemeVersion(ScholarshipScheme scheme, int versionNumber, LocalDate effectiveFrom) {
+        this.scheme = scheme;
+        this.schemeId = scheme.getId();
+        this.versionNumber = versionNumber;
+        this.effectiveFrom = effectiveFrom;
+        this.createdAt = LocalDateTime.now();
+        this.schemeName = scheme.getSchemeName();
+        this.description = scheme.getDescription();
+        this.eligibilityCriteria = scheme.getEligibilityCriteria();
+        this.eligibilityRule = scheme.getEligibilityRule();
+        this.scholarshipAmount = scheme.getScholarshipAmount();
+        this.familyIncomeLimit = scheme.getFamilyIncomeLimit();
+        this.category = scheme.getCategory();
+        this.gender = scheme.getGender();
+        this.domicileState = scheme.getDomicileState();
+        this.academicLevel = scheme.getAcademicLevel();
+        this.subject = scheme.getSubject();
+        this.instituteType = scheme.getInstituteType();
+    }
+    
+    /**
+     * Checks whether the scheme's current terms equal the terms of this version.
+     * 
+     * @param scheme the scheme
+     * @return true if no term has changed since this version was recorded
+     */
+    public boolean hasSameTerms(ScholarshipScheme scheme) {
+        return Objects.equals(schemeName, scheme.getSchemeName())
+            && Objects.equals(description, scheme.getDescription())
+            && Objects.equals(eligibilityCriteria, scheme.getEligibilityCriteria())
+            && Objects.equals(eligibilityRule, scheme.getEligibilityRule())
+            && compare(scholarshipAmount, scheme.getScholarshipAmount())
+            && compare(familyIncomeLimit, scheme.getFamilyIncomeLimit())
+            && Objects.equals(category, scheme.getCategory())
+            && Objects.equals(gender, scheme.getGender())
+            && Objects.equals(domicileState, scheme.getDomicileState())
+            && Objects.equals(academicLevel, scheme.getAcademicLevel())
+            && Objects.equals(subject, scheme.getSubject())
+            && Objects.equals(instituteType, scheme.getInstituteType());
+    }
+    
+    // BigDecimal.equals is scale-sensitive, and the database may return a different scale
+    private static boolean compare(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getSchemeId() {
+        return schemeId;
+    }
+    
+    public int getVersionNumber() {
+        return versionNumber;
+    }
+    
+    public LocalDate getEffectiveFrom() {
+        return effectiveFrom;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public String getSchemeName() {
+        return schemeName;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getEligibilityCriteria() {
+        return eligibilityCriteria;
+    }
+    
+    public String getEligibilityRule() {
+        return eligibilityRule;
+    }
+    
+    public BigDecimal getScholarshipAmount() {
+        return scholarshipAmount;
+    }
+    
+    public BigDecimal getFamilyIncomeLimit() {
+        return familyIncomeLimit;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public String getGender() {
+        return gender;
+    }
+    
+    public String getDomicileState() {
+        return domicileState;
+    }
+    
+    public String getAcademicLevel() {
+        return academicLevel;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public String getInstituteType() {
+        return instituteType;
+    }
+}
@@ -4,14 +4,19 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * StudentProfile entity containing student-specific details.
  * Linked one-to-one with a User entity.
  */
 @Entity
-@Table(name = "student_profiles")
+@Table(name = "student_profiles", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_student_profiles_aadhar_number", columnNames = "aadhar_number")
+})
+@EntityListeners(StudentProfileListener.class)
 public class StudentProfile {
     
     @Id
@@ -40,7 +45,7 @@ public class StudentProfile {
     private String domicileState;
     
     @NotBlank(message = "Aadhar number is required")
-    @Column(unique = true, nullable = false, length = 12)
+    @Column(nullable = false, length = 12)
     private String aadharNumber;
     
     // Additional fields for comprehensive student information
@@ -55,6 +60,19 @@ public class StudentProfile {
     private String bankName;
     private String ifscCode;
     
+    // Eligibility attributes matched against scheme restrictions
+    private BigDecimal familyIncome; // Annual family income
+    private String academicLevel; // Primary, Secondary, Higher Secondary, College
+    private String subject; // Science, Arts, Commerce
+    private String instituteType; // Government, Private, Aided
+    
+    // Incremented on every update; exposed as the ETag of profile reads
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version = 0;
+    
+    private LocalDateTime updatedAt;
+    
     // Default constructor
     public StudentProfile() {}
     
@@ -206,4 +224,52 @@ public class StudentProfile {
     public void setIfscCode(String ifscCode) {
         this.ifscCode = ifscCode;
     }
+    
+    public BigDecimal getFamilyIncome() {
+        return familyIncome;
+    }
+    
+    public void setFamilyIncome(BigDecimal familyIncome) {
+        this.familyIncome = familyIncome;
+    }
+    
+    public String getAcademicLevel() {
+        return academicLevel;
+    }
+    
+    public void setAcademicLevel(String academicLevel) {
+        this.academicLevel = academicLevel;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+    
+    public String getInstituteType() {
+        return instituteType;
+    }
+    
+    public void setInstituteType(String instituteType) {
+        this.instituteType = instituteType;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
@@ -0,0 +1,42 @@
+package com.nsp.portal.entity;
+
+import com.nsp.portal.event.StudentProfileChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity listener that stamps the modification time of student profiles and announces
+ * changes as a StudentProfileChangedEvent.
+ * Instantiated through Spring's Hibernate bean container, so it can be autowired.
+ */
+@Component
+public class StudentProfileListener {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PrePersist
+    @PreUpdate
+    public void touch(StudentProfile profile) {
+        profile.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    @PostPersist
+    @PostUpdate
+    public void onProfileSaved(StudentProfile profile) {
+        eventPublisher.publishEvent(new StudentProfileChangedEvent(profile, false));
+    }
+    
+    @PostRemove
+    public void onProfileRemoved(StudentProfile profile) {
+        eventPublisher.publishEvent(new StudentProfileChangedEvent(profile, true));
+    }
+}
@@ -0,0 +1,202 @@
+package com.nsp.portal.entity;
+
+import com.nsp.portal.enums.UploadStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * UploadSession entity tracking a resumable, chunked document upload.
+ * The session ID is the upload ID clients send chunks to and later reference when submitting
+ * an application. receivedBytes only ever advances by whole chunks, so it is always the offset
+ * to resume from.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_sessions_student_status", columnList = "student_user_id, status"),
+    @Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at")
+})
+public class UploadSession {
+    
+    @Id
+    @Column(length = 36)
+    private String id; // Random UUID, also the stored file name
+    
+    @Column(name = "student_user_id", nullable = false)
+    private Long studentUserId;
+    
+    @Column(nullable = false)
+    private String documentType;
+    
+    @Column(nullable = false)
+    private String originalFileName;
+    
+    @Column(nullable = false)
+    private String fileExtension;
+    
+    @Column(nullable = false)
+    private long totalSize; // Bytes
+    
+    @Column(nullable = false)
+    private int chunkSize; // Bytes; every chunk but the last has exactly this size
+    
+    @Column(nullable = false)
+    private long receivedBytes;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UploadStatus status = UploadStatus.IN_PROGRESS;
+    
+    private String filePath; // Set once the file is assembled
+    
+    @Column(length = 64)
+    private String sha256; // Hex digest, set for streamed uploads
+    private Long applicationId; // Set once attached
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Default constructor
+    public UploadSession() {}
+    
+    // Constructor with required fields
+    public UploadSession(String id, Long studentUserId, String documentType, String originalFileName,
+                         String fileExtension, long totalSize, int chunkSize, LocalDateTime expiresAt) {
+        this.id = id;
+        this.studentUserId = studentUserId;
+        this.documentType = documentType;
+        this.originalFileName = originalFileName;
+        this.fileExtension = fileExtension;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.receivedBytes = 0;
+        this.status = UploadStatus.IN_PROGRESS;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Long getStudentUserId() {
+        return studentUserId;
+    }
+    
+    public void setStudentUserId(Long studentUserId) {
+        this.studentUserId = studentUserId;
+    }
+    
+    public String getDocumentType() {
+        return documentType;
+    }
+    
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+    
+    public String getOriginalFileName() {
+        return originalFileName;
+    }
+    
+    public void setOriginalFileName(String originalFileName) {
+        this.originalFileName = originalFileName;
+    }
+    
+    public String getFileExtension() {
+        return fileExtension;
+    }
+    
+    public void setFileExtension(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+    
+    public long getTotalSize() {
+        return totalSize;
+    }
+    
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+    
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+    
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+    
+    public UploadStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(UploadStatus status) {
+        this.status = status;
+    }
+    
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+    
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+    
+    public Long getApplicationId() {
+        return applicationId;
+    }
+    
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -12,7 +12,10 @@ import jakarta.validation.constraints.Pattern;
  * This is the base entity that all other profiles extend from.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+    @UniqueConstraint(name = "uk_users_mobile_number", columnNames = "mobile_number")
+})
 public class User {
     
     @Id
@@ -21,7 +24,7 @@ public class User {
     
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
     
     @NotBlank(message = "Password is required")
@@ -38,6 +41,13 @@ public class User {
     @Column(nullable = false)
     private Role role;
     
+    // Incremented whenever credentials or role change; embedded in issued JWTs
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+    
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private boolean enabled = true;
+    
     // Default constructor
     public User() {}
     
@@ -89,4 +99,20 @@ public class User {
     public void setRole(Role role) {
         this.role = role;
     }
+    
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+    
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
 }
@@ -12,5 +12,6 @@ public enum ApplicationStatus {
     REJECTED_BY_STATE,             // Application rejected by state officer
     PENDING_MINISTRY_APPROVAL,     // Forwarded to ministry for final approval
     REJECTED_BY_MINISTRY,          // Application rejected by ministry
-    GRANTED                         // Scholarship finally granted
+    GRANTED,                        // Scholarship finally granted
+    CLOSED_INCOMPLETE               // Not completed before the scheme's application deadline
 }
@@ -0,0 +1,12 @@
+package com.nsp.portal.enums;
+
+/**
+ * Enum representing the steps of closing a scheme once its application deadline has passed.
+ * The closure job runs them in order and checkpoints after every chunk of applications.
+ */
+public enum ClosurePhase {
+    CLOSE_APPLIED,       // Close undocumented APPLIED applications, queue the documented ones
+    CLOSE_UNDOCUMENTED,  // Close queued applications that have no documents
+    FREEZE_QUEUE,        // Freeze the remaining institute queue
+    COMPLETED            // Scheme fully closed
+}
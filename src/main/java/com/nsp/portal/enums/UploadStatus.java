@@ -0,0 +1,10 @@
+package com.nsp.portal.enums;
+
+/**
+ * Enum representing the states of a chunked document upload session.
+ */
+public enum UploadStatus {
+    IN_PROGRESS, // Chunks are still being received
+    COMPLETED,   // All bytes received and the file assembled; ready to be referenced
+    ATTACHED     // Referenced by a submitted application
+}
@@ -0,0 +1,25 @@
+package com.nsp.portal.event;
+
+/**
+ * Application event published whenever an institute profile is created, updated or deleted.
+ */
+public class InstituteProfileChangedEvent {
+    
+    private final Long instituteId;
+    private final boolean removed;
+    
+    // Constructor with fields
+    public InstituteProfileChangedEvent(Long instituteId, boolean removed) {
+        this.instituteId = instituteId;
+        this.removed = removed;
+    }
+    
+    // Getters
+    public Long getInstituteId() {
+        return instituteId;
+    }
+    
+    public boolean isRemoved() {
+        return removed;
+    }
+}
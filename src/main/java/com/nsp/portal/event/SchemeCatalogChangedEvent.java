@@ -0,0 +1,20 @@
+package com.nsp.portal.event;
+
+/**
+ * Application event published whenever a scholarship scheme is created, updated or deleted.
+ * Listeners use it to rebuild in-memory views of the scheme catalog.
+ */
+public class SchemeCatalogChangedEvent {
+    
+    private final Long schemeId;
+    
+    // Constructor with fields
+    public SchemeCatalogChangedEvent(Long schemeId) {
+        this.schemeId = schemeId;
+    }
+    
+    // Getters
+    public Long getSchemeId() {
+        return schemeId;
+    }
+}
@@ -0,0 +1,79 @@
+package com.nsp.portal.event;
+
+import com.nsp.portal.entity.StudentProfile;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Application event published whenever a student profile is created, updated or deleted.
+ * Carries a copy of the eligibility-relevant attributes, so listeners never touch the entity.
+ */
+public class StudentProfileChangedEvent {
+    
+    private final Long studentId;
+    private final boolean removed;
+    private final String domicileState;
+    private final String category;
+    private final String gender;
+    private final LocalDate dateOfBirth;
+    private final BigDecimal familyIncome;
+    private final String academicLevel;
+    private final String subject;
+    private final String instituteType;
+    
+    // Constructor copying the attributes of the profile
+    public StudentProfileChangedEvent(StudentProfile profile, boolean removed) {
+        this.studentId = profile.getId();
+        this.removed = removed;
+        this.domicileState = profile.getDomicileState();
+        this.category = profile.getCategory();
+        this.gender = profile.getGender();
+        this.dateOfBirth = profile.getDateOfBirth();
+        this.familyIncome = profile.getFamilyIncome();
+        this.academicLevel = profile.getAcademicLevel();
+        this.subject = profile.getSubject();
+        this.instituteType = profile.getInstituteType();
+    }
+    
+    // Getters
+    public Long getStudentId() {
+        return studentId;
+    }
+    
+    public boolean isRemoved() {
+        return removed;
+    }
+    
+    public String getDomicileState() {
+        return domicileState;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public String getGender() {
+        return gender;
+    }
+    
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+    
+    public BigDecimal getFamilyIncome() {
+        return familyIncome;
+    }
+    
+    public String getAcademicLevel() {
+        return academicLevel;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public String getInstituteType() {
+        return instituteType;
+    }
+}
@@ -0,0 +1,32 @@
+package com.nsp.portal.event;
+
+/**
+ * Application event published whenever a user's password, role or enabled flag changes.
+ * Listeners use it to drop cached user details and revoke previously issued tokens.
+ */
+public class UserCredentialsChangedEvent {
+    
+    private final Long userId;
+    private final String email;
+    private final int tokenVersion;
+    
+    // Constructor with fields
+    public UserCredentialsChangedEvent(Long userId, String email, int tokenVersion) {
+        this.userId = userId;
+        this.email = email;
+        this.tokenVersion = tokenVersion;
+    }
+    
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+}
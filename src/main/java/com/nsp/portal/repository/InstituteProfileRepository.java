@@ -1,11 +1,15 @@
 package com.nsp.portal.repository;
 
 import com.nsp.portal.entity.InstituteProfile;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for InstituteProfile entity.
@@ -53,4 +57,11 @@ public interface InstituteProfileRepository extends JpaRepository<InstituteProfi
      * Find institute profiles by DISE code
      */
     Optional<InstituteProfile> findByDiseCode(String diseCode);
+    
+    /**
+     * Stream all institute codes for building the registration prefilter (requires an open transaction)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT i.instituteCode FROM InstituteProfile i")
+    Stream<String> streamAllInstituteCodes();
 }
@@ -0,0 +1,67 @@
+package com.nsp.portal.repository;
+
+import com.nsp.portal.entity.SchemeClosureCheckpoint;
+import com.nsp.portal.enums.ClosurePhase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for SchemeClosureCheckpoint entity.
+ * Provides data access methods for the scheme deadline closure job.
+ */
+@Repository
+public interface SchemeClosureCheckpointRepository extends JpaRepository<SchemeClosureCheckpoint, Long> {
+    
+    /**
+     * Find the checkpoint of closing a scheme for a given deadline
+     */
+    Optional<SchemeClosureCheckpoint> findBySchemeIdAndClosingDate(Long schemeId, LocalDate closingDate);
+    
+    /**
+     * Find schemes whose deadline has passed and is not yet fully closed, as [schemeId, applicationEndDate]
+     */
+    @Query("SELECT s.id, s.applicationEndDate FROM ScholarshipScheme s WHERE s.applicationEndDate < :today "
+         + "AND NOT EXISTS (SELECT c.id FROM SchemeClosureCheckpoint c WHERE c.schemeId = s.id "
+         + "AND c.closingDate = s.applicationEndDate AND c.phase = com.nsp.portal.enums.ClosurePhase.COMPLETED) "
+         + "ORDER BY s.applicationEndDate")
+    List<Object[]> findSchemesDueForClosure(@Param("today") LocalDate today);
+    
+    /**
+     * Take the lease on an unfinished checkpoint if it is free, expired or already ours (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE SchemeClosureCheckpoint c SET c.leaseOwner = :owner, c.leaseExpiresAt = :leaseUntil "
+         + "WHERE c.id = :id AND c.phase <> com.nsp.portal.enums.ClosurePhase.COMPLETED "
+         + "AND (c.leaseOwner IS NULL OR c.leaseOwner = :owner OR c.leaseExpiresAt < :now)")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    /**
+     * Record a processed chunk and extend the lease, only while the lease is still ours (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE SchemeClosureCheckpoint c SET c.phase = :phase, c.lastApplicationId = :lastApplicationId, "
+         + "c.closedCount = c.closedCount + :closed, c.frozenCount = c.frozenCount + :frozen, "
+         + "c.leaseExpiresAt = :leaseUntil, c.updatedAt = :now, c.completedAt = :completedAt "
+         + "WHERE c.id = :id AND c.leaseOwner = :owner")
+    int advance(@Param("id") Long id, @Param("owner") String owner, @Param("phase") ClosurePhase phase,
+                @Param("lastApplicationId") long lastApplicationId, @Param("closed") long closed,
+                @Param("frozen") long frozen, @Param("now") LocalDateTime now,
+                @Param("leaseUntil") LocalDateTime leaseUntil, @Param("completedAt") LocalDateTime completedAt);
+    
+    /**
+     * Give up the lease on a checkpoint
+     */
+    @Modifying
+    @Query("UPDATE SchemeClosureCheckpoint c SET c.leaseOwner = NULL, c.leaseExpiresAt = NULL "
+         + "WHERE c.id = :id AND c.leaseOwner = :owner")
+    int release(@Param("id") Long id, @Param("owner") String owner);
+}
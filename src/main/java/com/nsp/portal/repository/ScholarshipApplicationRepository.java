@@ -2,13 +2,21 @@ package com.nsp.portal.repository;
 
 import com.nsp.portal.entity.ScholarshipApplication;
 import com.nsp.portal.enums.ApplicationStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for ScholarshipApplication entity.
@@ -32,6 +40,11 @@ public interface ScholarshipApplicationRepository extends JpaRepository<Scholars
      */
     List<ScholarshipApplication> findBySchemeId(Long schemeId);
     
+    /**
+     * Check whether a student already applied to a scheme for an academic year
+     */
+    boolean existsByStudentIdAndSchemeIdAndAcademicYear(Long studentId, Long schemeId, String academicYear);
+    
     /**
      * Find applications by student ID and status
      */
@@ -79,4 +92,84 @@ public interface ScholarshipApplicationRepository extends JpaRepository<Scholars
      * Find applications by academic year
      */
     List<ScholarshipApplication> findByAcademicYear(String academicYear);
+    
+    /**
+     * Stream the applications of a scheme with their student profiles for batch eligibility checks (requires an open transaction)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT sa FROM ScholarshipApplication sa JOIN FETCH sa.student WHERE sa.scheme.id = :schemeId")
+    Stream<ScholarshipApplication> streamBySchemeIdWithStudent(@Param("schemeId") Long schemeId);
+    
+    /**
+     * Marks an application granted only if it is still pending ministry approval, so two officers
+     * granting the same application concurrently cannot both succeed (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipApplication sa SET sa.status = com.nsp.portal.enums.ApplicationStatus.GRANTED, "
+         + "sa.grantedAmount = :amount, sa.ministryApprovalDate = :date, sa.ministryApprovalRemarks = :remarks "
+         + "WHERE sa.id = :id AND sa.status = com.nsp.portal.enums.ApplicationStatus.PENDING_MINISTRY_APPROVAL")
+    int markGranted(@Param("id") Long id, @Param("amount") BigDecimal amount,
+                    @Param("date") LocalDate date, @Param("remarks") String remarks);
+    
+    /**
+     * Find the next chunk of application IDs of a scheme in a status, in ID order after a given ID
+     */
+    @Query("SELECT sa.id FROM ScholarshipApplication sa WHERE sa.scheme.id = :schemeId AND sa.status = :status "
+         + "AND sa.id > :afterId ORDER BY sa.id")
+    List<Long> findIdsBySchemeAndStatusAfter(@Param("schemeId") Long schemeId, @Param("status") ApplicationStatus status,
+                                             @Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find the next chunk of IDs of a scheme's applications in a status that have no documents, in ID order
+     */
+    @Query("SELECT sa.id FROM ScholarshipApplication sa WHERE sa.scheme.id = :schemeId AND sa.status = :status "
+         + "AND sa.id > :afterId AND NOT EXISTS (SELECT d.id FROM ApplicationDocument d WHERE d.application = sa) "
+         + "ORDER BY sa.id")
+    List<Long> findUndocumentedIdsBySchemeAndStatusAfter(@Param("schemeId") Long schemeId,
+                                                         @Param("status") ApplicationStatus status,
+                                                         @Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Move the given applications to a new status if they are still in the expected one (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipApplication sa SET sa.status = :to WHERE sa.id IN :ids AND sa.status = :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("from") ApplicationStatus from,
+                         @Param("to") ApplicationStatus to);
+    
+    /**
+     * Move the given applications without documents to a new status if they are still in the expected one
+     * (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipApplication sa SET sa.status = :to WHERE sa.id IN :ids AND sa.status = :from "
+         + "AND NOT EXISTS (SELECT d.id FROM ApplicationDocument d WHERE d.application = sa)")
+    int transitionUndocumented(@Param("ids") Collection<Long> ids, @Param("from") ApplicationStatus from,
+                               @Param("to") ApplicationStatus to);
+    
+    /**
+     * Record an institute decision on an application still awaiting one (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipApplication sa SET sa.status = :to WHERE sa.id = :id AND sa.status IN "
+         + "(com.nsp.portal.enums.ApplicationStatus.APPLIED, com.nsp.portal.enums.ApplicationStatus.PENDING_INSTITUTE_VERIFICATION)")
+    int decideAtInstitute(@Param("id") Long id, @Param("to") ApplicationStatus to);
+    
+    /**
+     * Freeze the given applications in the institute queue if they are still queued (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipApplication sa SET sa.queueFrozenOn = :closingDate WHERE sa.id IN :ids "
+         + "AND sa.status = com.nsp.portal.enums.ApplicationStatus.PENDING_INSTITUTE_VERIFICATION "
+         + "AND sa.queueFrozenOn IS NULL")
+    int freezeQueued(@Param("ids") Collection<Long> ids, @Param("closingDate") LocalDate closingDate);
+    
+    /**
+     * Find the institute verification queue: applications of schemes still open, and after a scheme's
+     * deadline only those frozen in the queue by the closure job
+     */
+    @Query("SELECT sa FROM ScholarshipApplication sa WHERE "
+         + "sa.status = com.nsp.portal.enums.ApplicationStatus.PENDING_INSTITUTE_VERIFICATION "
+         + "AND (sa.queueFrozenOn IS NOT NULL OR sa.scheme.applicationEndDate IS NULL OR sa.scheme.applicationEndDate >= :today)")
+    List<ScholarshipApplication> findInstituteQueue(@Param("today") LocalDate today);
 }
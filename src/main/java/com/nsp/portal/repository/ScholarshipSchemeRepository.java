@@ -2,8 +2,12 @@ package com.nsp.portal.repository;
 
 import com.nsp.portal.entity.ScholarshipScheme;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -54,4 +58,25 @@ public interface ScholarshipSchemeRepository extends JpaRepository<ScholarshipSc
      * Find scholarship schemes by gender eligibility
      */
     List<ScholarshipScheme> findByGender(String gender);
+    
+    /**
+     * Adds an amount to a scheme's allocation in a single conditional statement, only if it stays
+     * within the budget (returns 0 when it would not, so no row lock is held across the check)
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipScheme s SET s.allocatedAmount = s.allocatedAmount + :amount "
+         + "WHERE s.id = :id AND (s.totalBudget IS NULL OR s.allocatedAmount + :amount <= s.totalBudget)")
+    int reserveBudget(@Param("id") Long id, @Param("amount") BigDecimal amount);
+    
+    /**
+     * Find the budget and allocation of every scheme with a budget, as [id, totalBudget, allocatedAmount]
+     */
+    @Query("SELECT s.id, s.totalBudget, s.allocatedAmount FROM ScholarshipScheme s WHERE s.totalBudget IS NOT NULL")
+    List<Object[]> findBudgets();
+    
+    /**
+     * Find the budget and allocation of a scheme as [totalBudget, allocatedAmount], read from the database
+     */
+    @Query("SELECT s.totalBudget, s.allocatedAmount FROM ScholarshipScheme s WHERE s.id = :id")
+    List<Object[]> findBudget(@Param("id") Long id);
 }
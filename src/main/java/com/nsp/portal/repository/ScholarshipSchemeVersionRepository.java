@@ -0,0 +1,50 @@
+package com.nsp.portal.repository;
+
+import com.nsp.portal.entity.ScholarshipSchemeVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for ScholarshipSchemeVersion entity.
+ * Versions are append-only, so readers sync incrementally by ID.
+ */
+@Repository
+public interface ScholarshipSchemeVersionRepository extends JpaRepository<ScholarshipSchemeVersion, Long> {
+    
+    /**
+     * Find versions created after the given ID, oldest first
+     */
+    List<ScholarshipSchemeVersion> findByIdGreaterThanOrderByIdAsc(Long id);
+    
+    /**
+     * Find versions created after the given ID or since the given time, oldest first
+     */
+    List<ScholarshipSchemeVersion> findByIdGreaterThanOrCreatedAtGreaterThanEqualOrderByIdAsc(Long id, LocalDateTime since);
+    
+    /**
+     * Find the latest version of a scheme
+     */
+    Optional<ScholarshipSchemeVersion> findFirstBySchemeIdOrderByVersionNumberDesc(Long schemeId);
+    
+    /**
+     * Find the IDs of schemes that have no version yet
+     */
+    @Query("SELECT s.id FROM ScholarshipScheme s WHERE NOT EXISTS "
+         + "(SELECT v.id FROM ScholarshipSchemeVersion v WHERE v.schemeId = s.id)")
+    List<Long> findSchemeIdsWithoutVersion();
+    
+    /**
+     * Pin applications submitted before versioning existed to the given version
+     */
+    @Modifying
+    @Query("UPDATE ScholarshipApplication a SET a.schemeVersion = :version "
+         + "WHERE a.scheme.id = :schemeId AND a.schemeVersion IS NULL")
+    int pinUnversionedApplications(@Param("schemeId") Long schemeId, @Param("version") ScholarshipSchemeVersion version);
+}
@@ -1,11 +1,15 @@
 package com.nsp.portal.repository;
 
 import com.nsp.portal.entity.StudentProfile;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for StudentProfile entity.
@@ -43,4 +47,20 @@ public interface StudentProfileRepository extends JpaRepository<StudentProfile,
      * Find student profiles by district
      */
     List<StudentProfile> findByDistrict(String district);
+    
+    /**
+     * Stream all Aadhar numbers for building the registration prefilter (requires an open transaction)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT s.aadharNumber FROM StudentProfile s")
+    Stream<String> streamAllAadharNumbers();
+    
+    /**
+     * Stream the eligibility attributes of all students for building the columnar attribute store (requires an open transaction).
+     * Columns: id, domicileState, category, gender, dateOfBirth, familyIncome, academicLevel, subject, instituteType
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT s.id, s.domicileState, s.category, s.gender, s.dateOfBirth, s.familyIncome, "
+         + "s.academicLevel, s.subject, s.instituteType FROM StudentProfile s")
+    Stream<Object[]> streamEligibilityAttributes();
 }
@@ -0,0 +1,90 @@
+package com.nsp.portal.repository;
+
+import com.nsp.portal.entity.UploadSession;
+import com.nsp.portal.enums.UploadStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for UploadSession entity.
+ * Provides data access methods for resumable document uploads.
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    
+    /**
+     * Find an upload session owned by a student
+     */
+    Optional<UploadSession> findByIdAndStudentUserId(String id, Long studentUserId);
+    
+    /**
+     * Find the upload sessions of a student in a status
+     */
+    List<UploadSession> findByIdInAndStudentUserIdAndStatus(Collection<String> ids, Long studentUserId, UploadStatus status);
+    
+    /**
+     * Count a student's upload sessions in a status
+     */
+    long countByStudentUserIdAndStatus(Long studentUserId, UploadStatus status);
+    
+    /**
+     * Find unattached upload sessions past their expiry
+     */
+    @Query("SELECT u FROM UploadSession u WHERE u.status <> com.nsp.portal.enums.UploadStatus.ATTACHED "
+         + "AND u.expiresAt < :now ORDER BY u.expiresAt")
+    List<UploadSession> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Advance the received offset by one chunk if no other request advanced it first (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE UploadSession u SET u.receivedBytes = :to, u.updatedAt = :now WHERE u.id = :id "
+         + "AND u.receivedBytes = :from AND u.status = com.nsp.portal.enums.UploadStatus.IN_PROGRESS")
+    int advanceOffset(@Param("id") String id, @Param("from") long from, @Param("to") long to,
+                      @Param("now") LocalDateTime now);
+    
+    /**
+     * Mark a fully received upload as assembled at the given path (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE UploadSession u SET u.status = com.nsp.portal.enums.UploadStatus.COMPLETED, "
+         + "u.filePath = :filePath, u.updatedAt = :now WHERE u.id = :id "
+         + "AND u.status = com.nsp.portal.enums.UploadStatus.IN_PROGRESS AND u.receivedBytes = u.totalSize")
+    int complete(@Param("id") String id, @Param("filePath") String filePath, @Param("now") LocalDateTime now);
+    
+    /**
+     * Mark a streamed upload as stored at the given path with its size and checksum (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE UploadSession u SET u.status = com.nsp.portal.enums.UploadStatus.COMPLETED, "
+         + "u.filePath = :filePath, u.totalSize = :size, u.receivedBytes = :size, u.sha256 = :sha256, "
+         + "u.updatedAt = :now WHERE u.id = :id AND u.status = com.nsp.portal.enums.UploadStatus.IN_PROGRESS")
+    int completeStreamed(@Param("id") String id, @Param("filePath") String filePath, @Param("size") long size,
+                         @Param("sha256") String sha256, @Param("now") LocalDateTime now);
+    
+    /**
+     * Attach completed uploads of a student to an application (returns the rows updated)
+     */
+    @Modifying
+    @Query("UPDATE UploadSession u SET u.status = com.nsp.portal.enums.UploadStatus.ATTACHED, "
+         + "u.applicationId = :applicationId, u.updatedAt = :now WHERE u.id IN :ids "
+         + "AND u.studentUserId = :studentUserId AND u.status = com.nsp.portal.enums.UploadStatus.COMPLETED")
+    int attach(@Param("ids") Collection<String> ids, @Param("studentUserId") Long studentUserId,
+               @Param("applicationId") Long applicationId, @Param("now") LocalDateTime now);
+    
+    /**
+     * Delete an unattached upload session (returns the rows deleted)
+     */
+    @Modifying
+    @Query("DELETE FROM UploadSession u WHERE u.id = :id AND u.status <> com.nsp.portal.enums.UploadStatus.ATTACHED")
+    int deleteUnattached(@Param("id") String id);
+}
@@ -2,11 +2,18 @@ package com.nsp.portal.repository;
 
 import com.nsp.portal.entity.User;
 import com.nsp.portal.enums.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for User entity.
@@ -39,4 +46,61 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Check if a user exists with the given mobile number
      */
     boolean existsByMobileNumber(String mobileNumber);
+    
+    /**
+     * Single round-trip duplicate check for student registration.
+     * Returns the name of the first unique constraint the signup would violate, or null.
+     */
+    @Query(value = "SELECT CASE "
+        + "WHEN EXISTS (SELECT 1 FROM users WHERE email = :email) THEN 'uk_users_email' "
+        + "WHEN EXISTS (SELECT 1 FROM student_profiles WHERE aadhar_number = :aadharNumber) THEN 'uk_student_profiles_aadhar_number' "
+        + "WHEN EXISTS (SELECT 1 FROM users WHERE mobile_number = :mobileNumber) THEN 'uk_users_mobile_number' "
+        + "END", nativeQuery = true)
+    String findStudentRegistrationConflict(@Param("email") String email,
+                                           @Param("aadharNumber") String aadharNumber,
+                                           @Param("mobileNumber") String mobileNumber);
+    
+    /**
+     * Single round-trip duplicate check for institute registration.
+     * Returns the name of the first unique constraint the signup would violate, or null.
+     */
+    @Query(value = "SELECT CASE "
+        + "WHEN EXISTS (SELECT 1 FROM users WHERE email = :email) THEN 'uk_users_email' "
+        + "WHEN EXISTS (SELECT 1 FROM institute_profiles WHERE institute_code = :instituteCode) THEN 'uk_institute_profiles_institute_code' "
+        + "WHEN EXISTS (SELECT 1 FROM users WHERE mobile_number = :mobileNumber) THEN 'uk_users_mobile_number' "
+        + "END", nativeQuery = true)
+    String findInstituteRegistrationConflict(@Param("email") String email,
+                                             @Param("instituteCode") String instituteCode,
+                                             @Param("mobileNumber") String mobileNumber);
+    
+    /**
+     * Replaces a password hash only if it has not been changed concurrently
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+    
+    /**
+     * Replaces a password hash and bumps the token version in one statement, only if the hash is still
+     * the one the change was verified against
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.password = :newHash, u.tokenVersion = u.tokenVersion + 1 "
+         + "WHERE u.id = :id AND u.password = :oldHash")
+    int changePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+    
+    /**
+     * Stream all emails for building the registration prefilter (requires an open transaction)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+    
+    /**
+     * Stream all mobile numbers for building the registration prefilter (requires an open transaction)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT u.mobileNumber FROM User u")
+    Stream<String> streamAllMobileNumbers();
 }
@@ -0,0 +1,134 @@
+package com.nsp.portal.rule;
+
+import com.nsp.portal.entity.ScholarshipApplication;
+import com.nsp.portal.entity.StudentProfile;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Mutable, reusable set of field values an eligibility rule is evaluated against.
+ * 
+ * Values are normalised once when loaded (text lower-cased, numbers as doubles), so the
+ * compiled rule only compares primitives and strings. Missing numbers are NaN and missing
+ * text is null. Batch callers load one instance per row instead of allocating a new one.
+ * Not thread-safe.
+ */
+public final class EligibilityFacts {
+    
+    private static final EligibilityField[] FIELDS = EligibilityField.values();
+    
+    private final double[] numbers = new double[FIELDS.length];
+    private final String[] texts = new String[FIELDS.length];
+    
+    // Default constructor
+    public EligibilityFacts() {
+        clear();
+    }
+    
+    /**
+     * Resets every field to missing.
+     */
+    public void clear() {
+        Arrays.fill(numbers, Double.NaN);
+        Arrays.fill(texts, null);
+    }
+    
+    /**
+     * Loads the fields of a student and, optionally, one of their applications.
+     * 
+     * @param profile the student profile
+     * @param application the application, or null to evaluate the profile alone
+     * @param asOf the date ages are computed at
+     * @return this instance
+     */
+    public EligibilityFacts load(StudentProfile profile, ScholarshipApplication application, LocalDate asOf) {
+        clear();
+        if (profile != null) {
+            if (profile.getDateOfBirth() != null) {
+                setNumber(EligibilityField.AGE, ChronoUnit.YEARS.between(profile.getDateOfBirth(), asOf));
+            }
+            setNumber(EligibilityField.INCOME, profile.getFamilyIncome());
+            setText(EligibilityField.CATEGORY, profile.getCategory());
+            setText(EligibilityField.GENDER, profile.getGender());
+            setText(EligibilityField.STATE, profile.getDomicileState());
+            setText(EligibilityField.DISTRICT, profile.getDistrict());
+            setText(EligibilityField.RELIGION, profile.getReligion());
+            setText(EligibilityField.ACADEMIC_LEVEL, profile.getAcademicLevel());
+            setText(EligibilityField.SUBJECT, profile.getSubject());
+            setText(EligibilityField.INSTITUTE_TYPE, profile.getInstituteType());
+        }
+        if (application != null) {
+            if (application.getFamilyAnnualIncome() != null) {
+                setNumber(EligibilityField.INCOME, application.getFamilyAnnualIncome());
+            }
+            setNumber(EligibilityField.PERCENTAGE, parsePercentage(application.getPreviousClassPercentage()));
+            setText(EligibilityField.CURRENT_CLASS, application.getCurrentClass());
+        }
+        return this;
+    }
+    
+    /**
+     * Sets a numeric field.
+     * 
+     * @param field the field
+     * @param value the value, or NaN for missing
+     */
+    public void setNumber(EligibilityField field, double value) {
+        numbers[field.ordinal()] = value;
+    }
+    
+    /**
+     * Sets a numeric field from a decimal.
+     * 
+     * @param field the field
+     * @param value the value, or null for missing
+     */
+    public void setNumber(EligibilityField field, BigDecimal value) {
+        numbers[field.ordinal()] = value == null ? Double.NaN : value.doubleValue();
+    }
+    
+    /**
+     * Sets a text field; blank values count as missing.
+     * 
+     * @param field the field
+     * @param value the value, or null for missing
+     */
+    public void setText(EligibilityField field, String value) {
+        texts[field.ordinal()] = normalize(value);
+    }
+    
+    double number(int ordinal) {
+        return numbers[ordinal];
+    }
+    
+    String text(int ordinal) {
+        return texts[ordinal];
+    }
+    
+    static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    // Accepts "72.5", "72.5%" or " 72 % "; anything else is missing
+    private static double parsePercentage(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        String trimmed = value.trim();
+        if (trimmed.endsWith("%")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
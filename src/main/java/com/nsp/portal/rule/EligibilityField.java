@@ -0,0 +1,53 @@
+package com.nsp.portal.rule;
+
+import java.util.Locale;
+
+/**
+ * Student and application fields that eligibility rules can refer to.
+ */
+public enum EligibilityField {
+    
+    AGE("age", true), // Completed years on the evaluation date, from dateOfBirth
+    INCOME("income", true), // Family annual income from the application, else from the profile
+    PERCENTAGE("percentage", true), // Previous class percentage from the application
+    CATEGORY("category", false),
+    GENDER("gender", false),
+    STATE("state", false), // Domicile state
+    DISTRICT("district", false),
+    RELIGION("religion", false),
+    ACADEMIC_LEVEL("academicLevel", false),
+    SUBJECT("subject", false),
+    INSTITUTE_TYPE("instituteType", false),
+    CURRENT_CLASS("currentClass", false);
+    
+    private final String ruleName;
+    private final boolean numeric;
+    
+    EligibilityField(String ruleName, boolean numeric) {
+        this.ruleName = ruleName;
+        this.numeric = numeric;
+    }
+    
+    /**
+     * Looks a field up by the name used in rules (case-insensitive).
+     * 
+     * @param name the field name
+     * @return the field, or null if there is none with that name
+     */
+    public static EligibilityField fromRuleName(String name) {
+        for (EligibilityField field : values()) {
+            if (field.ruleName.toLowerCase(Locale.ROOT).equals(name.toLowerCase(Locale.ROOT))) {
+                return field;
+            }
+        }
+        return null;
+    }
+    
+    public String getRuleName() {
+        return ruleName;
+    }
+    
+    public boolean isNumeric() {
+        return numeric;
+    }
+}
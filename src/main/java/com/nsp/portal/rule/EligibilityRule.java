@@ -0,0 +1,106 @@
+package com.nsp.portal.rule;
+
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A compiled eligibility rule.
+ * 
+ * The rule source is parsed once by EligibilityRuleCompiler into a tree of lambdas that read
+ * field values by index from an EligibilityFacts instance, so evaluation allocates nothing.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class EligibilityRule {
+    
+    private final String source;
+    private final Node root;
+    
+    // Constructor used by the compiler
+    EligibilityRule(String source, Node root) {
+        this.source = source;
+        this.root = root;
+    }
+    
+    /**
+     * Evaluates the rule.
+     * 
+     * @param facts the field values to test
+     * @return true if the facts satisfy the rule
+     */
+    public boolean test(EligibilityFacts facts) {
+        return root.test(facts);
+    }
+    
+    /**
+     * Evaluates the rule against every row of a stream, reusing a single facts instance.
+     * 
+     * @param rows the rows to evaluate (e.g. applications)
+     * @param loader fills the facts from a row
+     * @param outcome receives each row with its result
+     * @param <T> the row type
+     * @return number of rows that satisfied the rule
+     */
+    public <T> long evaluateAll(Stream<T> rows, BiConsumer<? super T, EligibilityFacts> loader, Outcome<? super T> outcome) {
+        return evaluateEach(rows, row -> this, loader, outcome);
+    }
+    
+    /**
+     * Evaluates every row of a stream against its own rule, reusing a single facts instance.
+     * Rows for which ruleOf returns null are skipped and not passed to the outcome.
+     * 
+     * @param rows the rows to evaluate (e.g. applications pinned to different scheme versions)
+     * @param ruleOf selects the rule of a row
+     * @param loader fills the facts from a row
+     * @param outcome receives each evaluated row with its result
+     * @param <T> the row type
+     * @return number of rows that satisfied their rule
+     */
+    public static <T> long evaluateEach(Stream<T> rows, Function<? super T, EligibilityRule> ruleOf,
+                                        BiConsumer<? super T, EligibilityFacts> loader, Outcome<? super T> outcome) {
+        EligibilityFacts facts = new EligibilityFacts();
+        long eligible = 0;
+        for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+            T row = it.next();
+            EligibilityRule rule = ruleOf.apply(row);
+            if (rule == null) {
+                continue;
+            }
+            loader.accept(row, facts);
+            boolean result = rule.root.test(facts);
+            if (result) {
+                eligible++;
+            }
+            outcome.accept(row, result);
+        }
+        return eligible;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    @Override
+    public String toString() {
+        return source;
+    }
+    
+    /**
+     * Compiled predicate node.
+     */
+    @FunctionalInterface
+    interface Node {
+        boolean test(EligibilityFacts facts);
+    }
+    
+    /**
+     * Receives the result for each row of a batch evaluation.
+     * 
+     * @param <T> the row type
+     */
+    @FunctionalInterface
+    public interface Outcome<T> {
+        void accept(T row, boolean eligible);
+    }
+}
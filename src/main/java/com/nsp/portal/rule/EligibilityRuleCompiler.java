@@ -0,0 +1,324 @@
+package com.nsp.portal.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiles the declarative eligibility rule language into an EligibilityRule.
+ * 
+ * Grammar (keywords are case-insensitive):
+ * <pre>
+ *   rule       := or
+ *   or         := and ("or" and)*
+ *   and        := unary ("and" unary)*
+ *   unary      := "not" unary | "(" or ")" | comparison
+ *   comparison := field op value
+ *               | field ["not"] "in" "(" value ("," value)* ")"
+ *               | field "between" number "and" number
+ *   op         := "=" | "!=" | "<" | "<=" | ">" | ">="
+ *   value      := number | 'text' | "text" | word
+ * </pre>
+ * Fields are listed in EligibilityField. Ordering operators and "between" are only allowed
+ * on numeric fields. A comparison involving a missing value is false, so a rule such as
+ * {@code income <= 250000 and category in (SC, ST)} rejects a profile without an income.
+ * 
+ * Example: {@code age between 17 and 25 and percentage >= 60 and (gender = Female or income < 100000)}
+ */
+public final class EligibilityRuleCompiler {
+    
+    private final List<Token> tokens;
+    private int position;
+    
+    private EligibilityRuleCompiler(String source) {
+        this.tokens = tokenize(source);
+    }
+    
+    /**
+     * Compiles a rule.
+     * 
+     * @param source the rule text
+     * @return the compiled rule
+     * @throws EligibilityRuleException if the rule is malformed
+     */
+    public static EligibilityRule compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new EligibilityRuleException("Rule is empty", 0);
+        }
+        EligibilityRuleCompiler compiler = new EligibilityRuleCompiler(source);
+        EligibilityRule.Node root = compiler.parseOr();
+        Token trailing = compiler.peek();
+        if (trailing.type != TokenType.END) {
+            throw new EligibilityRuleException("Unexpected '" + trailing.text + "'", trailing.offset);
+        }
+        return new EligibilityRule(source.trim(), root);
+    }
+    
+    private EligibilityRule.Node parseOr() {
+        EligibilityRule.Node left = parseAnd();
+        while (acceptKeyword("or")) {
+            EligibilityRule.Node l = left;
+            EligibilityRule.Node r = parseAnd();
+            left = facts -> l.test(facts) || r.test(facts);
+        }
+        return left;
+    }
+    
+    private EligibilityRule.Node parseAnd() {
+        EligibilityRule.Node left = parseUnary();
+        while (acceptKeyword("and")) {
+            EligibilityRule.Node l = left;
+            EligibilityRule.Node r = parseUnary();
+            left = facts -> l.test(facts) && r.test(facts);
+        }
+        return left;
+    }
+    
+    private EligibilityRule.Node parseUnary() {
+        if (acceptKeyword("not")) {
+            EligibilityRule.Node operand = parseUnary();
+            return facts -> !operand.test(facts);
+        }
+        if (accept(TokenType.LPAREN)) {
+            EligibilityRule.Node inner = parseOr();
+            expect(TokenType.RPAREN, "')'");
+            return inner;
+        }
+        return parseComparison();
+    }
+    
+    private EligibilityRule.Node parseComparison() {
+        Token fieldToken = expect(TokenType.WORD, "field name");
+        EligibilityField field = EligibilityField.fromRuleName(fieldToken.text);
+        if (field == null) {
+            throw new EligibilityRuleException("Unknown field '" + fieldToken.text + "'", fieldToken.offset);
+        }
+        int index = field.ordinal();
+        
+        if (acceptKeyword("between")) {
+            requireNumeric(field, fieldToken);
+            double low = number(expectValue());
+            if (!acceptKeyword("and")) {
+                throw new EligibilityRuleException("Expected 'and' in between", peek().offset);
+            }
+            double high = number(expectValue());
+            return facts -> {
+                double value = facts.number(index);
+                return value >= low && value <= high;
+            };
+        }
+        
+        boolean negated = acceptKeyword("not");
+        if (acceptKeyword("in")) {
+            EligibilityRule.Node in = parseIn(field, index);
+            if (!negated) {
+                return in;
+            }
+            // A missing value is neither in nor outside the list
+            return field.isNumeric()
+                ? facts -> !Double.isNaN(facts.number(index)) && !in.test(facts)
+                : facts -> facts.text(index) != null && !in.test(facts);
+        }
+        if (negated) {
+            throw new EligibilityRuleException("Expected 'in' after 'not'", peek().offset);
+        }
+        
+        Token op = expect(TokenType.OPERATOR, "comparison operator");
+        Token value = expectValue();
+        if (field.isNumeric()) {
+            double operand = number(value);
+            switch (op.text) {
+                case "=": return facts -> facts.number(index) == operand;
+                case "!=": return facts -> {
+                    double v = facts.number(index);
+                    return !Double.isNaN(v) && v != operand;
+                };
+                case "<": return facts -> facts.number(index) < operand;
+                case "<=": return facts -> facts.number(index) <= operand;
+                case ">": return facts -> facts.number(index) > operand;
+                case ">=": return facts -> facts.number(index) >= operand;
+                default: throw new EligibilityRuleException("Unknown operator '" + op.text + "'", op.offset);
+            }
+        }
+        String operand = EligibilityFacts.normalize(value.text);
+        switch (op.text) {
+            case "=": return facts -> operand != null && operand.equals(facts.text(index));
+            case "!=": return facts -> {
+                String v = facts.text(index);
+                return v != null && !v.equals(operand);
+            };
+            default: throw new EligibilityRuleException(
+                "Operator '" + op.text + "' needs a numeric field, '" + field.getRuleName() + "' is text", op.offset);
+        }
+    }
+    
+    private EligibilityRule.Node parseIn(EligibilityField field, int index) {
+        expect(TokenType.LPAREN, "'('");
+        List<Token> values = new ArrayList<>();
+        do {
+            values.add(expectValue());
+        } while (accept(TokenType.COMMA));
+        expect(TokenType.RPAREN, "')'");
+        
+        if (field.isNumeric()) {
+            double[] options = new double[values.size()];
+            for (int i = 0; i < options.length; i++) {
+                options[i] = number(values.get(i));
+            }
+            return facts -> {
+                double value = facts.number(index);
+                for (double option : options) {
+                    if (value == option) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        String[] options = new String[values.size()];
+        for (int i = 0; i < options.length; i++) {
+            options[i] = EligibilityFacts.normalize(values.get(i).text);
+        }
+        return facts -> {
+            String value = facts.text(index);
+            if (value == null) {
+                return false;
+            }
+            for (String option : options) {
+                if (value.equals(option)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+    
+    private void requireNumeric(EligibilityField field, Token token) {
+        if (!field.isNumeric()) {
+            throw new EligibilityRuleException("Field '" + field.getRuleName() + "' is not numeric", token.offset);
+        }
+    }
+    
+    private double number(Token token) {
+        if (token.type != TokenType.NUMBER) {
+            throw new EligibilityRuleException("Expected a number but found '" + token.text + "'", token.offset);
+        }
+        return Double.parseDouble(token.text);
+    }
+    
+    private Token expectValue() {
+        Token token = peek();
+        if (token.type == TokenType.NUMBER || token.type == TokenType.STRING || token.type == TokenType.WORD) {
+            position++;
+            return token;
+        }
+        throw new EligibilityRuleException("Expected a value but found '" + token.text + "'", token.offset);
+    }
+    
+    private Token expect(TokenType type, String description) {
+        Token token = peek();
+        if (token.type != type) {
+            throw new EligibilityRuleException("Expected " + description + " but found '" + token.text + "'", token.offset);
+        }
+        position++;
+        return token;
+    }
+    
+    private boolean accept(TokenType type) {
+        if (peek().type == type) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+    
+    private boolean acceptKeyword(String keyword) {
+        Token token = peek();
+        if (token.type == TokenType.WORD && token.text.equalsIgnoreCase(keyword)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+    
+    private Token peek() {
+        return tokens.get(position);
+    }
+    
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = source.length();
+        while (i < length) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LPAREN, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RPAREN, ")", i++));
+            } else if (c == ',') {
+                tokens.add(new Token(TokenType.COMMA, ",", i++));
+            } else if (c == '\'' || c == '"') {
+                int end = source.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new EligibilityRuleException("Unterminated string", i);
+                }
+                tokens.add(new Token(TokenType.STRING, source.substring(i + 1, end), i));
+                i = end + 1;
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(source.charAt(i + 1)))) {
+                int start = i++;
+                while (i < length && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                String text = source.substring(start, i);
+                try {
+                    Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw new EligibilityRuleException("Malformed number '" + text + "'", start);
+                }
+                tokens.add(new Token(TokenType.NUMBER, text, start));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, source.substring(start, i), start));
+            } else if ("=!<>".indexOf(c) >= 0) {
+                int start = i++;
+                if (i < length && (source.charAt(i) == '=' || (c == '<' && source.charAt(i) == '>'))) {
+                    i++;
+                }
+                String op = source.substring(start, i);
+                switch (op) {
+                    case "==": op = "="; break;
+                    case "<>": op = "!="; break;
+                    case "!": throw new EligibilityRuleException("Use 'not' instead of '!'", start);
+                    default: break;
+                }
+                tokens.add(new Token(TokenType.OPERATOR, op.toLowerCase(Locale.ROOT), start));
+            } else {
+                throw new EligibilityRuleException("Unexpected character '" + c + "'", i);
+            }
+        }
+        tokens.add(new Token(TokenType.END, "end of rule", length));
+        return tokens;
+    }
+    
+    private enum TokenType {
+        WORD, NUMBER, STRING, OPERATOR, LPAREN, RPAREN, COMMA, END
+    }
+    
+    private static final class Token {
+        
+        final TokenType type;
+        final String text;
+        final int offset;
+        
+        Token(TokenType type, String text, int offset) {
+            this.type = type;
+            this.text = text;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.nsp.portal.rule;
+
+/**
+ * Thrown when an eligibility rule cannot be parsed or type-checked.
+ */
+public class EligibilityRuleException extends IllegalArgumentException {
+    
+    private final int position;
+    
+    // Constructor with message and character offset in the rule source
+    public EligibilityRuleException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+    
+    public int getPosition() {
+        return position;
+    }
+}
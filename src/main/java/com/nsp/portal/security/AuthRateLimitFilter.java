@@ -0,0 +1,75 @@
+package com.nsp.portal.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nsp.portal.dto.AuthResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-IP rate limiting for POST /api/auth/login, /api/auth/register/**, /api/auth/refresh
+ * and /api/auth/password.
+ * 
+ * Runs ahead of the JWT filter and the controllers, so throttled requests are answered
+ * with 429 and a Retry-After header before the body is parsed or any BCrypt work starts.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Only enable behind a trusted proxy; otherwise clients can spoof the header
+    @Value("${auth.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String requestURI = request.getRequestURI();
+        return !"POST".equals(request.getMethod())
+            || !(requestURI.equals("/api/auth/login") || requestURI.startsWith("/api/auth/register/")
+                || requestURI.equals("/api/auth/refresh") || requestURI.equals("/api/auth/password"));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        long retryAfter = authRateLimiter.checkIp(clientIp(request));
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                new AuthResponse("Too many requests, please retry later"));
+            return;
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,184 @@
+package com.nsp.portal.security;
+
+import com.nsp.portal.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket throttling for the authentication endpoints.
+ * 
+ * Requests are limited per client IP by AuthRateLimitFilter and per account key by
+ * AuthController, before any BCrypt work is scheduled: login, registration and password
+ * changes by e-mail address, refresh by a digest of the refresh token. Idle buckets are
+ * evicted periodically so a spray of addresses cannot grow memory without bound.
+ */
+@Component
+public class AuthRateLimiter {
+    
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${auth.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+    
+    @Value("${auth.rate-limit.ip.refill-per-minute:20}")
+    private int ipRefillPerMinute;
+    
+    @Value("${auth.rate-limit.email.capacity:5}")
+    private int emailCapacity;
+    
+    @Value("${auth.rate-limit.email.refill-per-minute:5}")
+    private int emailRefillPerMinute;
+    
+    @Value("${auth.rate-limit.refresh-token.capacity:5}")
+    private int refreshTokenCapacity;
+    
+    @Value("${auth.rate-limit.refresh-token.refill-per-minute:5}")
+    private int refreshTokenRefillPerMinute;
+    
+    @Value("${auth.rate-limit.stripes:64}")
+    private int stripes;
+    
+    @Value("${auth.rate-limit.idle-eviction-seconds:600}")
+    private long idleEvictionSeconds;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private TokenBucketLimiter ipLimiter;
+    
+    private TokenBucketLimiter emailLimiter;
+    
+    private TokenBucketLimiter refreshTokenLimiter;
+    
+    private Counter ipRejectedCounter;
+    
+    private Counter emailRejectedCounter;
+    
+    private Counter refreshTokenRejectedCounter;
+    
+    /**
+     * Creates the limiters and registers rejection and bucket-count metrics.
+     */
+    @PostConstruct
+    public void init() {
+        ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefillPerMinute, stripes);
+        emailLimiter = new TokenBucketLimiter(emailCapacity, emailRefillPerMinute, stripes);
+        refreshTokenLimiter = new TokenBucketLimiter(refreshTokenCapacity, refreshTokenRefillPerMinute, stripes);
+        
+        ipRejectedCounter = Counter.builder("auth.rate-limit.rejected")
+            .tag("key", "ip")
+            .description("Authentication requests rejected by the rate limiter")
+            .register(meterRegistry);
+        emailRejectedCounter = Counter.builder("auth.rate-limit.rejected")
+            .tag("key", "email")
+            .description("Authentication requests rejected by the rate limiter")
+            .register(meterRegistry);
+        refreshTokenRejectedCounter = Counter.builder("auth.rate-limit.rejected")
+            .tag("key", "refresh-token")
+            .description("Authentication requests rejected by the rate limiter")
+            .register(meterRegistry);
+        Gauge.builder("auth.rate-limit.buckets", ipLimiter, TokenBucketLimiter::size)
+            .tag("key", "ip")
+            .description("Rate-limit buckets currently tracked")
+            .register(meterRegistry);
+        Gauge.builder("auth.rate-limit.buckets", emailLimiter, TokenBucketLimiter::size)
+            .tag("key", "email")
+            .description("Rate-limit buckets currently tracked")
+            .register(meterRegistry);
+        Gauge.builder("auth.rate-limit.buckets", refreshTokenLimiter, TokenBucketLimiter::size)
+            .tag("key", "refresh-token")
+            .description("Rate-limit buckets currently tracked")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Takes a token for the client IP.
+     * 
+     * @param clientIp the client IP address
+     * @return 0 if allowed, otherwise the seconds to wait before retrying
+     */
+    public long checkIp(String clientIp) {
+        long retryAfter = acquire(ipLimiter, clientIp);
+        if (retryAfter > 0) {
+            ipRejectedCounter.increment();
+        }
+        return retryAfter;
+    }
+    
+    /**
+     * Takes a token for the e-mail address (case-insensitive).
+     * 
+     * @param email the e-mail address the request is for
+     * @return 0 if allowed, otherwise the seconds to wait before retrying
+     */
+    public long checkEmail(String email) {
+        if (email == null) {
+            return 0;
+        }
+        long retryAfter = acquire(emailLimiter, email.trim().toLowerCase(Locale.ROOT));
+        if (retryAfter > 0) {
+            emailRejectedCounter.increment();
+        }
+        return retryAfter;
+    }
+    
+    /**
+     * Takes a token for the refresh token presented.
+     * Keyed by a digest, so the limiter never holds a usable token.
+     * 
+     * @param refreshToken the refresh token the request presents
+     * @return 0 if allowed, otherwise the seconds to wait before retrying
+     */
+    public long checkRefreshToken(String refreshToken) {
+        if (refreshToken == null) {
+            return 0;
+        }
+        long retryAfter = acquire(refreshTokenLimiter, digest(refreshToken));
+        if (retryAfter > 0) {
+            refreshTokenRejectedCounter.increment();
+        }
+        return retryAfter;
+    }
+    
+    /**
+     * Drops buckets that have been idle and refilled completely.
+     */
+    @Scheduled(fixedDelayString = "${auth.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(idleEvictionSeconds);
+        ipLimiter.evictIdle(idleNanos);
+        emailLimiter.evictIdle(idleNanos);
+        refreshTokenLimiter.evictIdle(idleNanos);
+    }
+    
+    private long acquire(TokenBucketLimiter limiter, String key) {
+        if (!enabled || key == null) {
+            return 0;
+        }
+        long waitNanos = limiter.tryAcquire(key);
+        return waitNanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+    
+    private String digest(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
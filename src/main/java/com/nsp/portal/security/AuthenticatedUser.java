@@ -0,0 +1,70 @@
+package com.nsp.portal.security;
+
+import com.nsp.portal.enums.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal stored in the security context for JWT-authenticated requests.
+ * Populated once by JwtRequestFilter from the verified token claims, so controllers
+ * can obtain the user ID and scope without a database lookup.
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal {
+    
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final String state; // Domicile state for students, institute state for institutes
+    private final String instituteCode;
+    
+    // Constructor with fields
+    public AuthenticatedUser(Long id, String email, Role role, String state, String instituteCode) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.state = state;
+        this.instituteCode = instituteCode;
+    }
+    
+    /**
+     * Returns the granted authorities for this principal's role.
+     * 
+     * @return singleton collection with the ROLE_ authority
+     */
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    /**
+     * Returns the email address, which is the username throughout the application.
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public Role getRole() {
+        return role;
+    }
+    
+    public String getState() {
+        return state;
+    }
+    
+    public String getInstituteCode() {
+        return instituteCode;
+    }
+}
@@ -0,0 +1,126 @@
+package com.nsp.portal.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the BCrypt work factor for the current machine at startup.
+ * 
+ * The calibration measures hashing time for increasing cost factors and keeps the
+ * highest one that still meets the configured per-hash latency target. Set
+ * security.bcrypt.fixed-cost to skip calibration and use a fixed factor.
+ */
+@Component
+public class BCryptCostCalibrator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    
+    private static final int SAMPLES_PER_COST = 3;
+    
+    @Value("${security.bcrypt.target-millis:250}")
+    private long targetMillis;
+    
+    @Value("${security.bcrypt.min-cost:10}")
+    private int minCost;
+    
+    @Value("${security.bcrypt.max-cost:14}")
+    private int maxCost;
+    
+    @Value("${security.bcrypt.fixed-cost:0}")
+    private int fixedCost;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private volatile int cost;
+    
+    private volatile long measuredMillis;
+    
+    /**
+     * Runs the calibration and registers the chosen cost as a metric.
+     */
+    @PostConstruct
+    public void calibrate() {
+        if (fixedCost > 0) {
+            cost = fixedCost;
+            measuredMillis = measure(fixedCost);
+        } else {
+            // Warm up the JIT so the first measurement is not inflated
+            measure(4);
+            
+            cost = minCost;
+            measuredMillis = measure(minCost);
+            for (int candidate = minCost + 1; candidate <= maxCost; candidate++) {
+                long millis = measure(candidate);
+                if (millis > targetMillis) {
+                    break;
+                }
+                cost = candidate;
+                measuredMillis = millis;
+            }
+            if (measuredMillis > targetMillis) {
+                logger.warn("BCrypt cost {} takes {} ms, above the {} ms target; using the minimum cost",
+                    cost, measuredMillis, targetMillis);
+            }
+        }
+        logger.info("Using BCrypt cost {} ({} ms per hash)", cost, measuredMillis);
+        
+        Gauge.builder("auth.bcrypt.cost", this, BCryptCostCalibrator::getCost)
+            .description("BCrypt work factor used for new password hashes")
+            .register(meterRegistry);
+        Gauge.builder("auth.bcrypt.calibrated.millis", this, c -> c.measuredMillis)
+            .description("Measured time per hash at the chosen BCrypt cost")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Returns the calibrated BCrypt cost factor.
+     * 
+     * @return the cost factor (log2 rounds)
+     */
+    public int getCost() {
+        return cost;
+    }
+    
+    /**
+     * Checks whether a stored hash was produced with a different cost factor
+     * and should be re-hashed on the next successful login.
+     * 
+     * @param encodedPassword the stored BCrypt hash
+     * @return true if the hash cost differs from the calibrated cost
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+    
+    /**
+     * Measures the median time of hashing a sample password at the given cost.
+     */
+    private long measure(int logRounds) {
+        long[] samples = new long[SAMPLES_PER_COST];
+        for (int i = 0; i < SAMPLES_PER_COST; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-sample", BCrypt.gensalt(logRounds));
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES_PER_COST / 2];
+    }
+}
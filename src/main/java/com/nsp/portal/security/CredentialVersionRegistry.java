@@ -0,0 +1,86 @@
+package com.nsp.portal.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nsp.portal.event.UserCredentialsChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory registry of the current credential (token) version per user.
+ * 
+ * JwtRequestFilter trusts the claims of a verified token without a database lookup
+ * unless this registry knows of a different version for the user. Entries are only
+ * recorded when a revocation signal is received or a mismatch has been resolved
+ * against the database, and each expires one access-token lifetime (plus the allowed
+ * clock skew) after it was last written: by then every token issued with an older
+ * version has expired, so forgetting the entry cannot let one through.
+ */
+@Component
+public class CredentialVersionRegistry {
+    
+    @Value("${jwt.expiration:900000}")
+    private long accessTokenLifetimeMillis;
+    
+    @Value("${jwt.keys.clock-skew-ms:60000}")
+    private long clockSkewMillis;
+    
+    private ConcurrentMap<Long, Integer> knownVersions;
+    
+    /**
+     * Creates the version map, bounded in time by the access-token lifetime.
+     */
+    @PostConstruct
+    public void init() {
+        knownVersions = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(accessTokenLifetimeMillis + clockSkewMillis))
+            .<Long, Integer>build()
+            .asMap();
+    }
+    
+    /**
+     * Checks whether a token version must be confirmed against the database.
+     * 
+     * @param userId the user ID claim of the token
+     * @param tokenVersion the version claim of the token
+     * @return true if the registry knows of a different version for the user
+     */
+    public boolean requiresCheck(Long userId, int tokenVersion) {
+        Integer known = knownVersions.get(userId);
+        return known != null && known != tokenVersion;
+    }
+    
+    /**
+     * Records the version confirmed from the database after a mismatch.
+     * 
+     * @param userId the user ID
+     * @param currentVersion the version currently stored for the user
+     */
+    public void confirm(Long userId, int currentVersion) {
+        knownVersions.merge(userId, currentVersion, Math::max);
+    }
+    
+    /**
+     * Revocation signal: all tokens issued with an older version become invalid.
+     * 
+     * @param userId the user ID
+     * @param newVersion the new credential version of the user
+     */
+    public void revoke(Long userId, int newVersion) {
+        knownVersions.merge(userId, newVersion, Math::max);
+    }
+    
+    /**
+     * Revokes older tokens once a credential change has been committed.
+     * 
+     * @param event the credentials changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCredentialsChanged(UserCredentialsChangedEvent event) {
+        revoke(event.getUserId(), event.getTokenVersion());
+    }
+}
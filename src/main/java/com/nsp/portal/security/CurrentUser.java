@@ -0,0 +1,21 @@
+package com.nsp.portal.security;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the AuthenticatedUser of the current request into a controller method parameter.
+ * Resolved by Spring Security's principal argument resolver; resolves to null when the
+ * request is not authenticated with a JWT.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@AuthenticationPrincipal
+public @interface CurrentUser {
+}
@@ -0,0 +1,19 @@
+package com.nsp.portal.security;
+
+/**
+ * Thrown when the password hashing executor cannot accept more work.
+ * Controllers translate it into 429 Too Many Requests with a Retry-After header.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public HashingCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,224 @@
+package com.nsp.portal.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory ring of ES256 (P-256) signing keys with overlapping rotation.
+ * 
+ * At any time the ring holds three kinds of keys, all published through the JWKS endpoint:
+ * - the active key, used to sign new tokens;
+ * - the next key, published one rotation interval before it starts signing, so remote
+ *   verifiers already have it cached when the first token signed with it arrives;
+ * - retiring keys, no longer used for signing but kept until every token they signed
+ *   has expired.
+ */
+@Component
+public class JwtKeyRing {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    
+    @Value("${jwt.expiration:900000}")
+    private long tokenLifetimeMillis;
+    
+    @Value("${jwt.keys.clock-skew-ms:60000}")
+    private long clockSkewMillis;
+    
+    private volatile KeySet keySet;
+    
+    /**
+     * Generates the initial active and next keys.
+     */
+    @PostConstruct
+    public void init() {
+        keySet = new KeySet(generateKey(), generateKey(), List.of());
+        logger.info("JWT key ring initialised with active key " + keySet.active.getKid());
+    }
+    
+    /**
+     * Promotes the next key to active, retires the current active key and generates a new
+     * next key. Expired retiring keys are dropped.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.rotation-interval-ms:604800000}",
+               initialDelayString = "${jwt.keys.rotation-interval-ms:604800000}")
+    public synchronized void rotate() {
+        KeySet current = keySet;
+        Instant now = Instant.now();
+        Instant retireAt = now.plusMillis(tokenLifetimeMillis + clockSkewMillis);
+        
+        List<SigningKey> retiring = new ArrayList<>();
+        for (SigningKey key : current.retiring) {
+            if (key.getRetireAt().isAfter(now)) {
+                retiring.add(key);
+            }
+        }
+        retiring.add(current.active.retiring(retireAt));
+        
+        keySet = new KeySet(current.next, generateKey(), List.copyOf(retiring));
+        logger.info("Rotated JWT signing key to " + keySet.active.getKid());
+    }
+    
+    /**
+     * Returns the key used to sign new tokens.
+     * 
+     * @return the active signing key
+     */
+    public SigningKey getActiveKey() {
+        return keySet.active;
+    }
+    
+    /**
+     * Finds a verification key issued by this node.
+     * 
+     * @param kid the key ID from the token header
+     * @return the public key, or null if the ring does not know the key ID
+     */
+    public PublicKey findPublicKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        KeySet current = keySet;
+        if (kid.equals(current.active.getKid())) {
+            return current.active.getPublicKey();
+        }
+        if (kid.equals(current.next.getKid())) {
+            return current.next.getPublicKey();
+        }
+        Instant now = Instant.now();
+        for (SigningKey key : current.retiring) {
+            if (kid.equals(key.getKid()) && key.getRetireAt().isAfter(now)) {
+                return key.getPublicKey();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns all currently published public keys in JWK form.
+     * 
+     * @return list of JWK maps (kty, crv, kid, use, alg, x, y)
+     */
+    public List<Map<String, Object>> publicJwks() {
+        KeySet current = keySet;
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        jwks.add(toJwk(current.active));
+        jwks.add(toJwk(current.next));
+        Instant now = Instant.now();
+        for (SigningKey key : current.retiring) {
+            if (key.getRetireAt().isAfter(now)) {
+                jwks.add(toJwk(key));
+            }
+        }
+        return jwks;
+    }
+    
+    private static SigningKey generateKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            return new SigningKey(keyId(keyPair.getPublic()), keyPair, null);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not generate ES256 key pair", e);
+        }
+    }
+    
+    // Key ID derived from the public key, so it is stable and collision-free across nodes
+    private static String keyId(PublicKey publicKey) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+    }
+    
+    private static Map<String, Object> toJwk(SigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.getPublicKey();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", key.getKid());
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+    
+    // JWK coordinates are fixed-length (32 byte) unsigned big-endian, base64url encoded
+    private static String encodeCoordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+    
+    /**
+     * A signing key pair with its key ID and, once retired, the time it stops being published.
+     */
+    public static final class SigningKey {
+        
+        private final String kid;
+        private final KeyPair keyPair;
+        private final Instant retireAt;
+        
+        private SigningKey(String kid, KeyPair keyPair, Instant retireAt) {
+            this.kid = kid;
+            this.keyPair = keyPair;
+            this.retireAt = retireAt;
+        }
+        
+        private SigningKey retiring(Instant retireAt) {
+            return new SigningKey(kid, keyPair, retireAt);
+        }
+        
+        public String getKid() {
+            return kid;
+        }
+        
+        public PrivateKey getPrivateKey() {
+            return keyPair.getPrivate();
+        }
+        
+        public PublicKey getPublicKey() {
+            return keyPair.getPublic();
+        }
+        
+        public Instant getRetireAt() {
+            return retireAt;
+        }
+    }
+    
+    /**
+     * Immutable snapshot of the ring, swapped atomically on rotation.
+     */
+    private static final class KeySet {
+        
+        final SigningKey active;
+        final SigningKey next;
+        final List<SigningKey> retiring;
+        
+        KeySet(SigningKey active, SigningKey next, List<SigningKey> retiring) {
+            this.active = active;
+            this.next = next;
+            this.retiring = retiring;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.nsp.portal.security;
 
+import com.nsp.portal.entity.User;
+import com.nsp.portal.enums.Role;
+import com.nsp.portal.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +12,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -41,7 +43,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
     
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CredentialVersionRegistry credentialVersionRegistry;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
     
     /**
      * Filters incoming HTTP requests to validate JWT tokens and set authentication.
@@ -66,39 +74,44 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                                   HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
-        // Skip JWT processing for public endpoints
+        // Skip JWT processing for public endpoints (a password change is authenticated)
         String requestURI = request.getRequestURI();
-        if (requestURI.startsWith("/api/auth/") || 
+        if ((requestURI.startsWith("/api/auth/") && !requestURI.equals("/api/auth/password")) || 
             requestURI.startsWith("/api/test/") || 
             requestURI.startsWith("/swagger-ui/") || 
-            requestURI.startsWith("/v3/api-docs/")) {
+            requestURI.startsWith("/v3/api-docs/") ||
+            requestURI.startsWith("/.well-known/")) {
             filterChain.doFilter(request, response);
             return;
         }
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
         
-        // Extract JWT token from Authorization header
+        // Extract JWT token from Authorization header and verify it once
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                token = jwtUtil.verify(jwt);
+                if (tokenRevocationList.isRevoked(token.getTokenId())) {
+                    logger.debug("Rejected revoked JWT " + token.getTokenId());
+                    token = null;
+                }
             } catch (Exception e) {
-                // Token is invalid, continue without authentication
+                // Token is invalid or expired, continue without authentication
                 logger.warn("Invalid JWT token: " + e.getMessage());
             }
         }
         
-        // Validate token and set authentication context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        // Build authentication from the verified claims and set it in the security context
+        if (token != null && token.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser principal = resolvePrincipal(token);
             
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities());
+                    principal, null, principal.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -106,4 +119,43 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Resolves the authenticated principal for a verified token.
+     * 
+     * Tokens carrying user ID, role and version claims are trusted as-is. The database is
+     * only consulted when the CredentialVersionRegistry reports a version mismatch, or for
+     * legacy tokens issued before these claims were embedded.
+     * 
+     * @param token the verified token
+     * @return the principal, or null if the token has been revoked
+     */
+    private AuthenticatedUser resolvePrincipal(VerifiedToken token) {
+        String username = token.getSubject();
+        if (!token.hasIdentityClaims()) {
+            User user = userRepository.findByEmail(username).orElse(null);
+            if (user == null || !user.isEnabled()) {
+                return null;
+            }
+            return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), null, null);
+        }
+        
+        Long userId = token.getUserId();
+        int version = token.getVersion();
+        
+        if (credentialVersionRegistry.requiresCheck(userId, version)) {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return null;
+            }
+            credentialVersionRegistry.confirm(userId, user.getTokenVersion());
+            if (user.getTokenVersion() != version) {
+                logger.debug("Rejected JWT with stale credential version for user " + userId);
+                return null;
+            }
+        }
+        
+        return new AuthenticatedUser(userId, username, Role.valueOf(token.getRole()),
+            token.getState(), token.getInstituteCode());
+    }
 }
@@ -1,15 +1,37 @@
 package com.nsp.portal.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nsp.portal.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -30,12 +52,58 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
     
-    @Value("${jwt.secret}")
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_VERSION = "ver";
+    public static final String CLAIM_STATE = "state";
+    public static final String CLAIM_INSTITUTE_CODE = "inst";
+    
+    // Only used to verify HS256 tokens issued before asymmetric signing was introduced
+    @Value("${jwt.secret:}")
     private String secret;
     
-    @Value("${jwt.expiration:86400000}") // Default: 24 hours
+    @Value("${jwt.legacy-hs256.accept:false}")
+    private boolean acceptLegacyTokens;
+    
+    // Epoch millis of the switch to ES256; legacy tokens issued at or after it are refused
+    @Value("${jwt.legacy-hs256.issued-before-ms:0}")
+    private long legacyIssuedBefore;
+    
+    @Value("${jwt.expiration:900000}") // Default: 15 minutes; sessions are extended with refresh tokens
     private Long expiration;
     
+    @Value("${jwt.verified-cache.max-size:100000}")
+    private long verifiedCacheMaxSize;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+    
+    @Autowired
+    private RemoteJwksCache remoteJwksCache;
+    
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    private JwtParser jwtParser;
+    
+    /**
+     * Builds the verified-token cache and registers its hit/miss metrics.
+     */
+    @PostConstruct
+    public void initVerifiedTokenCache() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .build();
+    }
+    
     /**
      * Generates a JWT token for the given user.
      * 
@@ -60,13 +128,46 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
     
+    /**
+     * Generates a JWT token carrying the user ID, role and credential version as claims,
+     * so that requests can be authenticated from the verified token alone.
+     * 
+     * @param user the authenticated user
+     * @return JWT token string
+     */
+    public String generateToken(User user) {
+        return generateToken(user, null, null);
+    }
+    
+    /**
+     * Generates a JWT token carrying identity claims plus the user's scope.
+     * 
+     * @param user the authenticated user
+     * @param state the state the user belongs to, if any
+     * @param instituteCode the institute code of the user, if any
+     * @return JWT token string
+     */
+    public String generateToken(User user, String state, String instituteCode) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_VERSION, user.getTokenVersion());
+        if (state != null) {
+            claims.put(CLAIM_STATE, state);
+        }
+        if (instituteCode != null) {
+            claims.put(CLAIM_INSTITUTE_CODE, instituteCode);
+        }
+        return createToken(claims, user.getEmail());
+    }
+    
     /**
      * Creates a JWT token with the given claims and subject.
      * 
      * TODO: DEVELOPER 1 - Implement this method:
      * 1. Use Jwts.builder() to create token
      * 2. Set claims, subject, issued date, expiration
-     * 3. Sign with secret key using HS256 algorithm
+     * 3. Sign with the active key of the key ring using ES256, naming it in the kid header
      * 4. Return compact token string
      * 
      * @param claims the claims to include in the token
@@ -79,15 +180,27 @@ public class JwtUtil {
         // 2. Set claims, subject, dates
         // 3. Sign and return
         
+        JwtKeyRing.SigningKey signingKey = jwtKeyRing.getActiveKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS256, secret)
+                .signWith(signingKey.getPrivateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
     
+    /**
+     * Returns the access token lifetime.
+     * 
+     * @return the lifetime in seconds
+     */
+    public long getExpirationSeconds() {
+        return expiration / 1000;
+    }
+    
     /**
      * Validates if a JWT token is valid for the given user.
      * 
@@ -108,8 +221,8 @@ public class JwtUtil {
         // 3. Check expiration
         // 4. Return validation result
         
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final VerifiedToken verified = verify(token);
+        return (verified.getSubject().equals(userDetails.getUsername()) && !verified.isExpired());
     }
     
     /**
@@ -127,7 +240,7 @@ public class JwtUtil {
         // 1. Extract claims
         // 2. Return subject
         
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
     
     /**
@@ -145,7 +258,41 @@ public class JwtUtil {
         // 1. Extract claims
         // 2. Return expiration date
         
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).getExpiresAt());
+    }
+    
+    /**
+     * Verifies a JWT token and returns its immutable verified view.
+     * 
+     * Recently verified tokens are served from a bounded cache keyed by the SHA-256 digest
+     * of the token, so repeat calls from the same client skip signature verification and JSON
+     * decoding. Entries expire together with the token itself.
+     * 
+     * @param token the JWT token
+     * @return the verified token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered or expired
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(
+            claims.getSubject(),
+            claims.get(CLAIM_USER_ID, Long.class),
+            claims.get(CLAIM_ROLE, String.class),
+            claims.get(CLAIM_VERSION, Integer.class),
+            claims.get(CLAIM_STATE, String.class),
+            claims.get(CLAIM_INSTITUTE_CODE, String.class),
+            claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+            claims.getExpiration().toInstant(),
+            claims.getId()
+        );
+        verifiedTokens.put(digest, verified);
+        return verified;
     }
     
     /**
@@ -162,12 +309,13 @@ public class JwtUtil {
     
     /**
      * Extracts all claims from JWT token.
+     * Signature and expiration are verified while parsing.
      * 
      * @param token the JWT token
      * @return all claims from the token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
     
     /**
@@ -177,6 +325,81 @@ public class JwtUtil {
      * @return true if token is expired, false otherwise
      */
     private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return verify(token).isExpired();
+    }
+    
+    /**
+     * Computes the cache key for a token.
+     * 
+     * @param token the JWT token
+     * @return hex encoded SHA-256 digest of the token
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Resolves the verification key from the kid header: keys issued by this node first, then
+     * keys published by trusted peers. Tokens without a kid are legacy HS256 tokens and are
+     * accepted only while jwt.legacy-hs256.accept is enabled, and only if they expire and were
+     * issued before jwt.legacy-hs256.issued-before-ms. The HS256 secret is in the repository, so
+     * anything signed with it later cannot be trusted; once one access-token lifetime has passed
+     * since the cutover, no legacy token is valid and acceptance should be switched off.
+     */
+    private final class KeyRingResolver extends SigningKeyResolverAdapter {
+        
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (acceptLegacyTokens && SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())
+                        && !secret.isEmpty() && isBeforeLegacyCutover(claims)) {
+                    return new SecretKeySpec(Decoders.BASE64.decode(secret), SignatureAlgorithm.HS256.getJcaName());
+                }
+                throw new SignatureException("JWT has no key ID");
+            }
+            if (!SignatureAlgorithm.ES256.getValue().equals(header.getAlgorithm())) {
+                throw new SignatureException("Unsupported JWT algorithm: " + header.getAlgorithm());
+            }
+            Key key = jwtKeyRing.findPublicKey(kid);
+            if (key == null) {
+                key = remoteJwksCache.findPublicKey(kid);
+            }
+            if (key == null) {
+                throw new SignatureException("Unknown JWT key ID: " + kid);
+            }
+            return key;
+        }
+        
+        private boolean isBeforeLegacyCutover(Claims claims) {
+            return claims.getExpiration() != null && claims.getIssuedAt() != null
+                && claims.getIssuedAt().getTime() < legacyIssuedBefore;
+        }
+    }
+    
+    /**
+     * Caffeine expiry policy that keeps a verified token only until it expires.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
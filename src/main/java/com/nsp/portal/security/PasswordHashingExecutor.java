@@ -0,0 +1,123 @@
+package com.nsp.portal.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded executor for BCrypt password hashing and verification.
+ * 
+ * Login and registration hand their BCrypt work to this pool instead of burning
+ * CPU on Tomcat request threads. When the queue is full the task is rejected
+ * immediately with HashingCapacityExceededException, so a login storm cannot
+ * starve the rest of the API.
+ */
+@Component
+public class PasswordHashingExecutor {
+    
+    @Value("${auth.hashing.pool-size:0}")
+    private int poolSize; // 0 = number of available processors
+    
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${auth.hashing.wait-timeout-ms:5000}")
+    private long waitTimeoutMillis;
+    
+    @Value("${auth.hashing.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private ThreadPoolExecutor executor;
+    
+    private Timer hashTimer;
+    
+    private Counter rejectedCounter;
+    
+    /**
+     * Creates the thread pool and registers queue depth and latency metrics.
+     */
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+            .description("Password hashing tasks waiting for a thread")
+            .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Password hashing tasks currently running")
+            .register(meterRegistry);
+        hashTimer = Timer.builder("auth.hashing.latency")
+            .description("Time spent hashing or verifying a password")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("auth.hashing.rejected")
+            .description("Password hashing tasks rejected because the queue was full")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Runs a hashing task on the dedicated pool and waits for its result.
+     * 
+     * @param task the task performing BCrypt work
+     * @return the task result
+     * @throws HashingCapacityExceededException if the queue is full or the wait timed out
+     */
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Password hashing capacity exceeded", retryAfterSeconds);
+        }
+        
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Password hashing timed out", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
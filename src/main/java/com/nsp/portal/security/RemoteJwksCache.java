@@ -0,0 +1,161 @@
+package com.nsp.portal.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of public keys published by trusted peer nodes through their JWKS endpoints.
+ * 
+ * Keys are fetched from jwt.jwks.trusted-urls on a schedule, so verifying a peer's token
+ * needs no network call. A token with an unknown key ID triggers at most one extra fetch
+ * per jwt.jwks.min-refetch-interval-ms. If a peer is unreachable its last known keys are kept.
+ */
+@Component
+public class RemoteJwksCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RemoteJwksCache.class);
+    
+    @Value("${jwt.jwks.trusted-urls:}")
+    private String[] trustedUrls;
+    
+    @Value("${jwt.jwks.min-refetch-interval-ms:30000}")
+    private long minRefetchIntervalMillis;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Map<String, Map<String, PublicKey>> keysByUrl = new ConcurrentHashMap<>();
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(2))
+        .build();
+    
+    private ECParameterSpec p256;
+    
+    private volatile long lastFetchMillis;
+    
+    private Counter fetchSuccessCounter;
+    
+    private Counter fetchFailureCounter;
+    
+    /**
+     * Resolves the P-256 curve parameters and registers fetch metrics.
+     */
+    @PostConstruct
+    public void init() throws Exception {
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+        p256 = parameters.getParameterSpec(ECParameterSpec.class);
+        
+        fetchSuccessCounter = Counter.builder("jwt.jwks.fetch")
+            .tag("result", "success")
+            .description("JWKS fetches from trusted peers")
+            .register(meterRegistry);
+        fetchFailureCounter = Counter.builder("jwt.jwks.fetch")
+            .tag("result", "failure")
+            .description("JWKS fetches from trusted peers")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Finds a peer public key by key ID, refetching once if the key ID is unknown.
+     * 
+     * @param kid the key ID from the token header
+     * @return the public key, or null if no trusted peer publishes it
+     */
+    public PublicKey findPublicKey(String kid) {
+        if (kid == null || trustedUrls.length == 0) {
+            return null;
+        }
+        PublicKey key = lookup(kid);
+        if (key == null && System.currentTimeMillis() - lastFetchMillis >= minRefetchIntervalMillis) {
+            refresh();
+            key = lookup(kid);
+        }
+        return key;
+    }
+    
+    /**
+     * Refetches the key sets of all trusted peers.
+     */
+    @Scheduled(fixedDelayString = "${jwt.jwks.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        lastFetchMillis = System.currentTimeMillis();
+        for (String url : trustedUrls) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(3))
+                    .GET()
+                    .build();
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("HTTP " + response.statusCode());
+                }
+                keysByUrl.put(url, parse(response.body()));
+                fetchSuccessCounter.increment();
+            } catch (Exception e) {
+                fetchFailureCounter.increment();
+                logger.warn("Could not fetch JWKS from " + url + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private PublicKey lookup(String kid) {
+        for (Map<String, PublicKey> keys : keysByUrl.values()) {
+            PublicKey key = keys.get(kid);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+    
+    private Map<String, PublicKey> parse(String body) throws Exception {
+        Map<String, PublicKey> keys = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("EC");
+        for (JsonNode jwk : objectMapper.readTree(body).path("keys")) {
+            if (!"EC".equals(jwk.path("kty").asText()) || !"P-256".equals(jwk.path("crv").asText())
+                    || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            ECPoint point = new ECPoint(decodeCoordinate(jwk.path("x").asText()),
+                                        decodeCoordinate(jwk.path("y").asText()));
+            keys.put(jwk.get("kid").asText(), keyFactory.generatePublic(new ECPublicKeySpec(point, p256)));
+        }
+        return keys;
+    }
+    
+    private static BigInteger decodeCoordinate(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
@@ -0,0 +1,155 @@
+package com.nsp.portal.security;
+
+import com.nsp.portal.entity.RevokedToken;
+import com.nsp.portal.event.UserCredentialsChangedEvent;
+import com.nsp.portal.repository.RefreshTokenRepository;
+import com.nsp.portal.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked access-token IDs (jti), checked by JwtRequestFilter in O(1).
+ * 
+ * Revocations are written to the revoked_tokens table and every node polls that table,
+ * so a logout or credential change on one node takes effect cluster-wide within one sync
+ * interval. A credential change also evicts the user's cached UserDetails on every node, so
+ * an old password or a disabled account stops authenticating there too. Entries are dropped
+ * once the revoked token would have expired, so the set never holds more than one
+ * access-token lifetime of revocations.
+ */
+@Component
+public class TokenRevocationList {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+    
+    @Value("${jwt.expiration:900000}")
+    private long accessTokenLifetimeMillis;
+    
+    @Value("${auth.user-details-cache.ttl-seconds:600}")
+    private long userDetailsTtlSeconds;
+    
+    @Value("${jwt.revocation.sync-overlap-ms:30000}")
+    private long syncOverlapMillis;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private CredentialVersionRegistry credentialVersionRegistry;
+    
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // jti -> expiry of the revoked token in epoch milliseconds
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    
+    private volatile LocalDateTime lastSync = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    /**
+     * Loads the revocations that are still in force and registers the size metric.
+     */
+    @PostConstruct
+    public void init() {
+        Gauge.builder("jwt.revocation.size", revokedTokenIds, Map::size)
+            .description("Revoked access tokens that have not expired yet")
+            .register(meterRegistry);
+        sync();
+    }
+    
+    /**
+     * Checks whether an access token has been revoked.
+     * 
+     * @param tokenId the jti claim of the token
+     * @return true if the token has been revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revokedTokenIds.containsKey(tokenId);
+    }
+    
+    /**
+     * Revokes a single access token on this node and records it for the other nodes.
+     * 
+     * @param tokenId the jti claim of the token
+     * @param expiresAt the expiration of the token
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenIds.put(tokenId, expiresAt.toEpochMilli());
+        revokedTokenRepository.save(new RevokedToken(tokenId, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())));
+    }
+    
+    /**
+     * Records a credential version bump so other nodes revoke the user's older tokens.
+     * Runs in its own transaction because the publishing transaction has already committed.
+     * 
+     * @param event the credentials changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserCredentialsChanged(UserCredentialsChangedEvent event) {
+        // Kept until both the older tokens and any UserDetails cached before the change have expired
+        long keepMillis = Math.max(accessTokenLifetimeMillis, userDetailsTtlSeconds * 1000);
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(keepMillis * 1_000_000);
+        revokedTokenRepository.save(new RevokedToken(event.getUserId(), event.getTokenVersion(), event.getEmail(), expiresAt));
+    }
+    
+    /**
+     * Pulls revocations recorded by any node since the last sync and drops expired entries.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Overlap the window so rows committed late by other nodes are not missed
+            LocalDateTime since = lastSync.minusNanos(syncOverlapMillis * 1_000_000);
+            for (RevokedToken revoked : revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(since, now)) {
+                if (revoked.getTokenId() != null) {
+                    long expiresAt = revoked.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    revokedTokenIds.put(revoked.getTokenId(), expiresAt);
+                } else if (revoked.getUserId() != null && revoked.getTokenVersion() != null) {
+                    credentialVersionRegistry.revoke(revoked.getUserId(), revoked.getTokenVersion());
+                    if (revoked.getEmail() != null) {
+                        userDetailsService.evict(revoked.getEmail());
+                    }
+                }
+            }
+            lastSync = now;
+            
+            long nowMillis = System.currentTimeMillis();
+            revokedTokenIds.values().removeIf(expiresAt -> expiresAt < nowMillis);
+        } catch (Exception e) {
+            logger.warn("Could not synchronise revoked tokens: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Deletes revocation rows and refresh tokens that can no longer be used.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        refreshTokenRepository.deleteExpired(now);
+    }
+}
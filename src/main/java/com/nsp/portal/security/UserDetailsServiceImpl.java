@@ -1,14 +1,24 @@
 package com.nsp.portal.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.nsp.portal.entity.User;
+import com.nsp.portal.event.UserCredentialsChangedEvent;
 import com.nsp.portal.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.Collections;
 
 /**
@@ -21,6 +31,7 @@ import java.util.Collections;
  * 1. Loading user details by username (email in our case)
  * 2. Converting our User entity to Spring Security's UserDetails
  * 3. Setting up authorities based on user roles
+ * 4. Caching built UserDetails, invalidated by UserCredentialsChangedEvent
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -28,23 +39,80 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${auth.user-details-cache.max-size:500000}")
+    private long cacheMaxSize;
+    
+    @Value("${auth.user-details-cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+    
+    private Cache<String, UserDetails> userDetailsCache;
+    
+    private Timer loadTimer;
+    
+    /**
+     * Builds the user details cache and registers its metrics.
+     */
+    @PostConstruct
+    public void initCache() {
+        userDetailsCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "auth.user-details");
+        loadTimer = Timer.builder("auth.user-details.load")
+            .description("Time taken to load user details from the database")
+            .register(meterRegistry);
+    }
+    
     /**
      * Loads user details by username (email in our system).
      * 
+     * A copy of the cached instance is returned, because the authentication manager erases
+     * credentials on the returned object after a successful login.
+     * 
      * @param username the email address of the user
      * @return UserDetails object for Spring Security
      * @throws UsernameNotFoundException if user not found
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.get(username, this::loadFromRepository);
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+    
+    /**
+     * Removes the cached user details for the given email.
+     * 
+     * @param email the email address of the user
+     */
+    public void evict(String email) {
+        userDetailsCache.invalidate(email);
+    }
+    
+    /**
+     * Drops cached user details once a credential change has been committed.
+     * 
+     * @param event the credentials changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCredentialsChanged(UserCredentialsChangedEvent event) {
+        evict(event.getEmail());
+    }
+    
+    private UserDetails loadFromRepository(String username) {
         // Find user by email using userRepository.findByEmail(username)
-        User user = userRepository.findByEmail(username)
+        User user = loadTimer.record(() -> userRepository.findByEmail(username))
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
         
         // Create UserDetails object with proper authorities
         return org.springframework.security.core.userdetails.User.builder()
             .username(user.getEmail())
             .password(user.getPassword())
+            .disabled(!user.isEnabled())
             .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())))
             .build();
     }
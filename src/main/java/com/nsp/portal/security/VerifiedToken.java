@@ -0,0 +1,85 @@
+package com.nsp.portal.security;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of a JWT whose signature and expiration have been verified.
+ * Produced once per token by JwtUtil.verify() and safe to share between requests.
+ */
+public final class VerifiedToken {
+    
+    private final String subject;
+    private final Long userId;
+    private final String role;
+    private final Integer version;
+    private final String state;
+    private final String instituteCode;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final String tokenId;
+    
+    public VerifiedToken(String subject, Long userId, String role, Integer version,
+                         String state, String instituteCode, Instant issuedAt, Instant expiresAt,
+                         String tokenId) {
+        this.subject = subject;
+        this.userId = userId;
+        this.role = role;
+        this.version = version;
+        this.state = state;
+        this.instituteCode = instituteCode;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+    }
+    
+    /**
+     * Checks whether the token carries the user ID, role and version claims.
+     * Tokens issued before these claims were introduced return false.
+     * 
+     * @return true if the token can be trusted without a user lookup
+     */
+    public boolean hasIdentityClaims() {
+        return userId != null && role != null && version != null;
+    }
+    
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+    
+    // Getters
+    public String getSubject() {
+        return subject;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getRole() {
+        return role;
+    }
+    
+    public Integer getVersion() {
+        return version;
+    }
+    
+    public String getState() {
+        return state;
+    }
+    
+    public String getInstituteCode() {
+        return instituteCode;
+    }
+    
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public String getTokenId() {
+        return tokenId;
+    }
+}
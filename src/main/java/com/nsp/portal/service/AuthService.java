@@ -3,6 +3,8 @@ package com.nsp.portal.service;
 import com.nsp.portal.dto.StudentRegistrationRequest;
 import com.nsp.portal.dto.InstituteRegistrationRequest;
 import com.nsp.portal.dto.LoginRequest;
+import com.nsp.portal.dto.RefreshTokenRequest;
+import com.nsp.portal.dto.ChangePasswordRequest;
 
 /**
  * Service interface for authentication operations.
@@ -43,4 +45,32 @@ public interface AuthService {
      * @return authentication result with JWT token
      */
     Object login(LoginRequest request);
+    
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * 
+     * @param request the refresh request
+     * @return authentication result with the new tokens
+     */
+    Object refresh(RefreshTokenRequest request);
+    
+    /**
+     * Revokes the given access token and the refresh token family it belongs to.
+     * 
+     * @param accessToken the current access token, if any
+     * @param refreshToken the current refresh token, if any
+     * @return logout result
+     */
+    Object logout(String accessToken, String refreshToken);
+    
+    /**
+     * Changes a user's password after verifying the current one.
+     * Every access token and refresh token issued to the user before is revoked, and a new
+     * session is issued.
+     * 
+     * @param userId the authenticated user's ID
+     * @param request the current and new passwords
+     * @return authentication result with the new tokens
+     */
+    Object changePassword(Long userId, ChangePasswordRequest request);
 }
@@ -0,0 +1,72 @@
+package com.nsp.portal.service;
+
+import com.nsp.portal.dto.UploadSessionRequest;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for resumable, chunked document uploads.
+ * 
+ * This service is responsible for:
+ * - Opening upload sessions with a fixed chunk size
+ * - Receiving chunks at the offset the session has reached
+ * - Assembling the file once every byte has arrived
+ * - Storing small files streamed in one request, in a single write pass
+ * - Expiring sessions that are never completed or never referenced by an application
+ * 
+ * Uploads are independent of application submission; a submission only references the IDs
+ * of completed uploads.
+ */
+public interface DocumentUploadService {
+    
+    /**
+     * Opens an upload session.
+     * 
+     * @param studentId the student's user ID
+     * @param request the file name, document type and total size
+     * @return the session status, or an error message
+     */
+    Object startUpload(Long studentId, UploadSessionRequest request);
+    
+    /**
+     * Receives one chunk. Every chunk but the last must be exactly the session's chunk size,
+     * and the offset must equal the bytes received so far.
+     * 
+     * @param studentId the student's user ID
+     * @param uploadId the upload session ID
+     * @param offset the position of the chunk in the file
+     * @param chunk the chunk bytes
+     * @return the updated session status, or an error message
+     */
+    Object appendChunk(Long studentId, String uploadId, long offset, InputStream chunk);
+    
+    /**
+     * Stores a whole file streamed in one request as a completed upload. The content is written
+     * once, straight to its final location, with the type, size and SHA-256 handled on the way.
+     * 
+     * @param studentId the student's user ID
+     * @param fileName the original file name
+     * @param documentType the document type, or null for a supporting document
+     * @param content the file content, read to the end
+     * @return the completed session status, or an error message
+     */
+    Object storeUpload(Long studentId, String fileName, String documentType, InputStream content);
+    
+    /**
+     * Gets the status of an upload session, including the offset to resume from.
+     * 
+     * @param studentId the student's user ID
+     * @param uploadId the upload session ID
+     * @return the session status, or an error message
+     */
+    Object getUploadStatus(Long studentId, String uploadId);
+    
+    /**
+     * Abandons an upload that is not yet attached to an application and deletes its data.
+     * 
+     * @param studentId the student's user ID
+     * @param uploadId the upload session ID
+     * @return confirmation, or an error message
+     */
+    Object abortUpload(Long studentId, String uploadId);
+}
@@ -1,7 +1,11 @@
 package com.nsp.portal.service;
 
+import com.nsp.portal.dto.StoredFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Service interface for file storage operations.
  * 
@@ -52,4 +56,64 @@ public interface FileStorageService {
      * @return a unique filename
      */
     String generateUniqueFilename(String originalFilename);
+    
+    /**
+     * Streams a file into storage in a single pass: the bytes are written once, straight to their
+     * final location, while the type and size limits are checked and the SHA-256 is computed.
+     * Nothing is left behind if a limit is broken or the stream fails.
+     * 
+     * @param input the file content, read to the end
+     * @param fileName the name to store the file under; its extension must be an allowed type
+     * @param directory the directory to store the file in
+     * @param maxBytes the most bytes accepted
+     * @return the stored file's path, size and SHA-256
+     * @throws IllegalArgumentException if the type is not allowed, the content does not match it,
+     *         the file is empty or larger than maxBytes, or the file already exists
+     * @throws IOException if the stream or the file cannot be read or written
+     */
+    StoredFile storeStream(InputStream input, String fileName, String directory, long maxBytes) throws IOException;
+    
+    /**
+     * Checks whether files with the given extension may be stored.
+     * 
+     * @param extension the file extension, without the dot
+     * @return true if the extension is one of upload.allowed-types
+     */
+    boolean isAllowedType(String extension);
+    
+    /**
+     * Writes a stream into a file at a given offset, creating the file if needed, and forces it
+     * to disk. Writing the same bytes at the same offset again leaves the file unchanged.
+     * 
+     * @param input the bytes to write, read to the end
+     * @param fileName the name of the file
+     * @param directory the directory of the file
+     * @param offset the position to write at
+     * @param maxBytes the most bytes accepted
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if the stream holds more than maxBytes
+     * @throws IOException if the stream or the file cannot be read or written
+     */
+    long writeAt(InputStream input, String fileName, String directory, long offset, long maxBytes) throws IOException;
+    
+    /**
+     * Moves a stored file into another directory under a new name, replacing it atomically
+     * if it exists. Repeating a completed move returns the same path.
+     * 
+     * @param fileName the name of the file to move
+     * @param fromDirectory the directory the file is in
+     * @param toDirectory the directory to move it to
+     * @param newFileName the name in the target directory
+     * @return the file path where the file is now stored
+     */
+    String moveFile(String fileName, String fromDirectory, String toDirectory, String newFileName);
+    
+    /**
+     * Checks whether a stored file exists.
+     * 
+     * @param fileName the name of the file
+     * @param directory the directory of the file
+     * @return true if the file exists
+     */
+    boolean fileExists(String fileName, String directory);
 }
@@ -0,0 +1,40 @@
+package com.nsp.portal.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * Service interface for idempotent handling of state-changing requests.
+ * 
+ * This service is responsible for:
+ * - Running a request once per Idempotency-Key
+ * - Replaying the stored response when the same request is retried with the same key
+ * - Refusing a key reused for a different request or while its first request is running
+ */
+public interface IdempotencyService {
+    
+    /**
+     * Request header carrying the client's idempotency key.
+     */
+    String HEADER = "Idempotency-Key";
+    
+    /**
+     * Response header set on replayed responses.
+     */
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    /**
+     * Runs an operation at most once per key. Without a key the operation simply runs.
+     * 
+     * @param key the Idempotency-Key header, or null
+     * @param userId the authenticated user's ID; keys are scoped to the user and operation
+     * @param operation the operation name
+     * @param request the request payload the key is bound to, including path variables
+     * @param action the operation to run
+     * @return the operation's response, the stored response of an earlier identical request,
+     *         or an error response if the key cannot be used
+     */
+    ResponseEntity<?> execute(String key, Long userId, String operation, Object request,
+                              Supplier<ResponseEntity<?>> action);
+}
@@ -1,5 +1,7 @@
 package com.nsp.portal.service;
 
+import com.nsp.portal.dto.ResourceStamp;
+
 /**
  * Service interface for institute operations.
  * 
@@ -16,6 +18,23 @@ package com.nsp.portal.service;
  */
 public interface InstituteService {
     
+    /**
+     * Gets the institute's profile information.
+     * 
+     * @param instituteId the institute's user ID
+     * @return institute profile details
+     */
+    Object getInstituteProfile(Long instituteId);
+    
+    /**
+     * Returns the ETag and Last-Modified stamp of the institute's profile if it is known
+     * without a database read.
+     * 
+     * @param instituteId the institute's user ID
+     * @return the stamp, or null if unknown
+     */
+    ResourceStamp getInstituteProfileStamp(Long instituteId);
+    
     /**
      * Gets pending student applications for the institute.
      * 
@@ -61,4 +61,37 @@ public interface MinistryService {
      * @return approval result
      */
     Object approveInstituteRegistration(Long instituteId, Long ministryOfficerId, Object approvalData);
+    
+    /**
+     * Checks all applications of a scheme against the scheme's eligibility rule.
+     * 
+     * @param schemeId the scheme ID
+     * @return summary of eligible and ineligible applications
+     */
+    Object checkSchemeEligibility(Long schemeId);
+    
+    /**
+     * Finds every registered student who qualifies for a scheme.
+     * 
+     * @param schemeId the scheme ID
+     * @param limit maximum number of student IDs to list
+     * @return eligible student count and IDs
+     */
+    Object findEligibleStudents(Long schemeId, int limit);
+    
+    /**
+     * Lists the immutable versions of a scheme's terms.
+     * 
+     * @param schemeId the scheme ID
+     * @return versions ordered by version number
+     */
+    Object getSchemeVersions(Long schemeId);
+    
+    /**
+     * Gets a scheme's budget, allocation and remaining headroom.
+     * 
+     * @param schemeId the scheme ID
+     * @return budget summary
+     */
+    Object getSchemeBudget(Long schemeId);
 }
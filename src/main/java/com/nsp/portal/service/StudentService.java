@@ -1,13 +1,13 @@
 package com.nsp.portal.service;
 
-import org.springframework.web.multipart.MultipartFile;
+import com.nsp.portal.dto.ResourceStamp;
 
 /**
  * Service interface for student operations.
  * 
  * DEVELOPER 2 TASK: Implement the following methods in StudentServiceImpl:
  * 1. getAllSchemes() - Retrieve all available scholarship schemes
- * 2. submitApplication() - Submit scholarship application with documents
+ * 2. submitApplication() - Submit scholarship application referencing completed uploads
  * 3. getStudentApplications() - Get all applications for a student
  * 4. getStudentProfile() - Get student profile information
  * 5. updateStudentProfile() - Update student profile
@@ -28,13 +28,53 @@ public interface StudentService {
     Object getAllSchemes();
     
     /**
-     * Submits a new scholarship application with documents.
+     * Returns the currently open scholarship schemes as a pre-serialised JSON array.
      * 
-     * @param applicationData the application form data
-     * @param documents the uploaded documents
+     * @return UTF-8 JSON array bytes
+     */
+    byte[] getAvailableSchemesJson();
+    
+    /**
+     * Returns the strong ETag of the JSON served by getAvailableSchemesJson.
+     * 
+     * @return the quoted ETag
+     */
+    String getAvailableSchemesEtag();
+    
+    /**
+     * Returns the open scholarship schemes a student is eligible for as a JSON array.
+     * 
+     * @param studentId the student's user ID
+     * @return UTF-8 JSON array bytes, or an error message
+     */
+    Object getEligibleSchemesJson(Long studentId);
+    
+    /**
+     * Searches active scholarship schemes by free text.
+     * 
+     * @param query the search text
+     * @param limit maximum number of results
+     * @return ranked list of scheme summaries
+     */
+    Object searchSchemes(String query, int limit);
+    
+    /**
+     * Suggests search words for typeahead.
+     * 
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions
+     * @return list of suggested words
+     */
+    Object suggestSchemeSearch(String prefix, int limit);
+    
+    /**
+     * Submits a new scholarship application referencing completed document uploads.
+     * 
+     * @param studentId the student's user ID
+     * @param applicationData the application form data, including the upload IDs
      * @return application submission result
      */
-    Object submitApplication(String applicationData, MultipartFile[] documents);
+    Object submitApplication(Long studentId, String applicationData);
     
     /**
      * Gets all applications submitted by a specific student.
@@ -52,6 +92,15 @@ public interface StudentService {
      */
     Object getStudentProfile(Long studentId);
     
+    /**
+     * Returns the ETag and Last-Modified stamp of the student's profile if it is known
+     * without a database read.
+     * 
+     * @param studentId the student's user ID
+     * @return the stamp, or null if unknown
+     */
+    ResourceStamp getStudentProfileStamp(Long studentId);
+    
     /**
      * Updates the profile information for a specific student.
      * 
@@ -1,5 +1,7 @@
 package com.nsp.portal.service;
 
+import com.nsp.portal.enums.Role;
+
 /**
  * Service interface for user operations.
  * Provides methods for user management and authentication.
@@ -21,4 +23,33 @@ public interface UserService {
      * @return the user entity, or null if not found
      */
     Object getUserByEmail(String email);
+    
+    /**
+     * Changes a user's password and revokes previously issued tokens.
+     * The hash is computed by the caller, so no transaction waits for BCrypt.
+     * 
+     * @param userId the user ID
+     * @param expectedHash the password hash the change was verified against
+     * @param hashedPassword the new password hash
+     * @return true if the user exists, still had expectedHash and was updated
+     */
+    boolean changePassword(Long userId, String expectedHash, String hashedPassword);
+    
+    /**
+     * Changes a user's role and revokes previously issued tokens.
+     * 
+     * @param userId the user ID
+     * @param role the new role
+     * @return true if the user exists and was updated
+     */
+    boolean changeRole(Long userId, Role role);
+    
+    /**
+     * Enables or disables a user account and revokes previously issued tokens.
+     * 
+     * @param userId the user ID
+     * @param enabled whether the account should be enabled
+     * @return true if the user exists and was updated
+     */
+    boolean setEnabled(Long userId, boolean enabled);
 }
@@ -0,0 +1,91 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.enums.ApplicationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the check constraint on scholarship_applications.status in step with ApplicationStatus.
+ * 
+ * Hibernate writes the constraint with the enum's values when it creates the table, and
+ * ddl-auto=update never changes it afterwards. On a database created before a status was added
+ * (CLOSED_INCOMPLETE, set by the scheme closure job) every write of the new status fails. At
+ * startup the constraint is read and, if it lacks a status, replaced.
+ * 
+ * The replacement is added NOT VALID, so the swap holds its ACCESS EXCLUSIVE lock only for the
+ * catalog change (bounded by a lock timeout) and never while scanning the table. The existing
+ * rows are then checked by VALIDATE CONSTRAINT in its own transaction, which takes a SHARE UPDATE
+ * EXCLUSIVE lock that lets reads and writes continue. A constraint left unvalidated by an
+ * interrupted start is validated on the next one. A database whose constraint is current and
+ * validated, or has none, is left alone.
+ */
+@Component
+public class ApplicationStatusConstraint {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationStatusConstraint.class);
+    
+    private static final String TABLE = "scholarship_applications";
+    private static final String CONSTRAINT = "scholarship_applications_status_check";
+    private static final String LOCK_TIMEOUT = "5s";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    /**
+     * Brings the constraint up to date once the schema has been updated.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT pg_get_constraintdef(oid) AS definition, convalidated FROM pg_constraint "
+                    + "WHERE conname = ? AND conrelid = ?::regclass",
+                CONSTRAINT, TABLE);
+            if (rows.isEmpty()) {
+                return;
+            }
+            String definition = (String) rows.get(0).get("definition");
+            List<String> missing = Arrays.stream(ApplicationStatus.values())
+                .map(Enum::name)
+                .filter(status -> !definition.contains("'" + status + "'"))
+                .collect(Collectors.toList());
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            
+            if (!missing.isEmpty()) {
+                String allowed = Arrays.stream(ApplicationStatus.values())
+                    .map(status -> "'" + status.name() + "'")
+                    .collect(Collectors.joining(", "));
+                template.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+                    jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP CONSTRAINT " + CONSTRAINT);
+                    jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + CONSTRAINT
+                        + " CHECK (status IN (" + allowed + ")) NOT VALID");
+                });
+                logger.info("Updated " + CONSTRAINT + " to allow " + missing);
+            } else if (Boolean.TRUE.equals(rows.get(0).get("convalidated"))) {
+                return;
+            }
+            
+            template.executeWithoutResult(status ->
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " VALIDATE CONSTRAINT " + CONSTRAINT));
+            logger.info("Validated " + CONSTRAINT);
+        } catch (Exception e) {
+            logger.warn("Could not update " + CONSTRAINT + ": " + e.getMessage());
+        }
+    }
+}
@@ -3,24 +3,50 @@ package com.nsp.portal.service.impl;
 import com.nsp.portal.dto.StudentRegistrationRequest;
 import com.nsp.portal.dto.InstituteRegistrationRequest;
 import com.nsp.portal.dto.LoginRequest;
+import com.nsp.portal.dto.RefreshTokenRequest;
+import com.nsp.portal.dto.ChangePasswordRequest;
 import com.nsp.portal.dto.AuthResponse;
 import com.nsp.portal.entity.User;
 import com.nsp.portal.entity.StudentProfile;
 import com.nsp.portal.entity.InstituteProfile;
+import com.nsp.portal.entity.RefreshToken;
 import com.nsp.portal.enums.Role;
 import com.nsp.portal.repository.UserRepository;
 import com.nsp.portal.repository.StudentProfileRepository;
 import com.nsp.portal.repository.InstituteProfileRepository;
+import com.nsp.portal.repository.RefreshTokenRepository;
+import com.nsp.portal.security.BCryptCostCalibrator;
+import com.nsp.portal.security.HashingCapacityExceededException;
 import com.nsp.portal.security.JwtUtil;
+import com.nsp.portal.security.PasswordHashingExecutor;
+import com.nsp.portal.security.TokenRevocationList;
+import com.nsp.portal.security.UserDetailsServiceImpl;
+import com.nsp.portal.security.VerifiedToken;
 import com.nsp.portal.service.AuthService;
+import com.nsp.portal.service.UserService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Implementation of AuthService for authentication operations.
@@ -40,6 +66,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class AuthServiceImpl implements AuthService {
     
+    private static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
+    
+    // Registration error messages keyed by unique constraint name
+    private static final Map<String, String> DUPLICATE_MESSAGES = Map.of(
+        "uk_users_email", "Email already registered",
+        "uk_users_mobile_number", "Mobile number already registered",
+        "uk_student_profiles_aadhar_number", "Aadhar number already registered",
+        "uk_institute_profiles_institute_code", "Institute code already registered"
+    );
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -59,7 +95,33 @@ public class AuthServiceImpl implements AuthService {
     private JwtUtil jwtUtil;
     
     @Autowired
-    private UserDetailsService userDetailsService;
+    private PasswordHashingExecutor passwordHashingExecutor;
+    
+    @Autowired
+    private BCryptCostCalibrator bCryptCostCalibrator;
+    
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    
+    @Autowired
+    private RegistrationPrefilter registrationPrefilter;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Value("${jwt.refresh.expiration:1209600000}") // Default: 14 days
+    private long refreshExpirationMillis;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
     
     /**
      * Registers a new student user.
@@ -68,69 +130,78 @@ public class AuthServiceImpl implements AuthService {
      * @return registration result
      */
     @Override
-    @Transactional
     public Object registerStudent(StudentRegistrationRequest request) {
         try {
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                return new AuthResponse("Email already registered");
-            }
-            
-            // Check if Aadhar number already exists
-            if (studentProfileRepository.existsByAadharNumber(request.getAadharNumber())) {
-                return new AuthResponse("Aadhar number already registered");
-            }
-            
-            // Check if mobile number already exists
-            if (userRepository.existsByMobileNumber(request.getMobileNumber())) {
-                return new AuthResponse("Mobile number already registered");
+            // Check email, Aadhar number and mobile number in one query before paying for BCrypt.
+            // The unique constraints remain authoritative for concurrent signups.
+            // Skipped entirely when the prefilter proves none of the values exist.
+            if (registrationPrefilter.mightConflictStudent(
+                    request.getEmail(), request.getAadharNumber(), request.getMobileNumber())) {
+                String conflict = userRepository.findStudentRegistrationConflict(
+                    request.getEmail(), request.getAadharNumber(), request.getMobileNumber());
+                registrationPrefilter.recordDatabaseCheck(conflict != null);
+                if (conflict != null) {
+                    return duplicateResponse(conflict);
+                }
             }
             
-            // Hash the password
-            String hashedPassword = passwordEncoder.encode(request.getPassword());
+            // Hash before the transaction: waiting for a hashing thread must not hold a pooled connection
+            String hashedPassword = passwordHashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword()));
             
-            // Create new User entity with STUDENT role
-            User user = new User(
-                request.getEmail(),
-                hashedPassword,
-                request.getMobileNumber(),
-                Role.STUDENT
-            );
-            
-            // Save the User entity
-            User savedUser = userRepository.save(user);
-            
-            // Create new StudentProfile entity linked to the User
-            StudentProfile studentProfile = new StudentProfile(
-                savedUser,
-                request.getName(),
-                request.getDateOfBirth(),
-                request.getGender(),
-                request.getDomicileState(),
-                request.getAadharNumber()
-            );
-            
-            // Set additional optional fields
-            studentProfile.setFatherName(request.getFatherName());
-            studentProfile.setMotherName(request.getMotherName());
-            studentProfile.setCategory(request.getCategory());
-            studentProfile.setReligion(request.getReligion());
-            studentProfile.setAddress(request.getAddress());
-            studentProfile.setDistrict(request.getDistrict());
-            studentProfile.setPincode(request.getPincode());
-            
-            // Save the StudentProfile entity
-            studentProfileRepository.save(studentProfile);
-            
-            // Return success response
-            return new AuthResponse(
-                "Student registered successfully",
-                savedUser.getId(),
-                savedUser.getEmail(),
-                savedUser.getRole(),
-                request.getName()
-            );
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            return template.execute(status -> {
+                try {
+                    // Create new User entity with STUDENT role
+                    User user = new User(
+                        request.getEmail(),
+                        hashedPassword,
+                        request.getMobileNumber(),
+                        Role.STUDENT
+                    );
+                    
+                    // Save the User entity
+                    User savedUser = userRepository.save(user);
+                    
+                    // Create new StudentProfile entity linked to the User
+                    StudentProfile studentProfile = new StudentProfile(
+                        savedUser,
+                        request.getName(),
+                        request.getDateOfBirth(),
+                        request.getGender(),
+                        request.getDomicileState(),
+                        request.getAadharNumber()
+                    );
+                    
+                    // Set additional optional fields
+                    studentProfile.setFatherName(request.getFatherName());
+                    studentProfile.setMotherName(request.getMotherName());
+                    studentProfile.setCategory(request.getCategory());
+                    studentProfile.setReligion(request.getReligion());
+                    studentProfile.setAddress(request.getAddress());
+                    studentProfile.setDistrict(request.getDistrict());
+                    studentProfile.setPincode(request.getPincode());
+                    
+                    // Save the StudentProfile entity, flushing so constraint violations surface here
+                    studentProfileRepository.saveAndFlush(studentProfile);
+                    registrationPrefilter.addStudent(request.getEmail(), request.getAadharNumber(), request.getMobileNumber());
+                    
+                    // Return success response
+                    return new AuthResponse(
+                        "Student registered successfully",
+                        savedUser.getId(),
+                        savedUser.getEmail(),
+                        savedUser.getRole(),
+                        request.getName()
+                    );
+                } catch (DataIntegrityViolationException e) {
+                    // Lost a race with a concurrent signup; roll back without surfacing UnexpectedRollbackException
+                    status.setRollbackOnly();
+                    return duplicateResponse(violatedConstraint(e));
+                }
+            });
             
+        } catch (HashingCapacityExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AuthResponse("Registration failed: " + e.getMessage());
         }
@@ -143,70 +214,79 @@ public class AuthServiceImpl implements AuthService {
      * @return registration result
      */
     @Override
-    @Transactional
     public Object registerInstitute(InstituteRegistrationRequest request) {
         try {
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                return new AuthResponse("Email already registered");
+            // Check email, institute code and mobile number in one query before paying for BCrypt.
+            // The unique constraints remain authoritative for concurrent signups.
+            // Skipped entirely when the prefilter proves none of the values exist.
+            if (registrationPrefilter.mightConflictInstitute(
+                    request.getEmail(), request.getInstituteCode(), request.getMobileNumber())) {
+                String conflict = userRepository.findInstituteRegistrationConflict(
+                    request.getEmail(), request.getInstituteCode(), request.getMobileNumber());
+                registrationPrefilter.recordDatabaseCheck(conflict != null);
+                if (conflict != null) {
+                    return duplicateResponse(conflict);
+                }
             }
             
-            // Check if institute code already exists
-            if (instituteProfileRepository.existsByInstituteCode(request.getInstituteCode())) {
-                return new AuthResponse("Institute code already registered");
-            }
-            
-            // Check if mobile number already exists
-            if (userRepository.existsByMobileNumber(request.getMobileNumber())) {
-                return new AuthResponse("Mobile number already registered");
-            }
-            
-            // Hash the password
-            String hashedPassword = passwordEncoder.encode(request.getPassword());
-            
-            // Create new User entity with INSTITUTE role
-            User user = new User(
-                request.getEmail(),
-                hashedPassword,
-                request.getMobileNumber(),
-                Role.INSTITUTE
-            );
-            
-            // Save the User entity
-            User savedUser = userRepository.save(user);
+            // Hash before the transaction: waiting for a hashing thread must not hold a pooled connection
+            String hashedPassword = passwordHashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword()));
             
-            // Create new InstituteProfile entity (not approved yet)
-            InstituteProfile instituteProfile = new InstituteProfile(
-                savedUser,
-                request.getInstituteName(),
-                request.getInstituteCode()
-            );
-            
-            // Set additional optional fields
-            instituteProfile.setDiseCode(request.getDiseCode());
-            instituteProfile.setAddress(request.getAddress());
-            instituteProfile.setDistrict(request.getDistrict());
-            instituteProfile.setState(request.getState());
-            instituteProfile.setPincode(request.getPincode());
-            instituteProfile.setContactPersonName(request.getContactPersonName());
-            instituteProfile.setContactPersonMobile(request.getContactPersonMobile());
-            instituteProfile.setContactPersonEmail(request.getContactPersonEmail());
-            instituteProfile.setInstituteType(request.getInstituteType());
-            instituteProfile.setAffiliationBody(request.getAffiliationBody());
-            instituteProfile.setEstablishmentYear(request.getEstablishmentYear());
-            
-            // Save the InstituteProfile entity
-            instituteProfileRepository.save(instituteProfile);
-            
-            // Return success response with pending approval message
-            return new AuthResponse(
-                "Institute registration submitted successfully. Pending approval from administrators.",
-                savedUser.getId(),
-                savedUser.getEmail(),
-                savedUser.getRole(),
-                request.getInstituteName()
-            );
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            return template.execute(status -> {
+                try {
+                    // Create new User entity with INSTITUTE role
+                    User user = new User(
+                        request.getEmail(),
+                        hashedPassword,
+                        request.getMobileNumber(),
+                        Role.INSTITUTE
+                    );
+                    
+                    // Save the User entity
+                    User savedUser = userRepository.save(user);
+                    
+                    // Create new InstituteProfile entity (not approved yet)
+                    InstituteProfile instituteProfile = new InstituteProfile(
+                        savedUser,
+                        request.getInstituteName(),
+                        request.getInstituteCode()
+                    );
+                    
+                    // Set additional optional fields
+                    instituteProfile.setDiseCode(request.getDiseCode());
+                    instituteProfile.setAddress(request.getAddress());
+                    instituteProfile.setDistrict(request.getDistrict());
+                    instituteProfile.setState(request.getState());
+                    instituteProfile.setPincode(request.getPincode());
+                    instituteProfile.setContactPersonName(request.getContactPersonName());
+                    instituteProfile.setContactPersonMobile(request.getContactPersonMobile());
+                    instituteProfile.setContactPersonEmail(request.getContactPersonEmail());
+                    instituteProfile.setInstituteType(request.getInstituteType());
+                    instituteProfile.setAffiliationBody(request.getAffiliationBody());
+                    instituteProfile.setEstablishmentYear(request.getEstablishmentYear());
+                    
+                    // Save the InstituteProfile entity, flushing so constraint violations surface here
+                    instituteProfileRepository.saveAndFlush(instituteProfile);
+                    registrationPrefilter.addInstitute(request.getEmail(), request.getInstituteCode(), request.getMobileNumber());
+                    
+                    // Return success response with pending approval message
+                    return new AuthResponse(
+                        "Institute registration submitted successfully. Pending approval from administrators.",
+                        savedUser.getId(),
+                        savedUser.getEmail(),
+                        savedUser.getRole(),
+                        request.getInstituteName()
+                    );
+                } catch (DataIntegrityViolationException e) {
+                    // Lost a race with a concurrent signup; roll back without surfacing UnexpectedRollbackException
+                    status.setRollbackOnly();
+                    return duplicateResponse(violatedConstraint(e));
+                }
+            });
             
+        } catch (HashingCapacityExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AuthResponse("Registration failed: " + e.getMessage());
         }
@@ -221,57 +301,229 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public Object login(LoginRequest request) {
         try {
-            // Authenticate user credentials
-            authenticationManager.authenticate(
+            // Authenticate user credentials on the dedicated BCrypt executor
+            passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-            
-            // Load user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
+            ));
             
             // Find the user in our database to get additional information
             User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            // Generate JWT token
-            String token = jwtUtil.generateToken(userDetails);
-            
-            // Get user name based on role
-            String userName = getUserName(user);
-            
-            // Return authentication response
-            return new AuthResponse(
-                token,
-                "Login successful",
-                user.getId(),
-                user.getEmail(),
-                user.getRole(),
-                userName
-            );
+            // Transparently upgrade or downgrade the hash to the calibrated BCrypt cost
+            rehashIfNeeded(user, request.getPassword());
             
+            // Issue a short-lived access token and start a new refresh token family
+            return issueSession(user, "Login successful", UUID.randomUUID().toString());
+        
+        } catch (HashingCapacityExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AuthResponse("Invalid credentials");
         }
     }
     
     /**
-     * Helper method to get user name based on role
+     * Exchanges a refresh token for a new token pair.
+     * 
+     * The presented token is revoked and replaced by a new one in the same family. Presenting
+     * a token that was already rotated means it has leaked, so the whole family is revoked.
+     * 
+     * @param request the refresh request
+     * @return authentication result with the new tokens
+     */
+    @Override
+    @Transactional
+    public Object refresh(RefreshTokenRequest request) {
+        RefreshToken refreshToken = refreshTokenRepository
+            .findByTokenHashForUpdate(hashRefreshToken(request.getRefreshToken()))
+            .orElse(null);
+        if (refreshToken == null || refreshToken.isExpired()) {
+            return new AuthResponse("Invalid refresh token");
+        }
+        
+        if (refreshToken.isRevoked()) {
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), LocalDateTime.now());
+            logger.warn("Refresh token reuse detected for user " + refreshToken.getUser().getId()
+                + "; revoked token family " + refreshToken.getFamilyId());
+            return new AuthResponse("Invalid refresh token");
+        }
+        
+        // Password, role or enabled changes invalidate existing sessions
+        User user = refreshToken.getUser();
+        if (!user.isEnabled() || user.getTokenVersion() != refreshToken.getTokenVersion()) {
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), LocalDateTime.now());
+            return new AuthResponse("Invalid refresh token");
+        }
+        
+        refreshToken.setRevoked(true);
+        refreshToken.setRevokedAt(LocalDateTime.now());
+        refreshTokenRepository.save(refreshToken);
+        
+        return issueSession(user, "Token refreshed successfully", refreshToken.getFamilyId());
+    }
+    
+    /**
+     * Revokes the access token cluster-wide until it expires and ends the refresh token family.
+     * 
+     * @param accessToken the current access token, if any
+     * @param refreshToken the current refresh token, if any
+     * @return logout result
+     */
+    @Override
+    @Transactional
+    public Object logout(String accessToken, String refreshToken) {
+        boolean revoked = false;
+        
+        if (accessToken != null) {
+            try {
+                VerifiedToken verified = jwtUtil.verify(accessToken);
+                if (verified.getTokenId() != null) {
+                    tokenRevocationList.revoke(verified.getTokenId(), verified.getExpiresAt());
+                    revoked = true;
+                }
+            } catch (Exception e) {
+                // Invalid or expired access tokens need no revocation
+            }
+        }
+        
+        if (refreshToken != null) {
+            RefreshToken stored = refreshTokenRepository
+                .findByTokenHashForUpdate(hashRefreshToken(refreshToken))
+                .orElse(null);
+            if (stored != null) {
+                refreshTokenRepository.revokeFamily(stored.getFamilyId(), LocalDateTime.now());
+                revoked = true;
+            }
+        }
+        
+        return new AuthResponse(revoked ? "Logged out successfully" : "No active session to log out");
+    }
+    
+    /**
+     * Changes a user's password after verifying the current one.
+     * 
+     * The change bumps the user's token version, so access tokens issued before are refused
+     * (by CredentialVersionRegistry on this node and by the revocation list on the others) and
+     * refresh tokens of every family fail their version check. The caller gets a new session.
+     * 
+     * @param userId the authenticated user's ID
+     * @param request the current and new passwords
+     * @return authentication result with the new tokens
      */
-    private String getUserName(User user) {
+    @Override
+    public Object changePassword(Long userId, ChangePasswordRequest request) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return new AuthResponse("User not found");
+        }
+        
+        // Verify and hash before the transaction: waiting for a hashing thread must not hold a pooled connection
+        String expectedHash = user.getPassword();
+        if (!passwordHashingExecutor.execute(() -> passwordEncoder.matches(request.getCurrentPassword(), expectedHash))) {
+            return new AuthResponse("Current password is incorrect");
+        }
+        String hashedPassword = passwordHashingExecutor.execute(() -> passwordEncoder.encode(request.getNewPassword()));
+        
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (!userService.changePassword(userId, expectedHash, hashedPassword)) {
+                return new AuthResponse("Password was changed by another request, please retry");
+            }
+            User updated = userRepository.findById(userId).orElseThrow();
+            return issueSession(updated, "Password changed successfully", UUID.randomUUID().toString());
+        });
+    }
+    
+    /**
+     * Issues an access token and a new refresh token in the given family.
+     */
+    private AuthResponse issueSession(User user, String message, String familyId) {
+        // Resolve display name and scope (state, institute code) from the profile
+        String userName = user.getEmail();
+        String state = null;
+        String instituteCode = null;
+        if (user.getRole() == Role.STUDENT) {
+            StudentProfile profile = studentProfileRepository.findByUserId(user.getId()).orElse(null);
+            userName = profile != null ? profile.getName() : "Student";
+            state = profile != null ? profile.getDomicileState() : null;
+        } else if (user.getRole() == Role.INSTITUTE) {
+            InstituteProfile profile = instituteProfileRepository.findByUserId(user.getId()).orElse(null);
+            userName = profile != null ? profile.getInstituteName() : "Institute";
+            state = profile != null ? profile.getState() : null;
+            instituteCode = profile != null ? profile.getInstituteCode() : null;
+        }
+        
+        // Generate JWT token carrying identity and scope claims
+        String token = jwtUtil.generateToken(user, state, instituteCode);
+        
+        // Generate the opaque refresh token; only its hash is stored
+        byte[] randomBytes = new byte[32];
+        secureRandom.nextBytes(randomBytes);
+        String refreshTokenValue = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        refreshTokenRepository.save(new RefreshToken(
+            hashRefreshToken(refreshTokenValue),
+            user,
+            familyId,
+            LocalDateTime.now().plusNanos(refreshExpirationMillis * 1_000_000)
+        ));
+        
+        AuthResponse response = new AuthResponse(
+            token,
+            message,
+            user.getId(),
+            user.getEmail(),
+            user.getRole(),
+            userName
+        );
+        response.setRefreshToken(refreshTokenValue);
+        response.setExpiresIn(jwtUtil.getExpirationSeconds());
+        return response;
+    }
+    
+    private String hashRefreshToken(String value) {
         try {
-            if (user.getRole() == Role.STUDENT) {
-                StudentProfile profile = studentProfileRepository.findByUserId(user.getId())
-                    .orElse(null);
-                return profile != null ? profile.getName() : "Student";
-            } else if (user.getRole() == Role.INSTITUTE) {
-                InstituteProfile profile = instituteProfileRepository.findByUserId(user.getId())
-                    .orElse(null);
-                return profile != null ? profile.getInstituteName() : "Institute";
-            } else {
-                return user.getEmail();
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Re-hashes the password with the calibrated cost after a successful login.
+     * Failures are logged and never fail the login itself.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!bCryptCostCalibrator.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String newHash = passwordHashingExecutor.execute(() -> passwordEncoder.encode(rawPassword));
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), newHash) > 0) {
+                userDetailsService.evict(user.getEmail());
             }
         } catch (Exception e) {
-            return user.getEmail();
+            logger.warn("Could not rehash password for user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Maps a violated unique constraint to the registration error response.
+     */
+    private AuthResponse duplicateResponse(String constraintName) {
+        String message = constraintName != null ? DUPLICATE_MESSAGES.get(constraintName) : null;
+        return new AuthResponse(message != null ? message : "Registration failed: account details already registered");
+    }
+    
+    /**
+     * Extracts the violated constraint name reported by Hibernate, if any.
+     */
+    private String violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase();
+            }
         }
+        return null;
     }
 }
@@ -0,0 +1,329 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.dto.StoredFile;
+import com.nsp.portal.dto.UploadSessionRequest;
+import com.nsp.portal.dto.UploadSessionStatus;
+import com.nsp.portal.entity.UploadSession;
+import com.nsp.portal.enums.UploadStatus;
+import com.nsp.portal.repository.UploadSessionRepository;
+import com.nsp.portal.service.DocumentUploadService;
+import com.nsp.portal.service.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of DocumentUploadService for resumable, chunked document uploads.
+ * 
+ * Chunks are written straight to a part file at their offset and forced to disk before the
+ * session's offset is advanced with a conditional single-row UPDATE, so the recorded offset
+ * never runs ahead of durable data and a retried or duplicated chunk is harmless. No
+ * transaction or database connection is held while a chunk's bytes arrive; WebConfig keeps
+ * open-entity-manager-in-view off the chunk endpoint for the same reason.
+ * 
+ * When the last chunk arrives the part file is moved into the document directory under the
+ * upload ID. Every step can be repeated, so a crash between them is recovered by resending
+ * the last chunk. Sessions that are not completed, or completed but never attached to an
+ * application, are deleted with their files after upload.session.ttl-hours.
+ * 
+ * Files small enough to send in one request can instead be streamed whole (storeUpload): the
+ * bytes go straight from the request into the document directory in one pass, which also
+ * checks the type and size and computes the SHA-256, so each byte hits the disk once.
+ */
+@Service
+public class DocumentUploadServiceImpl implements DocumentUploadService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DocumentUploadServiceImpl.class);
+    
+    static final String PART_DIRECTORY = "upload_sessions";
+    static final String DOCUMENT_DIRECTORY = "scholarship_documents";
+    private static final String PART_SUFFIX = ".part";
+    
+    @Value("${upload.chunk-size-bytes:1048576}")
+    private int chunkSize;
+    
+    @Value("${upload.max-file-size-bytes:10485760}")
+    private long maxFileSize;
+    
+    @Value("${upload.session.ttl-hours:24}")
+    private long ttlHours;
+    
+    @Value("${upload.session.max-active-per-student:20}")
+    private int maxActivePerStudent;
+    
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    
+    @Autowired
+    private FileStorageService fileStorageService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    /**
+     * Opens an upload session after checking the size limit and the student's open sessions.
+     * 
+     * @param studentId the student's user ID
+     * @param request the file name, document type and total size
+     * @return the session status, or an error message
+     */
+    @Override
+    public Object startUpload(Long studentId, UploadSessionRequest request) {
+        try {
+            if (request.getTotalSize() <= 0 || request.getTotalSize() > maxFileSize) {
+                return "File size must be between 1 and " + maxFileSize + " bytes";
+            }
+            if (uploadSessionRepository.countByStudentUserIdAndStatus(studentId, UploadStatus.IN_PROGRESS) >= maxActivePerStudent) {
+                return "Too many uploads in progress; complete or abort some first";
+            }
+            
+            String fileName = request.getFileName().trim();
+            String extension = extension(fileName);
+            if (!fileStorageService.isAllowedType(extension)) {
+                return "File type not allowed: " + (extension.isEmpty() ? "(none)" : extension);
+            }
+            
+            UploadSession session = new UploadSession(UUID.randomUUID().toString(), studentId,
+                documentType(request.getDocumentType()), fileName, extension, request.getTotalSize(),
+                (int) Math.min(chunkSize, request.getTotalSize()), LocalDateTime.now().plusHours(ttlHours));
+            return new UploadSessionStatus(uploadSessionRepository.save(session));
+        } catch (Exception e) {
+            return "Error starting upload: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Writes one chunk at its offset and advances the session; assembles the file after the last chunk.
+     * 
+     * @param studentId the student's user ID
+     * @param uploadId the upload session ID
+     * @param offset the position of the chunk in the file
+     * @param chunk the chunk bytes
+     * @return the updated session status, or an error message
+     */
+    @Override
+    public Object appendChunk(Long studentId, String uploadId, long offset, InputStream chunk) {
+        try {
+            UploadSession session = uploadSessionRepository.findByIdAndStudentUserId(uploadId, studentId).orElse(null);
+            if (session == null) {
+                return "Upload not found";
+            }
+            if (session.getStatus() != UploadStatus.IN_PROGRESS) {
+                // Already assembled; a repeated last chunk changes nothing
+                return new UploadSessionStatus(session);
+            }
+            if (offset != session.getReceivedBytes()) {
+                return "Chunk offset " + offset + " does not match received bytes " + session.getReceivedBytes();
+            }
+            
+            long expected = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+            if (expected > 0) {
+                long written = fileStorageService.writeAt(chunk, partName(session), PART_DIRECTORY, offset, expected);
+                if (written != expected) {
+                    return "Chunk at offset " + offset + " must be " + expected + " bytes, received " + written;
+                }
+                TransactionTemplate template = new TransactionTemplate(transactionManager);
+                Integer advanced = template.execute(status ->
+                    uploadSessionRepository.advanceOffset(uploadId, offset, offset + expected, LocalDateTime.now()));
+                if (advanced == null || advanced == 0) {
+                    return "Chunk offset " + offset + " was already received";
+                }
+                session.setReceivedBytes(offset + expected);
+            }
+            
+            if (session.getReceivedBytes() == session.getTotalSize()) {
+                assemble(session);
+            }
+            return new UploadSessionStatus(session);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        } catch (Exception e) {
+            return "Error receiving chunk: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Stores a file streamed whole as a completed upload. The session row is created first, so a
+     * crash mid-stream leaves nothing the expiry purge does not clean up; no transaction is open
+     * while the bytes arrive.
+     * 
+     * @param studentId the student's user ID
+     * @param fileName the original file name
+     * @param documentType the document type, or null for a supporting document
+     * @param content the file content, read to the end
+     * @return the completed session status, or an error message
+     */
+    @Override
+    public Object storeUpload(Long studentId, String fileName, String documentType, InputStream content) {
+        UploadSession session = null;
+        try {
+            if (fileName == null || fileName.isBlank()) {
+                return "File name is required";
+            }
+            String name = fileName.trim();
+            String extension = extension(name);
+            if (!fileStorageService.isAllowedType(extension)) {
+                return "File type not allowed: " + (extension.isEmpty() ? "(none)" : extension);
+            }
+            if (uploadSessionRepository.countByStudentUserIdAndStatus(studentId, UploadStatus.IN_PROGRESS) >= maxActivePerStudent) {
+                return "Too many uploads in progress; complete or abort some first";
+            }
+            
+            // The size is unknown until the stream ends; it is recorded on completion
+            session = uploadSessionRepository.save(new UploadSession(UUID.randomUUID().toString(), studentId,
+                documentType(documentType), name, extension, 0, 0, LocalDateTime.now().plusHours(ttlHours)));
+            StoredFile stored = fileStorageService.storeStream(content, documentName(session), DOCUMENT_DIRECTORY, maxFileSize);
+            
+            String uploadId = session.getId();
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.executeWithoutResult(status -> uploadSessionRepository.completeStreamed(uploadId,
+                stored.getFilePath(), stored.getSize(), stored.getSha256(), LocalDateTime.now()));
+            session.setFilePath(stored.getFilePath());
+            session.setTotalSize(stored.getSize());
+            session.setReceivedBytes(stored.getSize());
+            session.setSha256(stored.getSha256());
+            session.setStatus(UploadStatus.COMPLETED);
+            return new UploadSessionStatus(session);
+        } catch (IllegalArgumentException e) {
+            discard(session);
+            return e.getMessage();
+        } catch (Exception e) {
+            discard(session);
+            return "Error storing upload: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Gets the status of an upload session.
+     * 
+     * @param studentId the student's user ID
+     * @param uploadId the upload session ID
+     * @return the session status, or an error message
+     */
+    @Override
+    public Object getUploadStatus(Long studentId, String uploadId) {
+        try {
+            UploadSession session = uploadSessionRepository.findByIdAndStudentUserId(uploadId, studentId).orElse(null);
+            if (session == null) {
+                return "Upload not found";
+            }
+            return new UploadSessionStatus(session);
+        } catch (Exception e) {
+            return "Error retrieving upload: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Deletes an unattached upload session and its files.
+     * 
+     * @param studentId the student's user ID
+     * @param uploadId the upload session ID
+     * @return confirmation, or an error message
+     */
+    @Override
+    public Object abortUpload(Long studentId, String uploadId) {
+        try {
+            UploadSession session = uploadSessionRepository.findByIdAndStudentUserId(uploadId, studentId).orElse(null);
+            if (session == null) {
+                return "Upload not found";
+            }
+            if (session.getStatus() == UploadStatus.ATTACHED) {
+                return "Upload is attached to application " + session.getApplicationId() + " and cannot be aborted";
+            }
+            if (!delete(session)) {
+                return "Upload is attached to an application and cannot be aborted";
+            }
+            return "Upload aborted successfully";
+        } catch (Exception e) {
+            return "Error aborting upload: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Periodically deletes expired sessions that were never attached, with their files.
+     */
+    @Scheduled(fixedDelayString = "${upload.session.cleanup-interval-ms:3600000}",
+               initialDelayString = "${upload.session.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int purged = 0;
+            List<UploadSession> expired;
+            do {
+                expired = uploadSessionRepository.findExpired(LocalDateTime.now(), PageRequest.of(0, 500));
+                for (UploadSession session : expired) {
+                    if (delete(session)) {
+                        purged++;
+                    }
+                }
+            } while (expired.size() == 500);
+            if (purged > 0) {
+                logger.info("Purged " + purged + " expired upload sessions");
+            }
+        } catch (Exception e) {
+            logger.warn("Could not purge expired upload sessions: " + e.getMessage());
+        }
+    }
+    
+    // Moves the part file into place and marks the session completed; safe to repeat
+    private void assemble(UploadSession session) {
+        String filePath = fileStorageService.moveFile(partName(session), PART_DIRECTORY, DOCUMENT_DIRECTORY,
+            documentName(session));
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status ->
+            uploadSessionRepository.complete(session.getId(), filePath, LocalDateTime.now()));
+        session.setFilePath(filePath);
+        session.setStatus(UploadStatus.COMPLETED);
+    }
+    
+    // Removes the row first so an upload attached meanwhile keeps its file
+    private boolean delete(UploadSession session) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        Integer deleted = template.execute(status -> uploadSessionRepository.deleteUnattached(session.getId()));
+        if (deleted == null || deleted == 0) {
+            return false;
+        }
+        fileStorageService.deleteFile(partName(session), PART_DIRECTORY);
+        fileStorageService.deleteFile(documentName(session), DOCUMENT_DIRECTORY);
+        return true;
+    }
+    
+    // Best effort; an upload that cannot be removed now is purged when it expires
+    private void discard(UploadSession session) {
+        if (session == null) {
+            return;
+        }
+        try {
+            delete(session);
+        } catch (Exception e) {
+            logger.warn("Could not discard failed upload " + session.getId() + ": " + e.getMessage());
+        }
+    }
+    
+    private static String extension(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        return lastDotIndex > 0 ? fileName.substring(lastDotIndex + 1).toLowerCase() : "";
+    }
+    
+    private static String documentType(String documentType) {
+        return documentType != null && !documentType.isBlank() ? documentType.trim() : "SUPPORTING_DOCUMENT";
+    }
+    
+    private static String partName(UploadSession session) {
+        return session.getId() + PART_SUFFIX;
+    }
+    
+    private static String documentName(UploadSession session) {
+        return session.getFileExtension().isEmpty() ? session.getId() : session.getId() + "." + session.getFileExtension();
+    }
+}
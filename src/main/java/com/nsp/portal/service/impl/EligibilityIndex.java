@@ -0,0 +1,181 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.entity.StudentProfile;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Immutable bitset index over scheme eligibility restrictions.
+ * 
+ * Bit i stands for the i-th scheme of the list the index was built from. For each restricted
+ * attribute (category, gender, domicile state, academic level, subject, institute type) the
+ * index keeps one bitset per distinct value, already OR-ed with the schemes that accept any
+ * value ("All", "All India" or empty). Matching a student is therefore one map lookup and one
+ * AND per attribute, followed by a cut on the distinct income limits sorted ascending.
+ * 
+ * An attribute the student has not filled in does not filter, so the list errs towards
+ * showing schemes; eligibility is still verified when the application is reviewed.
+ */
+public final class EligibilityIndex {
+    
+    private static final List<String> WILDCARDS = List.of("all", "all india", "any");
+    
+    private final int size;
+    private final Attribute category;
+    private final Attribute gender;
+    private final Attribute domicileState;
+    private final Attribute academicLevel;
+    private final Attribute subject;
+    private final Attribute instituteType;
+    
+    // Distinct income limits ascending; incomeAtLeast[k] holds schemes whose limit is >= incomeLimits[k]
+    // or unlimited, and incomeAtLeast[incomeLimits.length] the unlimited ones only
+    private final BigDecimal[] incomeLimits;
+    private final BitSet[] incomeAtLeast;
+    
+    /**
+     * Builds the index.
+     * 
+     * @param schemes the schemes to index, in bit order
+     */
+    public EligibilityIndex(List<ScholarshipScheme> schemes) {
+        this.size = schemes.size();
+        this.category = new Attribute(schemes, ScholarshipScheme::getCategory);
+        this.gender = new Attribute(schemes, ScholarshipScheme::getGender);
+        this.domicileState = new Attribute(schemes, ScholarshipScheme::getDomicileState);
+        this.academicLevel = new Attribute(schemes, ScholarshipScheme::getAcademicLevel);
+        this.subject = new Attribute(schemes, ScholarshipScheme::getSubject);
+        this.instituteType = new Attribute(schemes, ScholarshipScheme::getInstituteType);
+        
+        TreeSet<BigDecimal> limits = new TreeSet<>();
+        for (ScholarshipScheme scheme : schemes) {
+            if (scheme.getFamilyIncomeLimit() != null) {
+                limits.add(scheme.getFamilyIncomeLimit());
+            }
+        }
+        this.incomeLimits = limits.toArray(new BigDecimal[0]);
+        this.incomeAtLeast = new BitSet[incomeLimits.length + 1];
+        for (int k = 0; k <= incomeLimits.length; k++) {
+            BitSet bits = new BitSet(size);
+            for (int i = 0; i < size; i++) {
+                BigDecimal limit = schemes.get(i).getFamilyIncomeLimit();
+                if (limit == null || (k < incomeLimits.length && limit.compareTo(incomeLimits[k]) >= 0)) {
+                    bits.set(i);
+                }
+            }
+            incomeAtLeast[k] = bits;
+        }
+    }
+    
+    /**
+     * Returns the schemes the student is eligible for.
+     * 
+     * @param criteria the student's eligibility attributes
+     * @return a new bitset of matching scheme positions
+     */
+    public BitSet match(Criteria criteria) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        category.restrict(result, criteria.category);
+        gender.restrict(result, criteria.gender);
+        domicileState.restrict(result, criteria.domicileState);
+        academicLevel.restrict(result, criteria.academicLevel);
+        subject.restrict(result, criteria.subject);
+        instituteType.restrict(result, criteria.instituteType);
+        if (criteria.familyIncome != null) {
+            result.and(incomeAtLeast[lowerBound(criteria.familyIncome)]);
+        }
+        return result;
+    }
+    
+    // First position whose limit is >= income, or incomeLimits.length if none is
+    private int lowerBound(BigDecimal income) {
+        int low = 0;
+        int high = incomeLimits.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (incomeLimits[mid].compareTo(income) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    // Shared with StudentAttributeStore so both read scheme restrictions the same way
+    static boolean isWildcard(String normalized) {
+        return normalized == null || WILDCARDS.contains(normalized);
+    }
+    
+    static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Per-value bitsets for one restricted attribute.
+     */
+    private static final class Attribute {
+        
+        final BitSet wildcard;
+        final Map<String, BitSet> byValue = new HashMap<>();
+        
+        Attribute(List<ScholarshipScheme> schemes, Function<ScholarshipScheme, String> getter) {
+            wildcard = new BitSet(schemes.size());
+            for (int i = 0; i < schemes.size(); i++) {
+                String value = normalize(getter.apply(schemes.get(i)));
+                if (isWildcard(value)) {
+                    wildcard.set(i);
+                } else {
+                    byValue.computeIfAbsent(value, v -> new BitSet(schemes.size())).set(i);
+                }
+            }
+            for (BitSet bits : byValue.values()) {
+                bits.or(wildcard);
+            }
+        }
+        
+        void restrict(BitSet result, String studentValue) {
+            if (studentValue == null) {
+                return;
+            }
+            result.and(byValue.getOrDefault(studentValue, wildcard));
+        }
+    }
+    
+    /**
+     * A student's eligibility attributes, normalised for lookup. Immutable and cacheable.
+     */
+    public static final class Criteria {
+        
+        private final String category;
+        private final String gender;
+        private final String domicileState;
+        private final BigDecimal familyIncome;
+        private final String academicLevel;
+        private final String subject;
+        private final String instituteType;
+        
+        // Constructor from the student profile
+        public Criteria(StudentProfile profile) {
+            this.category = normalize(profile.getCategory());
+            this.gender = normalize(profile.getGender());
+            this.domicileState = normalize(profile.getDomicileState());
+            this.familyIncome = profile.getFamilyIncome();
+            this.academicLevel = normalize(profile.getAcademicLevel());
+            this.subject = normalize(profile.getSubject());
+            this.instituteType = normalize(profile.getInstituteType());
+        }
+    }
+}
@@ -1,15 +1,29 @@
 package com.nsp.portal.service.impl;
 
+import com.nsp.portal.dto.StoredFile;
 import com.nsp.portal.service.FileStorageService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -31,9 +45,21 @@ import java.util.UUID;
 @Service
 public class FileStorageServiceImpl implements FileStorageService {
     
+    // Leading bytes every file of a type starts with; types not listed are not sniffed
+    private static final Map<String, byte[]> SIGNATURES = Map.of(
+        "pdf", new byte[] {'%', 'P', 'D', 'F', '-'},
+        "png", new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'},
+        "jpg", new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},
+        "jpeg", new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF});
+    
+    private static final int SIGNATURE_LENGTH = 8;
+    
     @Value("${file.upload.path:uploads}")
     private String uploadPath;
     
+    @Value("${upload.allowed-types:pdf,jpg,jpeg,png}")
+    private String[] allowedTypes;
+    
     /**
      * Stores an uploaded file in the specified directory.
      * 
@@ -56,20 +82,11 @@ public class FileStorageServiceImpl implements FileStorageService {
         // 4. Return file path
         
         try {
-            // Create the directory if it doesn't exist
-            Path uploadDir = Paths.get(uploadPath, directory);
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-            
-            // Generate unique filename
+            // Generate unique filename and stream the file to it, with the same checks as direct uploads
             String uniqueFilename = generateUniqueFilename(file.getOriginalFilename());
-            Path filePath = uploadDir.resolve(uniqueFilename);
-            
-            // Copy file to storage location
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            return filePath.toString();
+            try (InputStream input = file.getInputStream()) {
+                return storeStream(input, uniqueFilename, directory, Long.MAX_VALUE).getFilePath();
+            }
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
@@ -172,4 +189,169 @@ public class FileStorageServiceImpl implements FileStorageService {
         
         return UUID.randomUUID().toString() + extension;
     }
+    
+    /**
+     * Streams a file into its final location in one pass. The leading bytes are read first and
+     * checked against the signature of the file's type before anything is written; after that
+     * every buffer is counted against maxBytes, fed to the SHA-256 digest and written, so each
+     * byte is read and written exactly once. The file is created exclusively and forced to disk
+     * before returning, and deleted if any check or I/O fails.
+     * 
+     * @param input the file content, read to the end
+     * @param fileName the name to store the file under
+     * @param directory the directory to store the file in
+     * @param maxBytes the most bytes accepted
+     * @return the stored file's path, size and SHA-256
+     */
+    @Override
+    public StoredFile storeStream(InputStream input, String fileName, String directory, long maxBytes) throws IOException {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        String extension = lastDotIndex > 0 ? fileName.substring(lastDotIndex + 1).toLowerCase() : "";
+        if (!isAllowedType(extension)) {
+            throw new IllegalArgumentException("File type not allowed: " + (extension.isEmpty() ? "(none)" : extension));
+        }
+        
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        
+        Path dir = Paths.get(uploadPath, directory);
+        Files.createDirectories(dir);
+        Path filePath = dir.resolve(fileName);
+        byte[] buffer = new byte[64 * 1024];
+        long written = 0;
+        boolean stored = false;
+        try (FileChannel target = FileChannel.open(filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            // Sniff the type before the first write
+            int read = input.readNBytes(buffer, 0, SIGNATURE_LENGTH);
+            byte[] signature = SIGNATURES.get(extension);
+            if (signature != null && (read < signature.length
+                    || !Arrays.equals(buffer, 0, signature.length, signature, 0, signature.length))) {
+                throw new IllegalArgumentException("File content is not a valid " + extension);
+            }
+            while (read > 0) {
+                if (written + read > maxBytes) {
+                    throw new IllegalArgumentException("File exceeds " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    target.write(chunk);
+                }
+                written += read;
+                read = input.read(buffer);
+            }
+            if (written == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            target.force(false);
+            stored = true;
+        } catch (FileAlreadyExistsException e) {
+            // Never overwrite, and never delete, a file this call did not create
+            stored = true;
+            throw new IllegalArgumentException("File already exists: " + fileName);
+        } finally {
+            if (!stored) {
+                Files.deleteIfExists(filePath);
+            }
+        }
+        return new StoredFile(filePath.toString(), written, HexFormat.of().formatHex(digest.digest()));
+    }
+    
+    /**
+     * Checks whether files with the given extension may be stored.
+     * 
+     * @param extension the file extension, without the dot
+     * @return true if the extension is one of upload.allowed-types
+     */
+    @Override
+    public boolean isAllowedType(String extension) {
+        for (String allowed : allowedTypes) {
+            if (allowed.trim().equalsIgnoreCase(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Writes a stream into a file at a given offset with positioned writes, then forces the
+     * data to disk so a recorded offset never points past durable bytes.
+     * 
+     * @param input the bytes to write, read to the end
+     * @param fileName the name of the file
+     * @param directory the directory of the file
+     * @param offset the position to write at
+     * @param maxBytes the most bytes accepted
+     * @return the number of bytes written
+     */
+    @Override
+    public long writeAt(InputStream input, String fileName, String directory, long offset, long maxBytes) throws IOException {
+        Path dir = Paths.get(uploadPath, directory);
+        Files.createDirectories(dir);
+        ReadableByteChannel source = Channels.newChannel(input);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long written = 0;
+        try (FileChannel target = FileChannel.open(dir.resolve(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (written + buffer.remaining() > maxBytes) {
+                    throw new IllegalArgumentException("Chunk exceeds " + maxBytes + " bytes");
+                }
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer, offset + written);
+                }
+                buffer.clear();
+            }
+            target.force(false);
+        }
+        return written;
+    }
+    
+    /**
+     * Moves a stored file into another directory, atomically where the file system allows.
+     * Repeating a move that already happened returns the same path.
+     * 
+     * @param fileName the name of the file to move
+     * @param fromDirectory the directory the file is in
+     * @param toDirectory the directory to move it to
+     * @param newFileName the name in the target directory
+     * @return the file path where the file is now stored
+     */
+    @Override
+    public String moveFile(String fileName, String fromDirectory, String toDirectory, String newFileName) {
+        try {
+            Path source = Paths.get(uploadPath, fromDirectory, fileName);
+            Path targetDir = Paths.get(uploadPath, toDirectory);
+            Files.createDirectories(targetDir);
+            Path target = targetDir.resolve(newFileName);
+            if (!Files.exists(source) && Files.exists(target)) {
+                // Moved by an earlier attempt
+                return target.toString();
+            }
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return target.toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to move file: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Checks whether a stored file exists.
+     * 
+     * @param fileName the name of the file
+     * @param directory the directory of the file
+     * @return true if the file exists
+     */
+    @Override
+    public boolean fileExists(String fileName, String directory) {
+        return Files.exists(Paths.get(uploadPath, directory, fileName));
+    }
 }
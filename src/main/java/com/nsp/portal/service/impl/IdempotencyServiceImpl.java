@@ -0,0 +1,178 @@
+package com.nsp.portal.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nsp.portal.service.IdempotencyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of IdempotencyService backed by a bounded, expiring in-memory store.
+ * 
+ * Each key, scoped to the user and the operation, maps to a fingerprint of the request (a
+ * SHA-256 of the operation and the serialised payload) and, once the first request succeeds,
+ * its response. A retry with the same key and fingerprint gets the stored response without
+ * the operation running again, so no repository or file storage is touched. A retry that
+ * arrives while the first request is still running gets 409, and a key reused for a different
+ * request gets 422. Responses other than 2xx are not stored: the operation made no change, so
+ * a retry runs it again.
+ * 
+ * Entries live for idempotency.ttl-seconds and the store holds at most idempotency.max-entries.
+ * The store is per node; across nodes the unique constraint on (student, scheme, academic year)
+ * guards submissions, a grant only changes an application still pending ministry approval, and
+ * a verification only changes an application still awaiting the institute, so a repeat on another
+ * node is refused with 400 rather than applied twice.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Value("${idempotency.max-entries:100000}")
+    private long maxEntries;
+    
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<String, Record> records;
+    
+    private Counter executedCounter;
+    
+    private Counter replayedCounter;
+    
+    private Counter inProgressCounter;
+    
+    private Counter mismatchCounter;
+    
+    /**
+     * Builds the store and registers its metrics.
+     */
+    @PostConstruct
+    public void init() {
+        records = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, records, "idempotency.records");
+        executedCounter = requestCounter("executed");
+        replayedCounter = requestCounter("replayed");
+        inProgressCounter = requestCounter("in-progress");
+        mismatchCounter = requestCounter("mismatch");
+    }
+    
+    /**
+     * Runs an operation at most once per key, replaying the stored response to retries.
+     * 
+     * @param key the Idempotency-Key header, or null
+     * @param userId the authenticated user's ID
+     * @param operation the operation name
+     * @param request the request payload the key is bound to
+     * @param action the operation to run
+     * @return the operation's response, the stored response, or an error response
+     */
+    @Override
+    public ResponseEntity<?> execute(String key, Long userId, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String recordKey = operation + '\n' + userId + '\n' + key;
+        Record record = new Record(fingerprint(operation, request));
+        Record existing = records.asMap().putIfAbsent(recordKey, record);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(record.fingerprint)) {
+                mismatchCounter.increment();
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(HEADER + " was already used for a different request");
+            }
+            ResponseEntity<?> stored = existing.response;
+            if (stored == null) {
+                inProgressCounter.increment();
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this " + HEADER + " is still being processed");
+            }
+            replayedCounter.increment();
+            return ResponseEntity.status(stored.getStatusCode())
+                .headers(stored.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.getBody());
+        }
+        
+        executedCounter.increment();
+        ResponseEntity<?> response = null;
+        try {
+            response = action.get();
+            return response;
+        } finally {
+            if (response != null && response.getStatusCode().is2xxSuccessful()) {
+                record.response = response;
+            } else {
+                records.asMap().remove(recordKey, record);
+            }
+        }
+    }
+    
+    private String fingerprint(String operation, Object request) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            payload = String.valueOf(request).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(payload));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private Counter requestCounter(String outcome) {
+        return Counter.builder("idempotency.requests")
+            .description("Requests carrying an Idempotency-Key by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Fingerprint of the first request with a key and, once it succeeded, its response.
+     */
+    private static final class Record {
+        
+        final String fingerprint;
+        volatile ResponseEntity<?> response;
+        
+        Record(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.nsp.portal.service.impl;
 
 import com.nsp.portal.dto.InstituteProfileUpdateRequest;
 import com.nsp.portal.dto.ApplicationVerificationRequest;
+import com.nsp.portal.dto.ResourceStamp;
 import com.nsp.portal.entity.InstituteProfile;
 import com.nsp.portal.entity.ScholarshipApplication;
 import com.nsp.portal.entity.StudentProfile;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -45,6 +47,9 @@ public class InstituteServiceImpl implements InstituteService {
     @Autowired
     private ScholarshipSchemeRepository schemeRepository;
     
+    @Autowired
+    private ResourceStampRegistry resourceStampRegistry;
+    
     /**
      * Gets the institute's profile information.
      * 
@@ -58,12 +63,24 @@ public class InstituteServiceImpl implements InstituteService {
             if (profile == null) {
                 return "Institute profile not found";
             }
+            resourceStampRegistry.recordInstituteProfile(profile);
             return profile;
         } catch (Exception e) {
             return "Error retrieving profile: " + e.getMessage();
         }
     }
     
+    /**
+     * Returns the institute profile stamp recorded by the last read, if still valid.
+     * 
+     * @param instituteId the institute's user ID
+     * @return the stamp, or null if unknown
+     */
+    @Override
+    public ResourceStamp getInstituteProfileStamp(Long instituteId) {
+        return resourceStampRegistry.instituteProfile(instituteId);
+    }
+    
     /**
      * Updates the institute's profile information.
      * 
@@ -136,8 +153,9 @@ public class InstituteServiceImpl implements InstituteService {
     @Override
     public Object getPendingApplications(Long instituteId) {
         try {
-            // Get applications that are pending and belong to students from this institute
-            List<ScholarshipApplication> pendingApplications = applicationRepository.findByStatus(ApplicationStatus.PENDING_INSTITUTE_VERIFICATION);
+            // Get applications that are pending and belong to students from this institute; past a scheme's
+            // deadline the queue is the one frozen at the deadline
+            List<ScholarshipApplication> pendingApplications = applicationRepository.findInstituteQueue(LocalDate.now());
             // TODO: Filter by institute - need to add institute relationship to applications
             return pendingApplications;
         } catch (Exception e) {
@@ -206,13 +224,18 @@ public class InstituteServiceImpl implements InstituteService {
             
             // TODO: Validate institute access - need to add institute relationship to applications
             
-            // Update application status
-            application.setStatus(ApplicationStatus.PENDING_STATE_VERIFICATION);
+            String refusal = queueRefusal(application);
+            if (refusal != null) {
+                return refusal;
+            }
+            
+            // Update application status, unless the closure job has closed it meanwhile
+            if (applicationRepository.decideAtInstitute(applicationId, ApplicationStatus.PENDING_STATE_VERIFICATION) == 0) {
+                return "Application is not awaiting institute verification";
+            }
             // TODO: Add institute verification fields to ScholarshipApplication entity
             
-            // Save the updated application
-            ScholarshipApplication savedApplication = applicationRepository.save(application);
-            return "Application verified successfully. Application ID: " + savedApplication.getId();
+            return "Application verified successfully. Application ID: " + applicationId;
             
         } catch (Exception e) {
             return "Error verifying application: " + e.getMessage();
@@ -238,13 +261,18 @@ public class InstituteServiceImpl implements InstituteService {
             
             // TODO: Validate institute access - need to add institute relationship to applications
             
-            // Update application status
-            application.setStatus(ApplicationStatus.REJECTED_BY_INSTITUTE);
+            String refusal = queueRefusal(application);
+            if (refusal != null) {
+                return refusal;
+            }
+            
+            // Update application status, unless the closure job has closed it meanwhile
+            if (applicationRepository.decideAtInstitute(applicationId, ApplicationStatus.REJECTED_BY_INSTITUTE) == 0) {
+                return "Application is not awaiting institute verification";
+            }
             // TODO: Add institute rejection fields to ScholarshipApplication entity
             
-            // Save the updated application
-            ScholarshipApplication savedApplication = applicationRepository.save(application);
-            return "Application rejected successfully. Application ID: " + savedApplication.getId();
+            return "Application rejected successfully. Application ID: " + applicationId;
             
         } catch (Exception e) {
             return "Error rejecting application: " + e.getMessage();
@@ -361,4 +389,23 @@ public class InstituteServiceImpl implements InstituteService {
             return "Error retrieving registration status: " + e.getMessage();
         }
     }
+    
+    /**
+     * Helper method to check that an application awaits an institute decision.
+     * Submitted applications are APPLIED (no documents, or submitted before documented ones were
+     * queued on submission) or PENDING_INSTITUTE_VERIFICATION. Past its scheme's deadline an
+     * application is only decided once the closure job has frozen it; until then it may still be
+     * closed as incomplete.
+     */
+    private String queueRefusal(ScholarshipApplication application) {
+        if (application.getStatus() != ApplicationStatus.APPLIED
+                && application.getStatus() != ApplicationStatus.PENDING_INSTITUTE_VERIFICATION) {
+            return "Application is not awaiting institute verification";
+        }
+        LocalDate deadline = application.getScheme().getApplicationEndDate();
+        if (application.getQueueFrozenOn() == null && deadline != null && deadline.isBefore(LocalDate.now())) {
+            return "Application is awaiting closure of its scheme after the deadline; try again once the queue is frozen";
+        }
+        return null;
+    }
 }
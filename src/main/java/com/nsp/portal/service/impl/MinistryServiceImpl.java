@@ -2,15 +2,27 @@ package com.nsp.portal.service.impl;
 
 import com.nsp.portal.entity.ScholarshipApplication;
 import com.nsp.portal.entity.InstituteProfile;
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.entity.ScholarshipSchemeVersion;
 import com.nsp.portal.enums.ApplicationStatus;
 import com.nsp.portal.repository.ScholarshipApplicationRepository;
 import com.nsp.portal.repository.InstituteProfileRepository;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.rule.EligibilityRuleException;
 import com.nsp.portal.service.MinistryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of MinistryService for ministry operations.
@@ -38,6 +50,24 @@ public class MinistryServiceImpl implements MinistryService {
     @Autowired
     private InstituteProfileRepository instituteProfileRepository;
     
+    @Autowired
+    private SchemeRuleEvaluator schemeRuleEvaluator;
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private StudentAttributeStore studentAttributeStore;
+    
+    @Autowired
+    private SchemeVersionRegistry schemeVersionRegistry;
+    
+    @Autowired
+    private SchemeBudgetLedger schemeBudgetLedger;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     /**
      * Gets applications pending ministry approval.
      * 
@@ -71,44 +101,59 @@ public class MinistryServiceImpl implements MinistryService {
     /**
      * Grants the scholarship to an approved application.
      * 
-     * TODO: DEVELOPER 5 - Implement this method:
-     * 1. Validate the application is in PENDING_MINISTRY_APPROVAL status
-     * 2. Update application status to GRANTED
-     * 3. Set ministry approval date and remarks
-     * 4. Save updated application
-     * 5. Return success response with grant details
+     * The amount is that of the scheme version the student applied under. The status change is
+     * conditional on the application still pending, so concurrent grants of one application
+     * cannot both succeed, and the amount is then reserved from the scheme budget as the last
+     * statement of the transaction; if the budget cannot cover it the grant is rolled back.
      * 
      * @param applicationId the application ID to grant
      * @param ministryOfficerId the ministry officer's user ID
-     * @param grantData the grant details
-     * @return grant result
+     * @param grantData the grant details, optionally with "remarks"
+     * @return grant details, or an error message
      */
     @Override
     public Object grantScholarship(Long applicationId, Long ministryOfficerId, Object grantData) {
-        // TODO: Implement scholarship grant logic
-        // 1. Validate application status
-        // 2. Update status and grant details
-        // 3. Save changes
-        // 4. Return response
-        
         try {
-            ScholarshipApplication application = applicationRepository.findById(applicationId).orElse(null);
-            if (application == null) {
-                return "Application not found";
-            }
-            
-            if (application.getStatus() != ApplicationStatus.PENDING_MINISTRY_APPROVAL) {
-                return "Application is not in pending ministry approval status";
-            }
-            
-            // TODO: Complete the implementation
-            // - Update status to GRANTED
-            // - Set ministry approval date and remarks
-            // - Save updated application
-            // - Return success response with grant details
-            
-            return "Scholarship grant - TODO: Complete implementation";
-            
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            return template.execute(status -> {
+                ScholarshipApplication application = applicationRepository.findById(applicationId).orElse(null);
+                if (application == null) {
+                    return "Application not found";
+                }
+                
+                if (application.getStatus() != ApplicationStatus.PENDING_MINISTRY_APPROVAL) {
+                    return "Application is not in pending ministry approval status";
+                }
+                
+                ScholarshipSchemeVersion version = application.getSchemeVersion() != null
+                    ? schemeVersionRegistry.getVersion(application.getSchemeVersion().getId())
+                    : null;
+                Long schemeId = application.getScheme().getId();
+                BigDecimal amount = version != null
+                    ? version.getScholarshipAmount()
+                    : application.getScheme().getScholarshipAmount();
+                String remarks = grantData instanceof Map
+                    ? Objects.toString(((Map<?, ?>) grantData).get("remarks"), null)
+                    : null;
+                LocalDate today = LocalDate.now();
+                
+                if (applicationRepository.markGranted(applicationId, amount, today, remarks) == 0) {
+                    return "Application is not in pending ministry approval status";
+                }
+                if (!schemeBudgetLedger.reserve(schemeId, amount)) {
+                    status.setRollbackOnly();
+                    return "Scheme budget cannot cover a grant of " + amount;
+                }
+                
+                Map<String, Object> grant = new LinkedHashMap<>();
+                grant.put("applicationId", applicationId);
+                grant.put("schemeId", schemeId);
+                grant.put("status", ApplicationStatus.GRANTED);
+                grant.put("grantedAmount", amount);
+                grant.put("ministryApprovalDate", today);
+                grant.put("grantedBy", ministryOfficerId);
+                return grant;
+            });
         } catch (Exception e) {
             return "Error granting scholarship: " + e.getMessage();
         }
@@ -235,4 +280,93 @@ public class MinistryServiceImpl implements MinistryService {
             return "Error approving institute registration: " + e.getMessage();
         }
     }
+    
+    /**
+     * Checks all applications of a scheme against the scheme's compiled eligibility rule.
+     * 
+     * @param schemeId the scheme ID
+     * @return summary of eligible and ineligible applications, or an error message
+     */
+    @Override
+    public Object checkSchemeEligibility(Long schemeId) {
+        try {
+            return schemeRuleEvaluator.evaluateApplications(schemeId);
+        } catch (EligibilityRuleException e) {
+            return "Invalid eligibility rule: " + e.getMessage();
+        } catch (Exception e) {
+            return "Error checking scheme eligibility: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Finds every registered student who qualifies for a scheme with a parallel scan of the
+     * in-memory student attribute store, applying the scheme's restrictions, income limit and
+     * compiled eligibility rule.
+     * 
+     * @param schemeId the scheme ID
+     * @param limit maximum number of student IDs to list
+     * @return eligible student count and IDs, or an error message
+     */
+    @Override
+    public Object findEligibleStudents(Long schemeId, int limit) {
+        try {
+            ScholarshipScheme scheme = scholarshipSchemeRepository.findById(schemeId).orElse(null);
+            if (scheme == null) {
+                return "Scheme not found";
+            }
+            
+            long start = System.nanoTime();
+            long[] eligible = studentAttributeStore.findEligible(scheme, schemeRuleEvaluator.ruleFor(scheme), LocalDate.now());
+            long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("schemeId", schemeId);
+            result.put("eligibleCount", eligible.length);
+            result.put("studentIds", Arrays.stream(eligible).limit(Math.max(0, limit)).boxed().toList());
+            result.put("tookMillis", tookMillis);
+            return result;
+        } catch (EligibilityRuleException e) {
+            return "Invalid eligibility rule: " + e.getMessage();
+        } catch (Exception e) {
+            return "Error finding eligible students: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Lists the immutable versions of a scheme's terms from the in-memory version registry.
+     * 
+     * @param schemeId the scheme ID
+     * @return versions ordered by version number, or an error message
+     */
+    @Override
+    public Object getSchemeVersions(Long schemeId) {
+        try {
+            List<ScholarshipSchemeVersion> versions = schemeVersionRegistry.versions(schemeId);
+            if (versions.isEmpty()) {
+                return "No versions found for scheme " + schemeId;
+            }
+            return versions;
+        } catch (Exception e) {
+            return "Error retrieving scheme versions: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Gets a scheme's budget from the database, with the amount in flight on this node.
+     * 
+     * @param schemeId the scheme ID
+     * @return budget summary, or an error message
+     */
+    @Override
+    public Object getSchemeBudget(Long schemeId) {
+        try {
+            Map<String, Object> budget = schemeBudgetLedger.describe(schemeId);
+            if (budget == null) {
+                return "Scheme not found";
+            }
+            return budget;
+        } catch (Exception e) {
+            return "Error retrieving scheme budget: " + e.getMessage();
+        }
+    }
 }
@@ -0,0 +1,288 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.repository.InstituteProfileRepository;
+import com.nsp.portal.repository.StudentProfileRepository;
+import com.nsp.portal.repository.UserRepository;
+import com.nsp.portal.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter prefilter for registration uniqueness checks.
+ * 
+ * Holds one filter each for email, mobile number, Aadhar number and institute code.
+ * The filters are built from the database once the application is ready and updated
+ * on every successful registration. When no field might exist, AuthServiceImpl skips
+ * the duplicate-check query entirely; the unique constraints still guard correctness
+ * if a value is missed (e.g. inserted by another node).
+ */
+@Component
+public class RegistrationPrefilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationPrefilter.class);
+    
+    @Value("${registration.prefilter.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${registration.prefilter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${registration.prefilter.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+    
+    @Autowired
+    private InstituteProfileRepository instituteProfileRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Null until the first build completes; all checks go to the database until then
+    private volatile Filters current;
+    
+    // Non-null while a rebuild is streaming, so concurrent registrations are not lost
+    private volatile Filters building;
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    
+    private Counter skippedCounter;
+    private Counter confirmedCounter;
+    private Counter falsePositiveCounter;
+    private Timer rebuildTimer;
+    
+    /**
+     * Registers the prefilter metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        skippedCounter = Counter.builder("registration.prefilter.checks")
+            .tag("result", "definite_miss")
+            .description("Registrations whose duplicate check was skipped by the prefilter")
+            .register(meterRegistry);
+        confirmedCounter = Counter.builder("registration.prefilter.checks")
+            .tag("result", "confirmed_duplicate")
+            .description("Possible hits confirmed as duplicates by the database")
+            .register(meterRegistry);
+        falsePositiveCounter = Counter.builder("registration.prefilter.checks")
+            .tag("result", "false_positive")
+            .description("Possible hits that turned out not to exist in the database")
+            .register(meterRegistry);
+        Gauge.builder("registration.prefilter.false-positive.rate", this, RegistrationPrefilter::observedFalsePositiveRate)
+            .description("Share of non-duplicate registrations that still hit the database")
+            .register(meterRegistry);
+        Gauge.builder("registration.prefilter.false-positive.expected", this, RegistrationPrefilter::expectedFalsePositiveProbability)
+            .description("Worst estimated false-positive probability across the filters")
+            .register(meterRegistry);
+        rebuildTimer = Timer.builder("registration.prefilter.rebuild")
+            .description("Time taken to rebuild the registration prefilter from the database")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Builds the filters once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Rebuilds all filters by streaming the unique columns from the database.
+     * Does nothing if a rebuild is already running.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long userCount = userRepository.count();
+            long capacity = Math.max(expectedInsertions, userCount * 2);
+            Filters next = new Filters(capacity, falsePositiveProbability);
+            building = next;
+            
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(next.emails::put);
+                }
+                try (Stream<String> mobileNumbers = userRepository.streamAllMobileNumbers()) {
+                    mobileNumbers.forEach(next.mobileNumbers::put);
+                }
+                try (Stream<String> aadharNumbers = studentProfileRepository.streamAllAadharNumbers()) {
+                    aadharNumbers.forEach(next.aadharNumbers::put);
+                }
+                try (Stream<String> instituteCodes = instituteProfileRepository.streamAllInstituteCodes()) {
+                    instituteCodes.forEach(next.instituteCodes::put);
+                }
+            });
+            
+            current = next;
+            long elapsed = System.nanoTime() - start;
+            rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Registration prefilter built for " + userCount + " users in " + (elapsed / 1_000_000) + " ms");
+        } catch (Exception e) {
+            logger.warn("Could not build registration prefilter: " + e.getMessage());
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+    
+    /**
+     * Checks whether a student signup might collide with an existing record.
+     * 
+     * @return false if none of the values can exist in the database
+     */
+    public boolean mightConflictStudent(String email, String aadharNumber, String mobileNumber) {
+        Filters filters = current;
+        boolean possible = filters == null
+            || filters.emails.mightContain(email)
+            || filters.aadharNumbers.mightContain(aadharNumber)
+            || filters.mobileNumbers.mightContain(mobileNumber);
+        if (!possible) {
+            skippedCounter.increment();
+        }
+        return possible;
+    }
+    
+    /**
+     * Checks whether an institute signup might collide with an existing record.
+     * 
+     * @return false if none of the values can exist in the database
+     */
+    public boolean mightConflictInstitute(String email, String instituteCode, String mobileNumber) {
+        Filters filters = current;
+        boolean possible = filters == null
+            || filters.emails.mightContain(email)
+            || filters.instituteCodes.mightContain(instituteCode)
+            || filters.mobileNumbers.mightContain(mobileNumber);
+        if (!possible) {
+            skippedCounter.increment();
+        }
+        return possible;
+    }
+    
+    /**
+     * Records the outcome of a database check made after a possible hit.
+     * 
+     * @param duplicate true if the database confirmed a duplicate
+     */
+    public void recordDatabaseCheck(boolean duplicate) {
+        if (current == null) {
+            return;
+        }
+        if (duplicate) {
+            confirmedCounter.increment();
+        } else {
+            falsePositiveCounter.increment();
+        }
+    }
+    
+    /**
+     * Adds the unique values of a newly registered student.
+     */
+    public void addStudent(String email, String aadharNumber, String mobileNumber) {
+        for (Filters filters : targets()) {
+            filters.emails.put(email);
+            filters.aadharNumbers.put(aadharNumber);
+            filters.mobileNumbers.put(mobileNumber);
+        }
+        rebuildIfSaturated();
+    }
+    
+    /**
+     * Adds the unique values of a newly registered institute.
+     */
+    public void addInstitute(String email, String instituteCode, String mobileNumber) {
+        for (Filters filters : targets()) {
+            filters.emails.put(email);
+            filters.instituteCodes.put(instituteCode);
+            filters.mobileNumbers.put(mobileNumber);
+        }
+        rebuildIfSaturated();
+    }
+    
+    private Filters[] targets() {
+        Filters live = current;
+        Filters pending = building;
+        if (live == null) {
+            return pending == null ? new Filters[0] : new Filters[] { pending };
+        }
+        return pending == null ? new Filters[] { live } : new Filters[] { live, pending };
+    }
+    
+    // A filter past its sized capacity degrades quickly; rebuild it larger in the background
+    private void rebuildIfSaturated() {
+        Filters filters = current;
+        if (filters != null && filters.isSaturated() && !rebuilding.get()) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+    
+    private double observedFalsePositiveRate() {
+        double falsePositives = falsePositiveCounter.count();
+        double negatives = falsePositives + skippedCounter.count();
+        return negatives == 0 ? 0.0 : falsePositives / negatives;
+    }
+    
+    private double expectedFalsePositiveProbability() {
+        Filters filters = current;
+        if (filters == null) {
+            return 1.0;
+        }
+        return Math.max(Math.max(filters.emails.expectedFalsePositiveProbability(),
+                                 filters.mobileNumbers.expectedFalsePositiveProbability()),
+                        Math.max(filters.aadharNumbers.expectedFalsePositiveProbability(),
+                                 filters.instituteCodes.expectedFalsePositiveProbability()));
+    }
+    
+    /**
+     * One generation of filters, swapped in atomically after a rebuild.
+     */
+    private static final class Filters {
+        final BloomFilter emails;
+        final BloomFilter mobileNumbers;
+        final BloomFilter aadharNumbers;
+        final BloomFilter instituteCodes;
+        
+        Filters(long capacity, double falsePositiveProbability) {
+            emails = new BloomFilter(capacity, falsePositiveProbability);
+            mobileNumbers = new BloomFilter(capacity, falsePositiveProbability);
+            aadharNumbers = new BloomFilter(capacity, falsePositiveProbability);
+            instituteCodes = new BloomFilter(capacity, falsePositiveProbability);
+        }
+        
+        boolean isSaturated() {
+            return emails.isSaturated() || mobileNumbers.isSaturated();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.nsp.portal.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nsp.portal.dto.ResourceStamp;
+import com.nsp.portal.entity.InstituteProfile;
+import com.nsp.portal.entity.StudentProfile;
+import com.nsp.portal.entity.User;
+import com.nsp.portal.event.InstituteProfileChangedEvent;
+import com.nsp.portal.event.StudentProfileChangedEvent;
+import com.nsp.portal.event.UserCredentialsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory registry of the ETag and Last-Modified stamps of profile resources.
+ * 
+ * A stamp is recorded whenever a profile is read and dropped as soon as a change to the
+ * profile (or to the owning user's credentials, which are part of the profile body) is
+ * committed, so a conditional GET can be answered with 304 without a repository call.
+ * The ETag is derived from the JPA version of the profile and the user's token version,
+ * never from the serialised body. Changes committed on another node are not seen here,
+ * so entries expire after http.etag.stamp-ttl-seconds, which bounds how long a stale
+ * stamp can be served.
+ */
+@Component
+public class ResourceStampRegistry {
+    
+    @Value("${http.etag.stamp-cache.max-size:100000}")
+    private long maxSize;
+    
+    @Value("${http.etag.stamp-ttl-seconds:30}")
+    private long ttlSeconds;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<Long, ResourceStamp> studentProfiles;
+    
+    private Cache<Long, ResourceStamp> instituteProfiles;
+    
+    /**
+     * Builds the stamp caches and registers their metrics.
+     */
+    @PostConstruct
+    public void initCaches() {
+        studentProfiles = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        instituteProfiles = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, studentProfiles, "http.etag.student-profiles");
+        CaffeineCacheMetrics.monitor(meterRegistry, instituteProfiles, "http.etag.institute-profiles");
+    }
+    
+    /**
+     * Returns the known stamp of a student profile.
+     * 
+     * @param studentId the student's user ID
+     * @return the stamp, or null if it has to be read from the database
+     */
+    public ResourceStamp studentProfile(Long studentId) {
+        return studentProfiles.getIfPresent(studentId);
+    }
+    
+    /**
+     * Records the stamp of a student profile that has just been read.
+     * 
+     * @param profile the loaded profile
+     * @return the stamp
+     */
+    public ResourceStamp recordStudentProfile(StudentProfile profile) {
+        ResourceStamp stamp = stamp("sp", profile.getId(), profile.getVersion(), profile.getUser(), profile.getUpdatedAt());
+        studentProfiles.put(profile.getId(), stamp);
+        return stamp;
+    }
+    
+    /**
+     * Returns the known stamp of an institute profile.
+     * 
+     * @param instituteId the institute's user ID
+     * @return the stamp, or null if it has to be read from the database
+     */
+    public ResourceStamp instituteProfile(Long instituteId) {
+        return instituteProfiles.getIfPresent(instituteId);
+    }
+    
+    /**
+     * Records the stamp of an institute profile that has just been read.
+     * 
+     * @param profile the loaded profile
+     * @return the stamp
+     */
+    public ResourceStamp recordInstituteProfile(InstituteProfile profile) {
+        ResourceStamp stamp = stamp("ip", profile.getId(), profile.getVersion(), profile.getUser(), profile.getUpdatedAt());
+        instituteProfiles.put(profile.getId(), stamp);
+        return stamp;
+    }
+    
+    /**
+     * Drops the stamp of a student profile once its change has been committed.
+     * 
+     * @param event the change event published by StudentProfileListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentProfileChanged(StudentProfileChangedEvent event) {
+        studentProfiles.invalidate(event.getStudentId());
+    }
+    
+    /**
+     * Drops the stamp of an institute profile once its change has been committed.
+     * 
+     * @param event the change event published by InstituteProfileListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInstituteProfileChanged(InstituteProfileChangedEvent event) {
+        instituteProfiles.invalidate(event.getInstituteId());
+    }
+    
+    /**
+     * Drops the profile stamps of a user whose credentials, embedded in the profile body, changed.
+     * 
+     * @param event the credentials changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCredentialsChanged(UserCredentialsChangedEvent event) {
+        studentProfiles.invalidate(event.getUserId());
+        instituteProfiles.invalidate(event.getUserId());
+    }
+    
+    private static ResourceStamp stamp(String kind, Long id, long version, User user, LocalDateTime updatedAt) {
+        int tokenVersion = user != null ? user.getTokenVersion() : 0;
+        String etag = "\"" + kind + "-" + id + "-" + version + "." + tokenVersion + "\"";
+        long lastModified = updatedAt != null
+            ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : -1;
+        return new ResourceStamp(etag, lastModified);
+    }
+}
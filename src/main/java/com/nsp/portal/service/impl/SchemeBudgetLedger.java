@@ -0,0 +1,298 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.event.SchemeCatalogChangedEvent;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reserves scholarship grants against per-scheme budgets.
+ * 
+ * The database is the authority: a reservation is one conditional UPDATE that adds the amount
+ * to the scheme's allocation only while it stays within the budget, so parallel grants on any
+ * number of nodes can never overspend and no scheme row is read and locked for a check. The
+ * UPDATE still holds the row until commit, so callers reserve as the last statement of their
+ * transaction.
+ * 
+ * In front of it every budgeted scheme has striped in-memory counters (LongAdder) of the amount
+ * committed and the amount in flight on this node. A grant that cannot fit the committed total
+ * is refused from the counters without a database round trip, so an exhausted scheme does not
+ * turn a grant rush into a queue of doomed updates. The counters may lag grants made on other
+ * nodes but never run ahead of the database, so they never refuse a grant it would accept.
+ * They are rebuilt from the database periodically, after a scheme change and after the
+ * database refuses a reservation.
+ * 
+ * A reservation joins the caller's transaction: it disappears if the transaction rolls back and
+ * is counted as committed only once the transaction commits.
+ */
+@Component
+public class SchemeBudgetLedger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemeBudgetLedger.class);
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Budgeted schemes only; a budget is replaced, never reset, when reloaded
+    private final ConcurrentMap<Long, Budget> budgets = new ConcurrentHashMap<>();
+    
+    // Guarded by this
+    private final Map<Long, Gauge> headroomGauges = new HashMap<>();
+    
+    private Counter reservedCounter;
+    
+    private Counter refusedLocallyCounter;
+    
+    private Counter refusedByDatabaseCounter;
+    
+    /**
+     * Registers the ledger metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("scheme.budget.headroom.total", budgets, SchemeBudgetLedger::totalHeadroom)
+            .description("Unallocated budget across all budgeted schemes")
+            .baseUnit("INR")
+            .register(meterRegistry);
+        Gauge.builder("scheme.budget.schemes", budgets, Map::size)
+            .description("Schemes with a budget")
+            .register(meterRegistry);
+        reservedCounter = reservationCounter("reserved");
+        refusedLocallyCounter = reservationCounter("refused-local");
+        refusedByDatabaseCounter = reservationCounter("refused-database");
+    }
+    
+    /**
+     * Loads the budgets once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            resync();
+        } catch (Exception e) {
+            logger.warn("Could not load scheme budgets at startup: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Periodically reloads the budgets to pick up grants made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${scheme.budget.resync-interval-ms:30000}",
+               initialDelayString = "${scheme.budget.resync-interval-ms:30000}")
+    public void scheduledResync() {
+        try {
+            resync();
+        } catch (Exception e) {
+            logger.warn("Could not resync scheme budgets: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reloads a scheme's budget after its change has been committed.
+     * 
+     * @param event the change event published by ScholarshipSchemeListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchemeCatalogChanged(SchemeCatalogChangedEvent event) {
+        if (event.getSchemeId() == null) {
+            return;
+        }
+        try {
+            reload(event.getSchemeId());
+        } catch (Exception e) {
+            logger.warn("Could not reload budget of scheme " + event.getSchemeId() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reloads the budgets of all schemes.
+     */
+    public synchronized void resync() {
+        Set<Long> budgeted = new HashSet<>();
+        for (Object[] row : scholarshipSchemeRepository.findBudgets()) {
+            Long schemeId = (Long) row[0];
+            budgeted.add(schemeId);
+            put(schemeId, (BigDecimal) row[1], (BigDecimal) row[2]);
+        }
+        for (Long schemeId : new ArrayList<>(budgets.keySet())) {
+            if (!budgeted.contains(schemeId)) {
+                remove(schemeId);
+            }
+        }
+    }
+    
+    /**
+     * Reserves an amount from a scheme's budget as part of the caller's transaction.
+     * Schemes without a budget always succeed; their allocation is still recorded.
+     * 
+     * @param schemeId the scheme ID
+     * @param amount the amount to reserve
+     * @return true if the amount was reserved, false if the budget cannot cover it
+     * @throws IllegalStateException if no transaction is active
+     */
+    public boolean reserve(Long schemeId, BigDecimal amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Budget reservations must be made inside a transaction");
+        }
+        long minor = toMinor(amount);
+        Budget budget = budgets.get(schemeId);
+        if (budget != null && budget.committed.sum() + minor > budget.total) {
+            refusedLocallyCounter.increment();
+            return false;
+        }
+        
+        if (budget != null) {
+            budget.inFlight.add(minor);
+        }
+        boolean reserved = false;
+        try {
+            reserved = scholarshipSchemeRepository.reserveBudget(schemeId, amount) == 1;
+        } finally {
+            if (!reserved && budget != null) {
+                budget.inFlight.add(-minor);
+            }
+        }
+        if (!reserved) {
+            refusedByDatabaseCounter.increment();
+            // The counters were behind grants made elsewhere
+            reload(schemeId);
+            return false;
+        }
+        
+        reservedCounter.increment();
+        if (budget != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    budget.inFlight.add(-minor);
+                    if (status == STATUS_COMMITTED) {
+                        budget.committed.add(minor);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+    
+    /**
+     * Describes a scheme's budget as currently stored.
+     * 
+     * @param schemeId the scheme ID
+     * @return total budget, allocated amount, headroom and amount in flight on this node,
+     *         or null if the scheme does not exist
+     */
+    public Map<String, Object> describe(Long schemeId) {
+        List<Object[]> rows = scholarshipSchemeRepository.findBudget(schemeId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        BigDecimal total = (BigDecimal) rows.get(0)[0];
+        BigDecimal allocated = (BigDecimal) rows.get(0)[1];
+        Budget budget = budgets.get(schemeId);
+        
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("schemeId", schemeId);
+        description.put("totalBudget", total);
+        description.put("allocatedAmount", allocated);
+        description.put("headroom", total != null ? total.subtract(allocated) : null);
+        description.put("inFlight", budget != null ? BigDecimal.valueOf(budget.inFlight.sum(), 2) : BigDecimal.ZERO);
+        return description;
+    }
+    
+    private synchronized void reload(Long schemeId) {
+        List<Object[]> rows = scholarshipSchemeRepository.findBudget(schemeId);
+        if (rows.isEmpty() || rows.get(0)[0] == null) {
+            remove(schemeId);
+        } else {
+            put(schemeId, (BigDecimal) rows.get(0)[0], (BigDecimal) rows.get(0)[1]);
+        }
+    }
+    
+    // Caller holds the monitor
+    private void put(Long schemeId, BigDecimal total, BigDecimal allocated) {
+        // A fresh budget, so commits still pending against the old one cannot be counted twice
+        budgets.put(schemeId, new Budget(toMinor(total), toMinor(allocated)));
+        headroomGauges.computeIfAbsent(schemeId, id ->
+            Gauge.builder("scheme.budget.headroom", budgets, current -> headroom(current.get(id)))
+                .description("Unallocated budget of a scheme")
+                .baseUnit("INR")
+                .tag("scheme", String.valueOf(id))
+                .register(meterRegistry));
+    }
+    
+    // Caller holds the monitor
+    private void remove(Long schemeId) {
+        budgets.remove(schemeId);
+        Gauge gauge = headroomGauges.remove(schemeId);
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+    
+    private Counter reservationCounter(String outcome) {
+        return Counter.builder("scheme.budget.reservations")
+            .description("Grant budget reservations by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+    
+    private static double headroom(Budget budget) {
+        return budget == null ? Double.NaN : (budget.total - budget.committed.sum()) / 100.0;
+    }
+    
+    private static double totalHeadroom(Map<Long, Budget> budgets) {
+        double total = 0;
+        for (Budget budget : budgets.values()) {
+            total += headroom(budget);
+        }
+        return total;
+    }
+    
+    // Amounts are counted in paise
+    private static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    /**
+     * In-memory view of one scheme's budget, in paise.
+     */
+    private static final class Budget {
+        
+        final long total;
+        final LongAdder committed = new LongAdder();
+        final LongAdder inFlight = new LongAdder();
+        
+        Budget(long total, long allocated) {
+            this.total = total;
+            this.committed.add(allocated);
+        }
+    }
+}
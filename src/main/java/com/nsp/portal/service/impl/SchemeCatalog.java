@@ -0,0 +1,366 @@
+package com.nsp.portal.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.event.SchemeCatalogChangedEvent;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable in-memory snapshot of the active scholarship schemes, indexed by application window.
+ * 
+ * The distinct window boundaries (start dates and the day after each end date) split the
+ * calendar into segments in which the set of open schemes does not change. The snapshot keeps
+ * each scheme's JSON, serialised once at build time, and a bitset of the open schemes per
+ * segment, so "open on a date" is a binary search and the hot path does no entity loading or
+ * Jackson work. The JSON array of a segment and its strong ETag are assembled only when a date
+ * in it is requested and cached for that day, so a rebuild costs one serialisation per scheme
+ * rather than one per scheme per segment. The ETag is hashed from the body, so it is identical
+ * on every node serving the same schemes and conditional requests are answered without
+ * touching the body. Crossing a window boundary just selects another segment; the snapshot
+ * itself is only rebuilt when schemes change (SchemeCatalogChangedEvent) or on the periodic
+ * refresh, which picks up rows written outside this node. Rebuilds replace the snapshot
+ * copy-on-write, so readers never block.
+ */
+@Component
+public class SchemeCatalog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemeCatalog.class);
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Null until the first build; the first reader builds it synchronously
+    private volatile Snapshot snapshot;
+    
+    // Segment last served with its assembled JSON, so requests on the same day reuse it
+    private volatile DayEntry today;
+    
+    private long version;
+    
+    private Timer rebuildTimer;
+    
+    /**
+     * Registers the catalog metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        rebuildTimer = Timer.builder("scheme.catalog.rebuild")
+            .description("Time taken to rebuild the scheme catalog snapshot")
+            .register(meterRegistry);
+        Gauge.builder("scheme.catalog.schemes", this, catalog -> catalog.snapshot == null ? 0 : catalog.snapshot.schemeCount)
+            .description("Active schemes held in the catalog snapshot")
+            .register(meterRegistry);
+        Gauge.builder("scheme.catalog.segments", this, catalog -> catalog.snapshot == null ? 0 : catalog.snapshot.segmentBits.length)
+            .description("Date segments in the catalog interval index")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Builds the first snapshot once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Could not build scheme catalog at startup: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Rebuilds the snapshot after a scheme change has been committed.
+     * 
+     * @param event the change event published by ScholarshipSchemeListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchemeCatalogChanged(SchemeCatalogChangedEvent event) {
+        refresh();
+    }
+    
+    /**
+     * Periodically rebuilds the snapshot to pick up changes made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${scheme.catalog.refresh-interval-ms:300000}",
+               initialDelayString = "${scheme.catalog.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Could not refresh scheme catalog, keeping previous snapshot: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Loads the active schemes and swaps in a new snapshot.
+     */
+    public synchronized void refresh() {
+        long start = System.nanoTime();
+        Snapshot next = build(++version, scholarshipSchemeRepository.findByIsActiveTrue());
+        snapshot = next;
+        rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.debug("Scheme catalog v" + next.version + " built with " + next.schemeCount
+            + " schemes in " + next.segmentBits.length + " segments");
+    }
+    
+    /**
+     * Returns the schemes whose application window contains the given date.
+     * 
+     * @param date the date to look up
+     * @return unmodifiable list of open schemes (detached entities)
+     */
+    public List<ScholarshipScheme> openSchemes(LocalDate date) {
+        Snapshot current = current();
+        BitSet open = current.segmentBits[current.segmentOf(date)];
+        List<ScholarshipScheme> schemes = new ArrayList<>(open.cardinality());
+        for (int i = open.nextSetBit(0); i >= 0; i = open.nextSetBit(i + 1)) {
+            schemes.add(current.schemes.get(i));
+        }
+        return List.copyOf(schemes);
+    }
+    
+    /**
+     * Returns the JSON array of the schemes open on the given date, assembled from the
+     * pre-serialised schemes on first use. The returned array is shared and must not be modified.
+     * 
+     * @param date the date to look up
+     * @return UTF-8 JSON array bytes
+     */
+    public byte[] openSchemesJson(LocalDate date) {
+        Snapshot current = current();
+        DayEntry entry = today;
+        if (entry != null && entry.snapshot == current && entry.date.equals(date)) {
+            return entry.json;
+        }
+        return resolveDay(current, date).json;
+    }
+    
+    /**
+     * Returns the strong ETag of the JSON array served by openSchemesJson for the given date.
+     * 
+     * @param date the date to look up
+     * @return the quoted ETag
+     */
+    public String openSchemesEtag(LocalDate date) {
+        Snapshot current = current();
+        DayEntry entry = today;
+        if (entry != null && entry.snapshot == current && entry.date.equals(date)) {
+            return entry.etag;
+        }
+        return resolveDay(current, date).etag;
+    }
+    
+    /**
+     * Returns the pre-serialised JSON array of the open schemes a student is eligible for.
+     * The open-window bitset of the date is AND-ed with the eligibility index match and the
+     * matching schemes' JSON is concatenated, so no entity is loaded or serialised.
+     * 
+     * @param date the date to look up
+     * @param criteria the student's eligibility attributes
+     * @return UTF-8 JSON array bytes
+     */
+    public byte[] eligibleSchemesJson(LocalDate date, EligibilityIndex.Criteria criteria) {
+        Snapshot current = current();
+        BitSet matches = current.eligibility.match(criteria);
+        matches.and(current.segmentBits[current.segmentOf(date)]);
+        return current.json(matches);
+    }
+    
+    /**
+     * Returns the version of the current snapshot, incremented on every rebuild.
+     * 
+     * @return the snapshot version
+     */
+    public long getVersion() {
+        return current().version;
+    }
+    
+    // Reuses the last assembled body while the date stays in its segment; racing callers build identical copies
+    private DayEntry resolveDay(Snapshot current, LocalDate date) {
+        int segment = current.segmentOf(date);
+        DayEntry previous = today;
+        DayEntry entry;
+        if (previous != null && previous.snapshot == current && previous.segment == segment) {
+            entry = new DayEntry(current, date, segment, previous.json, previous.etag);
+        } else {
+            byte[] json = current.json(current.segmentBits[segment]);
+            entry = new DayEntry(current, date, segment, json, etag(json));
+        }
+        today = entry;
+        return entry;
+    }
+    
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+    
+    private Snapshot build(long version, List<ScholarshipScheme> schemes) {
+        // Window [start, end] is stored half-open as [start, end + 1); null bounds are unbounded
+        TreeSet<LocalDate> boundarySet = new TreeSet<>();
+        for (ScholarshipScheme scheme : schemes) {
+            if (scheme.getApplicationStartDate() != null) {
+                boundarySet.add(scheme.getApplicationStartDate());
+            }
+            LocalDate endExclusive = endExclusive(scheme);
+            if (endExclusive != null) {
+                boundarySet.add(endExclusive);
+            }
+        }
+        LocalDate[] boundaries = boundarySet.toArray(new LocalDate[0]);
+        
+        byte[][] schemeJson = new byte[schemes.size()][];
+        for (int i = 0; i < schemes.size(); i++) {
+            schemeJson[i] = serialize(schemes.get(i));
+        }
+        
+        // Segment 0 precedes the first boundary; segment k starts at boundaries[k - 1]
+        int segmentCount = boundaries.length + 1;
+        BitSet[] segmentBits = new BitSet[segmentCount];
+        for (int k = 0; k < segmentCount; k++) {
+            LocalDate segmentStart = k == 0 ? null : boundaries[k - 1];
+            BitSet bits = new BitSet(schemes.size());
+            for (int i = 0; i < schemes.size(); i++) {
+                if (isOpen(schemes.get(i), segmentStart)) {
+                    bits.set(i);
+                }
+            }
+            segmentBits[k] = bits;
+        }
+        return new Snapshot(version, List.copyOf(schemes), boundaries, segmentBits, schemeJson,
+                            new EligibilityIndex(schemes));
+    }
+    
+    // segmentStart == null stands for "before every boundary", where only unbounded starts are open
+    private static boolean isOpen(ScholarshipScheme scheme, LocalDate segmentStart) {
+        LocalDate start = scheme.getApplicationStartDate();
+        if (segmentStart == null) {
+            return start == null;
+        }
+        LocalDate endExclusive = endExclusive(scheme);
+        return (start == null || !start.isAfter(segmentStart))
+            && (endExclusive == null || endExclusive.isAfter(segmentStart));
+    }
+    
+    private static LocalDate endExclusive(ScholarshipScheme scheme) {
+        LocalDate end = scheme.getApplicationEndDate();
+        return end == null || end.equals(LocalDate.MAX) ? null : end.plusDays(1);
+    }
+    
+    // First 128 bits of the SHA-256 of the body
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"sc-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private byte[] serialize(ScholarshipScheme scheme) {
+        try {
+            return objectMapper.writeValueAsBytes(scheme);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise scheme " + scheme.getId(), e);
+        }
+    }
+    
+    /**
+     * Immutable catalog state, swapped atomically on rebuild.
+     */
+    private static final class Snapshot {
+        
+        final long version;
+        final int schemeCount;
+        final List<ScholarshipScheme> schemes;
+        final LocalDate[] boundaries;
+        final BitSet[] segmentBits;
+        final byte[][] schemeJson;
+        final EligibilityIndex eligibility;
+        
+        Snapshot(long version, List<ScholarshipScheme> schemes, LocalDate[] boundaries, BitSet[] segmentBits,
+                 byte[][] schemeJson, EligibilityIndex eligibility) {
+            this.version = version;
+            this.schemeCount = schemes.size();
+            this.schemes = schemes;
+            this.boundaries = boundaries;
+            this.segmentBits = segmentBits;
+            this.schemeJson = schemeJson;
+            this.eligibility = eligibility;
+        }
+        
+        int segmentOf(LocalDate date) {
+            int index = Arrays.binarySearch(boundaries, date);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+        
+        // JSON array of the selected schemes, concatenated from their pre-serialised bytes
+        byte[] json(BitSet selected) {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            json.write('[');
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                if (json.size() > 1) {
+                    json.write(',');
+                }
+                json.writeBytes(schemeJson[i]);
+            }
+            json.write(']');
+            return json.toByteArray();
+        }
+    }
+    
+    /**
+     * Last date served, its segment and the segment's assembled JSON, tied to the snapshot it
+     * was resolved against.
+     */
+    private static final class DayEntry {
+        
+        final Snapshot snapshot;
+        final LocalDate date;
+        final int segment;
+        final byte[] json;
+        final String etag;
+        
+        DayEntry(Snapshot snapshot, LocalDate date, int segment, byte[] json, String etag) {
+            this.snapshot = snapshot;
+            this.date = date;
+            this.segment = segment;
+            this.json = json;
+            this.etag = etag;
+        }
+    }
+}
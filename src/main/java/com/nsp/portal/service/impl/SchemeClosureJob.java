@@ -0,0 +1,279 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.entity.SchemeClosureCheckpoint;
+import com.nsp.portal.enums.ApplicationStatus;
+import com.nsp.portal.enums.ClosurePhase;
+import com.nsp.portal.repository.ScholarshipApplicationRepository;
+import com.nsp.portal.repository.SchemeClosureCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Closes schemes once their application deadline has passed.
+ * 
+ * For every scheme whose applicationEndDate is before today the job closes applications still
+ * in APPLIED that have no documents and forwards the documented ones to the institute queue
+ * (applications submitted before submission set that status), closes applications waiting for
+ * the institute that have no documents, and freezes the rest of the institute queue
+ * (queueFrozenOn), so the queue institutes verify is the one that existed at the deadline.
+ * 
+ * Each phase walks the scheme's applications in ID order in chunks of scheme.closure.chunk-size.
+ * A chunk is one short transaction: a keyset read of the next IDs, one set-based UPDATE of
+ * those IDs that re-checks the status, and an update of the scheme's checkpoint. Rows are never
+ * loaded as entities and no lock is held between chunks, which are spaced by
+ * scheme.closure.chunk-pause-ms so interactive writes interleave. A crash loses at most the
+ * chunk in flight; the next run resumes from the checkpoint, and because every UPDATE re-checks
+ * the status, repeating a chunk is harmless.
+ * 
+ * Runs on every node. A lease on the checkpoint, extended with each chunk, makes sure only one
+ * node closes a scheme at a time; a lease left by a crashed node expires and is taken over.
+ */
+@Component
+public class SchemeClosureJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemeClosureJob.class);
+    
+    @Value("${scheme.closure.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${scheme.closure.chunk-pause-ms:50}")
+    private long chunkPauseMillis;
+    
+    @Value("${scheme.closure.lease-seconds:300}")
+    private long leaseSeconds;
+    
+    @Autowired
+    private ScholarshipApplicationRepository applicationRepository;
+    
+    @Autowired
+    private SchemeClosureCheckpointRepository checkpointRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Identifies this node as lease owner
+    private final String owner = UUID.randomUUID().toString();
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    private Counter closedCounter;
+    
+    private Counter frozenCounter;
+    
+    private Timer chunkTimer;
+    
+    /**
+     * Registers the job metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        closedCounter = Counter.builder("scheme.closure.applications")
+            .description("Applications changed by the scheme deadline closure job")
+            .tag("action", "closed")
+            .register(meterRegistry);
+        frozenCounter = Counter.builder("scheme.closure.applications")
+            .description("Applications changed by the scheme deadline closure job")
+            .tag("action", "frozen")
+            .register(meterRegistry);
+        chunkTimer = Timer.builder("scheme.closure.chunk")
+            .description("Time taken to process one chunk of the scheme deadline closure job")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Periodically closes every scheme past its deadline, resuming interrupted closures.
+     */
+    @Scheduled(fixedDelayString = "${scheme.closure.interval-ms:3600000}",
+               initialDelayString = "${scheme.closure.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (Exception e) {
+            logger.warn("Scheme closure run failed, will resume from its checkpoints: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Closes every scheme whose application deadline has passed.
+     * 
+     * @return number of schemes fully closed by this run
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int completed = 0;
+            for (Object[] due : checkpointRepository.findSchemesDueForClosure(LocalDate.now())) {
+                if (close((Long) due[0], (LocalDate) due[1])) {
+                    completed++;
+                }
+            }
+            return completed;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Closes one scheme for one deadline, resuming from its checkpoint.
+     * 
+     * @param schemeId the scheme ID
+     * @param closingDate the application end date being closed
+     * @return true if the closure completed, false if another node holds it or it was interrupted
+     */
+    public boolean close(Long schemeId, LocalDate closingDate) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        
+        Long checkpointId = checkpoint(template, schemeId, closingDate).getId();
+        // Re-read once the lease is ours, as another node may have advanced the checkpoint meanwhile
+        SchemeClosureCheckpoint checkpoint = template.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (checkpointRepository.claim(checkpointId, owner, now, now.plusSeconds(leaseSeconds)) == 0) {
+                return null;
+            }
+            return checkpointRepository.findById(checkpointId).orElse(null);
+        });
+        if (checkpoint == null) {
+            return false;
+        }
+        
+        ClosurePhase phase = checkpoint.getPhase();
+        long lastApplicationId = checkpoint.getLastApplicationId();
+        if (phase != ClosurePhase.CLOSE_APPLIED || lastApplicationId > 0) {
+            logger.info("Resuming closure of scheme " + schemeId + " at " + phase + " after application " + lastApplicationId);
+        }
+        try {
+            while (phase != ClosurePhase.COMPLETED) {
+                Chunk chunk = processChunk(template, checkpointId, schemeId, closingDate, phase, lastApplicationId);
+                if (chunk == null) {
+                    logger.warn("Lost the closure lease of scheme " + schemeId + ", leaving it to the other node");
+                    return false;
+                }
+                closedCounter.increment(chunk.closed);
+                frozenCounter.increment(chunk.frozen);
+                phase = chunk.phase;
+                lastApplicationId = chunk.lastApplicationId;
+                if (phase != ClosurePhase.COMPLETED && chunkPauseMillis > 0) {
+                    Thread.sleep(chunkPauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            template.executeWithoutResult(status -> checkpointRepository.release(checkpointId, owner));
+            return false;
+        }
+        
+        SchemeClosureCheckpoint done = checkpointRepository.findById(checkpointId).orElse(checkpoint);
+        logger.info("Closed scheme " + schemeId + " for deadline " + closingDate + ": " + done.getClosedCount()
+            + " applications closed, " + done.getFrozenCount() + " frozen in the institute queue");
+        return true;
+    }
+    
+    // Finds or creates the checkpoint; a concurrent insert by another node is picked up instead
+    private SchemeClosureCheckpoint checkpoint(TransactionTemplate template, Long schemeId, LocalDate closingDate) {
+        try {
+            return template.execute(status -> checkpointRepository.findBySchemeIdAndClosingDate(schemeId, closingDate)
+                .orElseGet(() -> checkpointRepository.save(new SchemeClosureCheckpoint(schemeId, closingDate))));
+        } catch (DataIntegrityViolationException e) {
+            return template.execute(status -> checkpointRepository.findBySchemeIdAndClosingDate(schemeId, closingDate)
+                .orElseThrow(() -> e));
+        }
+    }
+    
+    // One transaction: next IDs, one UPDATE, checkpoint; returns null if the lease was lost
+    private Chunk processChunk(TransactionTemplate template, Long checkpointId, Long schemeId, LocalDate closingDate,
+                               ClosurePhase phase, long afterId) {
+        return chunkTimer.record(() -> template.execute(status -> {
+            PageRequest page = PageRequest.of(0, chunkSize);
+            List<Long> ids;
+            switch (phase) {
+                case CLOSE_APPLIED:
+                    ids = applicationRepository.findIdsBySchemeAndStatusAfter(schemeId, ApplicationStatus.APPLIED, afterId, page);
+                    break;
+                case CLOSE_UNDOCUMENTED:
+                    ids = applicationRepository.findUndocumentedIdsBySchemeAndStatusAfter(schemeId,
+                        ApplicationStatus.PENDING_INSTITUTE_VERIFICATION, afterId, page);
+                    break;
+                default:
+                    ids = applicationRepository.findIdsBySchemeAndStatusAfter(schemeId,
+                        ApplicationStatus.PENDING_INSTITUTE_VERIFICATION, afterId, page);
+                    break;
+            }
+            
+            int closed = 0;
+            int frozen = 0;
+            if (!ids.isEmpty()) {
+                switch (phase) {
+                    case CLOSE_APPLIED:
+                        closed = applicationRepository.transitionUndocumented(ids, ApplicationStatus.APPLIED,
+                            ApplicationStatus.CLOSED_INCOMPLETE);
+                        // What is left has documents and belongs in the queue frozen next
+                        applicationRepository.transitionStatus(ids, ApplicationStatus.APPLIED,
+                            ApplicationStatus.PENDING_INSTITUTE_VERIFICATION);
+                        break;
+                    case CLOSE_UNDOCUMENTED:
+                        closed = applicationRepository.transitionStatus(ids, ApplicationStatus.PENDING_INSTITUTE_VERIFICATION,
+                            ApplicationStatus.CLOSED_INCOMPLETE);
+                        break;
+                    default:
+                        frozen = applicationRepository.freezeQueued(ids, closingDate);
+                        break;
+                }
+            }
+            
+            // A short chunk is the last one of its phase
+            boolean phaseDone = ids.size() < chunkSize;
+            ClosurePhase nextPhase = phaseDone ? ClosurePhase.values()[phase.ordinal() + 1] : phase;
+            long nextAfterId = phaseDone ? 0 : ids.get(ids.size() - 1);
+            LocalDateTime now = LocalDateTime.now();
+            if (checkpointRepository.advance(checkpointId, owner, nextPhase, nextAfterId, closed, frozen, now,
+                    now.plusSeconds(leaseSeconds), nextPhase == ClosurePhase.COMPLETED ? now : null) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            return new Chunk(nextPhase, nextAfterId, closed, frozen);
+        }));
+    }
+    
+    /**
+     * Position reached after a committed chunk.
+     */
+    private static final class Chunk {
+        
+        final ClosurePhase phase;
+        final long lastApplicationId;
+        final int closed;
+        final int frozen;
+        
+        Chunk(ClosurePhase phase, long lastApplicationId, int closed, int frozen) {
+            this.phase = phase;
+            this.lastApplicationId = lastApplicationId;
+            this.closed = closed;
+            this.frozen = frozen;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.nsp.portal.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nsp.portal.entity.ScholarshipApplication;
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.entity.ScholarshipSchemeVersion;
+import com.nsp.portal.entity.StudentProfile;
+import com.nsp.portal.repository.ScholarshipApplicationRepository;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.rule.EligibilityFacts;
+import com.nsp.portal.rule.EligibilityRule;
+import com.nsp.portal.rule.EligibilityRuleCompiler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Evaluates the compiled eligibility rules of scholarship schemes.
+ * 
+ * Compiled rules are cached by their source text, so each version of a scheme's rule is
+ * compiled once no matter how many schemes or nodes share it. Batch checks stream a scheme's
+ * applications through one reused EligibilityFacts and detach each row once evaluated, so
+ * memory stays flat for large schemes. An application pinned to a scheme version is checked
+ * against that version's rule, taken from SchemeVersionRegistry without a database read.
+ */
+@Component
+public class SchemeRuleEvaluator {
+    
+    @Value("${scheme.rules.cache.max-size:1000}")
+    private long cacheMaxSize;
+    
+    @Value("${scheme.rules.batch.max-listed-ineligible:1000}")
+    private int maxListedIneligible;
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private ScholarshipApplicationRepository applicationRepository;
+    
+    @Autowired
+    private SchemeVersionRegistry schemeVersionRegistry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<String, EligibilityRule> compiledRules;
+    
+    private Timer batchTimer;
+    
+    /**
+     * Builds the compiled rule cache and registers its metrics.
+     */
+    @PostConstruct
+    public void initCache() {
+        compiledRules = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, compiledRules, "scheme.rules.compiled");
+        batchTimer = Timer.builder("scheme.rules.batch")
+            .description("Time taken to check all applications of a scheme against its rule")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Returns the compiled rule of a scheme.
+     * 
+     * @param scheme the scheme
+     * @return the compiled rule, or null if the scheme has no rule
+     * @throws com.nsp.portal.rule.EligibilityRuleException if the stored rule is malformed
+     */
+    public EligibilityRule ruleFor(ScholarshipScheme scheme) {
+        return ruleFor(scheme.getEligibilityRule());
+    }
+    
+    /**
+     * Returns the rule an application is judged by: that of the version it was submitted
+     * under, or the scheme's current rule for applications older than versioning.
+     * 
+     * @param scheme the scheme
+     * @param application the application, or null
+     * @return the compiled rule, or null if there is no rule
+     * @throws com.nsp.portal.rule.EligibilityRuleException if the stored rule is malformed
+     */
+    public EligibilityRule ruleFor(ScholarshipScheme scheme, ScholarshipApplication application) {
+        ScholarshipSchemeVersion version = application != null && application.getSchemeVersion() != null
+            ? schemeVersionRegistry.getVersion(application.getSchemeVersion().getId())
+            : null;
+        return version != null ? ruleFor(version.getEligibilityRule()) : ruleFor(scheme);
+    }
+    
+    private EligibilityRule ruleFor(String source) {
+        if (source == null || source.isBlank()) {
+            return null;
+        }
+        return compiledRules.get(source, EligibilityRuleCompiler::compile);
+    }
+    
+    /**
+     * Checks one student, and optionally one application, against a scheme's rule.
+     * 
+     * @param scheme the scheme
+     * @param profile the student profile
+     * @param application the application, or null
+     * @return the result, or null if the scheme has no rule
+     */
+    public Boolean evaluate(ScholarshipScheme scheme, StudentProfile profile, ScholarshipApplication application) {
+        EligibilityRule rule = ruleFor(scheme, application);
+        if (rule == null) {
+            return null;
+        }
+        LocalDate asOf = application != null && application.getApplicationDate() != null
+            ? application.getApplicationDate()
+            : LocalDate.now();
+        return rule.test(new EligibilityFacts().load(profile, application, asOf));
+    }
+    
+    /**
+     * Checks every application of a scheme against the rule of the version it was submitted under.
+     * 
+     * @param schemeId the scheme ID
+     * @return summary with evaluated, eligible and unchecked (no rule in their version) counts and
+     *         the IDs of ineligible applications (capped at scheme.rules.batch.max-listed-ineligible),
+     *         or an error message
+     */
+    public Object evaluateApplications(Long schemeId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> {
+            ScholarshipScheme scheme = scholarshipSchemeRepository.findById(schemeId).orElse(null);
+            if (scheme == null) {
+                return "Scheme not found";
+            }
+            EligibilityRule rule = ruleFor(scheme);
+            boolean anyVersionRule = schemeVersionRegistry.versions(schemeId).stream()
+                .anyMatch(version -> version.getEligibilityRule() != null && !version.getEligibilityRule().isBlank());
+            if (rule == null && !anyVersionRule) {
+                return "Scheme has no eligibility rule";
+            }
+            
+            long start = System.nanoTime();
+            long[] seen = new long[1];
+            long[] evaluated = new long[1];
+            List<Long> ineligibleIds = new ArrayList<>();
+            long eligible;
+            try (Stream<ScholarshipApplication> applications = applicationRepository.streamBySchemeIdWithStudent(schemeId)) {
+                eligible = EligibilityRule.evaluateEach(applications.peek(application -> seen[0]++),
+                    application -> {
+                        EligibilityRule applicable = ruleFor(scheme, application);
+                        if (applicable == null) {
+                            entityManager.detach(application);
+                            entityManager.detach(application.getStudent());
+                        }
+                        return applicable;
+                    },
+                    (application, facts) -> facts.load(application.getStudent(), application,
+                        application.getApplicationDate() != null ? application.getApplicationDate() : LocalDate.now()),
+                    (application, isEligible) -> {
+                        evaluated[0]++;
+                        if (!isEligible && ineligibleIds.size() < maxListedIneligible) {
+                            ineligibleIds.add(application.getId());
+                        }
+                        entityManager.detach(application);
+                        entityManager.detach(application.getStudent());
+                    });
+            }
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("schemeId", schemeId);
+            summary.put("rule", rule != null ? rule.getSource() : null);
+            summary.put("evaluated", evaluated[0]);
+            summary.put("eligible", eligible);
+            summary.put("ineligible", evaluated[0] - eligible);
+            summary.put("unchecked", seen[0] - evaluated[0]);
+            summary.put("ineligibleApplicationIds", ineligibleIds);
+            return summary;
+        });
+    }
+}
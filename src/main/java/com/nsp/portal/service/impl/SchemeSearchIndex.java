@@ -0,0 +1,322 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.event.SchemeCatalogChangedEvent;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.util.PrefixTrie;
+import com.nsp.portal.util.TextAnalyzer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over active scholarship schemes with BM25 ranking and typeahead.
+ * 
+ * Scheme name, description, eligibility criteria and the restriction fields are analysed by
+ * TextAnalyzer into an inverted index of weighted term frequencies (the name counts triple).
+ * Queries are scored with BM25 over those frequencies. Suggestions come from a counted prefix
+ * trie of the words appearing in active schemes, ranked by how many schemes use them.
+ * 
+ * Changes are applied per scheme: a committed SchemeCatalogChangedEvent reindexes just that
+ * scheme. A periodic full rebuild picks up changes made by other nodes; both are serialised so
+ * a rebuild cannot overwrite a newer single-scheme update. Searches run under a read lock, so
+ * they never see a half-applied update.
+ */
+@Component
+public class SchemeSearchIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemeSearchIndex.class);
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_SUGGEST_LENGTH = 3;
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // All guarded by lock
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedScheme> documents = new HashMap<>();
+    private final PrefixTrie suggestions = new PrefixTrie();
+    private long totalLength;
+    
+    private Timer searchTimer;
+    
+    private Timer suggestTimer;
+    
+    /**
+     * Registers the search latency metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        searchTimer = Timer.builder("scheme.search")
+            .description("Full-text scheme search latency")
+            .publishPercentiles(0.5, 0.99)
+            .distributionStatisticExpiry(Duration.ofMinutes(5))
+            .register(meterRegistry);
+        suggestTimer = Timer.builder("scheme.search.suggest")
+            .description("Scheme search typeahead latency")
+            .publishPercentiles(0.5, 0.99)
+            .distributionStatisticExpiry(Duration.ofMinutes(5))
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Builds the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    /**
+     * Periodically rebuilds the index to pick up changes made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${scheme.search.rebuild-interval-ms:300000}",
+               initialDelayString = "${scheme.search.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+    
+    /**
+     * Reindexes all active schemes.
+     */
+    public synchronized void rebuild() {
+        try {
+            List<ScholarshipScheme> schemes = scholarshipSchemeRepository.findByIsActiveTrue();
+            List<IndexedScheme> analysed = new ArrayList<>(schemes.size());
+            for (ScholarshipScheme scheme : schemes) {
+                analysed.add(analyse(scheme));
+            }
+            lock.writeLock().lock();
+            try {
+                for (Long id : new ArrayList<>(documents.keySet())) {
+                    removeDocument(id);
+                }
+                for (IndexedScheme document : analysed) {
+                    addDocument(document);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("Scheme search index built with " + analysed.size() + " schemes");
+        } catch (Exception e) {
+            logger.warn("Could not rebuild scheme search index: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reindexes a single scheme after its change has been committed.
+     * 
+     * @param event the change event published by ScholarshipSchemeListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSchemeCatalogChanged(SchemeCatalogChangedEvent event) {
+        if (event.getSchemeId() == null) {
+            return;
+        }
+        Optional<ScholarshipScheme> scheme = scholarshipSchemeRepository.findById(event.getSchemeId());
+        IndexedScheme analysed = scheme.filter(ScholarshipScheme::isActive).map(this::analyse).orElse(null);
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.getSchemeId());
+            if (analysed != null) {
+                addDocument(analysed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Searches active schemes.
+     * 
+     * @param query free-text query, e.g. "girl child engineering"
+     * @param limit maximum number of results
+     * @return matching scheme summaries with their score, best first
+     */
+    public List<Map<String, Object>> search(String query, int limit) {
+        long start = System.nanoTime();
+        Set<String> terms = new HashSet<>(TextAnalyzer.terms(query));
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || documents.isEmpty() || limit <= 0) {
+                return Collections.emptyList();
+            }
+            int documentCount = documents.size();
+            double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                    double tf = entry.getValue();
+                    double length = documents.get(entry.getKey()).length;
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+            
+            // Min-heap keeps the best `limit` hits
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                best.add(entry);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Map<String, Object>> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                Map.Entry<Long, Double> hit = best.poll();
+                Map<String, Object> result = new LinkedHashMap<>(documents.get(hit.getKey()).summary);
+                result.put("score", Math.round(hit.getValue() * 1000) / 1000.0);
+                results.add(result);
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+            searchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+    
+    /**
+     * Suggests words for typeahead.
+     * 
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions
+     * @return words used in active schemes, most common first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        long start = System.nanoTime();
+        List<String> words = TextAnalyzer.words(prefix);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Complete the last word being typed
+        String last = words.get(words.size() - 1);
+        lock.readLock().lock();
+        try {
+            return suggestions.suggest(last, limit);
+        } finally {
+            lock.readLock().unlock();
+            suggestTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+    
+    private IndexedScheme analyse(ScholarshipScheme scheme) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : TextAnalyzer.terms(scheme.getSchemeName())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+            length += NAME_WEIGHT;
+        }
+        String[] fields = {scheme.getDescription(), scheme.getEligibilityCriteria(), scheme.getCategory(),
+            scheme.getGender(), scheme.getDomicileState(), scheme.getAcademicLevel(), scheme.getSubject(),
+            scheme.getInstituteType()};
+        Set<String> words = new HashSet<>();
+        for (String field : fields) {
+            for (String term : TextAnalyzer.terms(field)) {
+                frequencies.merge(term, 1, Integer::sum);
+                length++;
+            }
+        }
+        for (String field : new String[] {scheme.getSchemeName(), scheme.getDescription(), scheme.getEligibilityCriteria()}) {
+            for (String word : TextAnalyzer.words(field)) {
+                if (word.length() >= MIN_SUGGEST_LENGTH && !TextAnalyzer.isStopWord(word)) {
+                    words.add(word);
+                }
+            }
+        }
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", scheme.getId());
+        summary.put("schemeName", scheme.getSchemeName());
+        summary.put("scholarshipAmount", scheme.getScholarshipAmount());
+        summary.put("applicationStartDate", scheme.getApplicationStartDate());
+        summary.put("applicationEndDate", scheme.getApplicationEndDate());
+        return new IndexedScheme(scheme.getId(), frequencies, length, words, Collections.unmodifiableMap(summary));
+    }
+    
+    private void addDocument(IndexedScheme document) {
+        documents.put(document.id, document);
+        totalLength += document.length;
+        for (Map.Entry<String, Integer> entry : document.frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(document.id, entry.getValue());
+        }
+        for (String word : document.words) {
+            suggestions.add(word);
+        }
+    }
+    
+    private void removeDocument(Long id) {
+        IndexedScheme document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length;
+        for (String term : document.frequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String word : document.words) {
+            suggestions.remove(word);
+        }
+    }
+    
+    /**
+     * Analysed form of one scheme, kept so it can be removed from the postings again.
+     */
+    private static final class IndexedScheme {
+        
+        final Long id;
+        final Map<String, Integer> frequencies;
+        final int length;
+        final Set<String> words;
+        final Map<String, Object> summary;
+        
+        IndexedScheme(Long id, Map<String, Integer> frequencies, int length, Set<String> words,
+                      Map<String, Object> summary) {
+            this.id = id;
+            this.frequencies = frequencies;
+            this.length = length;
+            this.words = words;
+            this.summary = summary;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.entity.ScholarshipSchemeVersion;
+import com.nsp.portal.event.SchemeCatalogChangedEvent;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.repository.ScholarshipSchemeVersionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Append-only, in-memory registry of immutable scheme versions.
+ * 
+ * Versions never change once written, so every version is cached forever and the registry
+ * only ever adds entries: a periodic sync loads the versions with an ID above the highest
+ * one seen, which also picks up versions written by other nodes. IDs commit out of order
+ * across nodes, so each sync also re-reads the versions created shortly before the previous
+ * one, as TokenRevocationList does for revocations. Applications are pinned
+ * to the version effective on their submission date, so evaluating a historic application
+ * needs no read of the scheme or the version.
+ * 
+ * A new version is appended after a scheme change is committed, but only if its terms
+ * (amount, income limit, criteria, rule and restrictions) actually differ from the latest
+ * version; it becomes effective on the day of the change. Schemes created before versioning
+ * get version 1 at startup, and their existing applications are pinned to it.
+ */
+@Component
+public class SchemeVersionRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemeVersionRegistry.class);
+    
+    @Autowired
+    private ScholarshipSchemeVersionRepository versionRepository;
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${scheme.versions.sync-overlap-ms:30000}")
+    private long syncOverlapMillis;
+    
+    private final ConcurrentMap<Long, ScholarshipSchemeVersion> versionsById = new ConcurrentHashMap<>();
+    
+    // Immutable lists ordered by version number, replaced whenever a version is added
+    private final ConcurrentMap<Long, List<ScholarshipSchemeVersion>> versionsByScheme = new ConcurrentHashMap<>();
+    
+    // Highest version ID loaded and start of the last sync; guarded by this
+    private long watermark;
+    private LocalDateTime lastSync;
+    
+    /**
+     * Registers the registry metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("scheme.versions.cached", versionsById, ConcurrentMap::size)
+            .description("Immutable scheme versions held in memory")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Creates the first version of unversioned schemes and loads all versions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            for (Long schemeId : versionRepository.findSchemeIdsWithoutVersion()) {
+                recordVersion(schemeId);
+            }
+            sync();
+        } catch (Exception e) {
+            logger.warn("Could not load scheme versions at startup: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Periodically loads versions written by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${scheme.versions.sync-interval-ms:60000}",
+               initialDelayString = "${scheme.versions.sync-interval-ms:60000}")
+    public void scheduledSync() {
+        try {
+            sync();
+        } catch (Exception e) {
+            logger.warn("Could not sync scheme versions: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Appends a version once a scheme change has been committed, if the terms changed.
+     * 
+     * @param event the change event published by ScholarshipSchemeListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchemeCatalogChanged(SchemeCatalogChangedEvent event) {
+        if (event.getSchemeId() == null) {
+            return;
+        }
+        try {
+            recordVersion(event.getSchemeId());
+        } catch (Exception e) {
+            logger.warn("Could not record version of scheme " + event.getSchemeId() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Loads the versions added since the last sync.
+     */
+    public synchronized void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ScholarshipSchemeVersion> loaded;
+        if (lastSync == null) {
+            loaded = versionRepository.findByIdGreaterThanOrderByIdAsc(watermark);
+        } else {
+            // A lower ID committed by another node after a higher one was synced is still in this window
+            LocalDateTime since = lastSync.minusNanos(syncOverlapMillis * 1_000_000);
+            loaded = versionRepository.findByIdGreaterThanOrCreatedAtGreaterThanEqualOrderByIdAsc(watermark, since);
+        }
+        for (ScholarshipSchemeVersion version : loaded) {
+            add(version);
+            watermark = Math.max(watermark, version.getId());
+        }
+        lastSync = now;
+    }
+    
+    /**
+     * Records the current terms of a scheme as a new version unless the latest version
+     * already has them. Runs in its own transaction.
+     * 
+     * @param schemeId the scheme ID
+     * @return the latest version of the scheme, or null if the scheme does not exist
+     */
+    public ScholarshipSchemeVersion recordVersion(Long schemeId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ScholarshipSchemeVersion recorded;
+        try {
+            recorded = template.execute(status -> {
+                ScholarshipScheme scheme = scholarshipSchemeRepository.findById(schemeId).orElse(null);
+                if (scheme == null) {
+                    return null;
+                }
+                ScholarshipSchemeVersion latest = versionRepository.findFirstBySchemeIdOrderByVersionNumberDesc(schemeId).orElse(null);
+                if (latest != null && latest.hasSameTerms(scheme)) {
+                    return latest;
+                }
+                
+                LocalDate today = LocalDate.now();
+                ScholarshipSchemeVersion version;
+                if (latest == null) {
+                    // The first version covers the scheme's whole history
+                    LocalDate start = scheme.getApplicationStartDate();
+                    version = versionRepository.save(new ScholarshipSchemeVersion(scheme, 1,
+                        start != null && start.isBefore(today) ? start : today));
+                    versionRepository.pinUnversionedApplications(schemeId, version);
+                } else {
+                    LocalDate effectiveFrom = today.isBefore(latest.getEffectiveFrom()) ? latest.getEffectiveFrom() : today;
+                    version = versionRepository.save(new ScholarshipSchemeVersion(scheme, latest.getVersionNumber() + 1, effectiveFrom));
+                }
+                logger.info("Recorded version " + version.getVersionNumber() + " of scheme " + schemeId
+                    + " effective from " + version.getEffectiveFrom());
+                return version;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another node recorded the same version number first
+            recorded = null;
+        }
+        sync();
+        List<ScholarshipSchemeVersion> versions = versions(schemeId);
+        return recorded != null ? recorded : versions.isEmpty() ? null : versions.get(versions.size() - 1);
+    }
+    
+    /**
+     * Returns a version by ID, loading it once if it has not been seen yet.
+     * 
+     * @param versionId the version ID
+     * @return the version, or null if it does not exist
+     */
+    public ScholarshipSchemeVersion getVersion(Long versionId) {
+        if (versionId == null) {
+            return null;
+        }
+        ScholarshipSchemeVersion version = versionsById.get(versionId);
+        if (version == null) {
+            version = versionRepository.findById(versionId).orElse(null);
+            if (version != null) {
+                add(version);
+            }
+        }
+        return version;
+    }
+    
+    /**
+     * Returns the version of a scheme in effect on a date.
+     * 
+     * @param schemeId the scheme ID
+     * @param date the date
+     * @return the latest version effective on or before the date, or null if there is none
+     */
+    public ScholarshipSchemeVersion effectiveVersion(Long schemeId, LocalDate date) {
+        List<ScholarshipSchemeVersion> versions = versions(schemeId);
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            if (!versions.get(i).getEffectiveFrom().isAfter(date)) {
+                return versions.get(i);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns all known versions of a scheme.
+     * 
+     * @param schemeId the scheme ID
+     * @return unmodifiable list ordered by version number
+     */
+    public List<ScholarshipSchemeVersion> versions(Long schemeId) {
+        return versionsByScheme.getOrDefault(schemeId, Collections.emptyList());
+    }
+    
+    private void add(ScholarshipSchemeVersion version) {
+        if (versionsById.putIfAbsent(version.getId(), version) != null) {
+            return;
+        }
+        versionsByScheme.compute(version.getSchemeId(), (schemeId, current) -> {
+            List<ScholarshipSchemeVersion> next = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            next.add(version);
+            next.sort(Comparator.comparingInt(ScholarshipSchemeVersion::getVersionNumber));
+            return Collections.unmodifiableList(next);
+        });
+    }
+}
@@ -0,0 +1,340 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.event.SchemeCatalogChangedEvent;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.util.HashedTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens and closes scheme application windows at their exact boundaries.
+ * 
+ * Every active scheme gets a timer on a hashed timing wheel for the start of its
+ * applicationStartDate and for the day after its applicationEndDate (both midnight in the
+ * server time zone, the same days LocalDate.now() and the catalog use). When a timer fires
+ * the scheme is added to or removed from the set of schemes accepting applications, so a
+ * submission is checked with one hash lookup and no scheme row is read. A pre-warm timer
+ * fires scheme.window.prewarm-lead-ms before each opening and rebuilds the catalog snapshot
+ * and compiles the scheme's eligibility rule, so the first requests after the opening find
+ * every cache hot.
+ * 
+ * Timers are replaced when a scheme change is committed and on a periodic resync, which
+ * also picks up changes made by other nodes. A firing timer only triggers a re-evaluation
+ * against the recorded window, so a stale timer can never flip a scheme the wrong way.
+ * 
+ * The accepting set is per node. Boundaries from unchanged dates fire on every node alike,
+ * but a scheme edited on another node (deactivated, or its dates moved) keeps its old window
+ * here for up to scheme.window.resync-interval-ms.
+ */
+@Component
+public class SchemeWindowScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemeWindowScheduler.class);
+    
+    @Value("${scheme.window.tick-ms:1000}")
+    private long tickMillis;
+    
+    @Value("${scheme.window.wheel-size:4096}")
+    private int wheelSize;
+    
+    @Value("${scheme.window.prewarm-lead-ms:300000}")
+    private long prewarmLeadMillis;
+    
+    @Autowired
+    private ScholarshipSchemeRepository scholarshipSchemeRepository;
+    
+    @Autowired
+    private SchemeCatalog schemeCatalog;
+    
+    @Autowired
+    private SchemeRuleEvaluator schemeRuleEvaluator;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Set<Long> acceptingApplications = ConcurrentHashMap.newKeySet();
+    
+    // Guarded by this: window [open, close) in epoch millis and pending timers per scheme
+    private final Map<Long, long[]> windows = new HashMap<>();
+    private final Map<Long, List<HashedTimingWheel.Timeout<WindowEvent>>> timers = new HashMap<>();
+    
+    private HashedTimingWheel<WindowEvent> wheel;
+    
+    private volatile boolean synced;
+    
+    private volatile boolean running;
+    
+    private Thread ticker;
+    
+    private Counter transitionCounter;
+    
+    /**
+     * Creates the timing wheel, registers the metrics and starts the ticker thread.
+     */
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        Gauge.builder("scheme.window.accepting", acceptingApplications, Set::size)
+            .description("Schemes currently accepting applications")
+            .register(meterRegistry);
+        Gauge.builder("scheme.window.timers", wheel, HashedTimingWheel::size)
+            .description("Pending scheme window timers")
+            .register(meterRegistry);
+        transitionCounter = Counter.builder("scheme.window.transitions")
+            .description("Scheme application windows opened or closed by a timer")
+            .register(meterRegistry);
+        
+        running = true;
+        ticker = new Thread(this::runTicker, "scheme-window-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+    
+    /**
+     * Stops the ticker thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        ticker.interrupt();
+    }
+    
+    /**
+     * Schedules the windows of all active schemes once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            resync();
+        } catch (Exception e) {
+            logger.warn("Could not schedule scheme windows at startup: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Periodically reschedules all windows to pick up changes made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${scheme.window.resync-interval-ms:30000}",
+               initialDelayString = "${scheme.window.resync-interval-ms:30000}")
+    public void scheduledResync() {
+        try {
+            resync();
+        } catch (Exception e) {
+            logger.warn("Could not resync scheme windows, keeping current timers: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reschedules a single scheme after its change has been committed.
+     * 
+     * @param event the change event published by ScholarshipSchemeListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchemeCatalogChanged(SchemeCatalogChangedEvent event) {
+        if (event.getSchemeId() == null) {
+            return;
+        }
+        ScholarshipScheme scheme = scholarshipSchemeRepository.findById(event.getSchemeId()).orElse(null);
+        synchronized (this) {
+            if (scheme != null && scheme.isActive()) {
+                schedule(scheme, System.currentTimeMillis());
+            } else {
+                unschedule(event.getSchemeId());
+            }
+        }
+    }
+    
+    /**
+     * Brings the timers in line with the windows of the currently active schemes.
+     */
+    public void resync() {
+        List<ScholarshipScheme> schemes = scholarshipSchemeRepository.findByIsActiveTrue();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            // Schemes are re-evaluated in place, so a scheme that stays open never drops out
+            Set<Long> active = new HashSet<>();
+            for (ScholarshipScheme scheme : schemes) {
+                active.add(scheme.getId());
+                schedule(scheme, now);
+            }
+            for (Long schemeId : new ArrayList<>(timers.keySet())) {
+                if (!active.contains(schemeId)) {
+                    unschedule(schemeId);
+                }
+            }
+            acceptingApplications.retainAll(active);
+            synced = true;
+        }
+        logger.debug("Scheme windows scheduled for " + schemes.size() + " schemes, "
+            + acceptingApplications.size() + " accepting applications");
+    }
+    
+    /**
+     * Checks whether a scheme is accepting applications right now.
+     * 
+     * @param schemeId the scheme ID
+     * @return true if the scheme is active and inside its application window
+     */
+    public boolean isAcceptingApplications(Long schemeId) {
+        if (!synced) {
+            resync();
+        }
+        return schemeId != null && acceptingApplications.contains(schemeId);
+    }
+    
+    // Caller holds the monitor; replaces the scheme's timers only if its window changed
+    private void schedule(ScholarshipScheme scheme, long now) {
+        Long schemeId = scheme.getId();
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate start = scheme.getApplicationStartDate();
+        LocalDate end = scheme.getApplicationEndDate();
+        long open = start == null ? Long.MIN_VALUE : start.atStartOfDay(zone).toInstant().toEpochMilli();
+        long close = end == null || end.equals(LocalDate.MAX)
+            ? Long.MAX_VALUE
+            : end.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        
+        // Pending timers still match an unchanged window; cancelling them would only leave dead
+        // entries in the wheel and fire a past-due pre-warm on every resync
+        long[] current = windows.get(schemeId);
+        if (current != null && current[0] == open && current[1] == close && timers.containsKey(schemeId)) {
+            evaluate(schemeId, now);
+            return;
+        }
+        cancelTimers(schemeId);
+        windows.put(schemeId, new long[] {open, close});
+        
+        List<HashedTimingWheel.Timeout<WindowEvent>> handles = new ArrayList<>(3);
+        if (open > now) {
+            handles.add(wheel.schedule(new WindowEvent(schemeId, start), open - prewarmLeadMillis));
+            handles.add(wheel.schedule(new WindowEvent(schemeId, null), open));
+        }
+        if (close > now && close != Long.MAX_VALUE) {
+            handles.add(wheel.schedule(new WindowEvent(schemeId, null), close));
+        }
+        timers.put(schemeId, handles);
+        evaluate(schemeId, now);
+    }
+    
+    // Caller holds the monitor
+    private void unschedule(Long schemeId) {
+        cancelTimers(schemeId);
+        windows.remove(schemeId);
+        acceptingApplications.remove(schemeId);
+    }
+    
+    // Caller holds the monitor
+    private void cancelTimers(Long schemeId) {
+        List<HashedTimingWheel.Timeout<WindowEvent>> handles = timers.remove(schemeId);
+        if (handles != null) {
+            handles.forEach(HashedTimingWheel.Timeout::cancel);
+        }
+    }
+    
+    // Caller holds the monitor; returns true if the scheme's state changed
+    private boolean evaluate(Long schemeId, long now) {
+        long[] window = windows.get(schemeId);
+        if (window != null && window[0] <= now && now < window[1]) {
+            return acceptingApplications.add(schemeId);
+        }
+        return acceptingApplications.remove(schemeId);
+    }
+    
+    private void runTicker() {
+        while (running) {
+            try {
+                long sleep = wheel.nextTickMillis() - System.currentTimeMillis();
+                if (sleep > 0) {
+                    Thread.sleep(sleep);
+                }
+                fire(wheel.advance(System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("Scheme window tick failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void fire(List<WindowEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<LocalDate, Set<Long>> prewarm = new HashMap<>();
+        boolean changed = false;
+        synchronized (this) {
+            for (WindowEvent event : events) {
+                if (event.openingDay != null) {
+                    prewarm.computeIfAbsent(event.openingDay, day -> new HashSet<>()).add(event.schemeId);
+                } else if (evaluate(event.schemeId, now)) {
+                    transitionCounter.increment();
+                    changed = true;
+                }
+            }
+        }
+        if (!prewarm.isEmpty()) {
+            prewarm(prewarm);
+        }
+        if (changed) {
+            // Resolve today's catalog segment now rather than on the first request after the boundary
+            LocalDate today = LocalDate.now();
+            schemeCatalog.openSchemesEtag(today);
+            schemeCatalog.openSchemesJson(today);
+        }
+    }
+    
+    private void prewarm(Map<LocalDate, Set<Long>> schemesByOpeningDay) {
+        // One rebuild covers every scheme opening in this tick
+        schemeCatalog.refresh();
+        for (Map.Entry<LocalDate, Set<Long>> entry : schemesByOpeningDay.entrySet()) {
+            for (ScholarshipScheme scheme : schemeCatalog.openSchemes(entry.getKey())) {
+                if (entry.getValue().contains(scheme.getId())) {
+                    try {
+                        schemeRuleEvaluator.ruleFor(scheme);
+                    } catch (Exception e) {
+                        logger.warn("Could not compile eligibility rule of scheme " + scheme.getId() + ": " + e.getMessage());
+                    }
+                }
+            }
+            logger.info("Pre-warmed caches for " + entry.getValue().size() + " scheme(s) opening on " + entry.getKey());
+        }
+    }
+    
+    /**
+     * Timer payload: a window boundary of a scheme, or a pre-warm point when openingDay is set.
+     */
+    private static final class WindowEvent {
+        
+        final Long schemeId;
+        final LocalDate openingDay;
+        
+        WindowEvent(Long schemeId, LocalDate openingDay) {
+            this.schemeId = schemeId;
+            this.openingDay = openingDay;
+        }
+    }
+}
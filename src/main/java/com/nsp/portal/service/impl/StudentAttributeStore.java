@@ -0,0 +1,477 @@
+package com.nsp.portal.service.impl;
+
+import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.event.StudentProfileChangedEvent;
+import com.nsp.portal.repository.StudentProfileRepository;
+import com.nsp.portal.rule.EligibilityFacts;
+import com.nsp.portal.rule.EligibilityField;
+import com.nsp.portal.rule.EligibilityRule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compact columnar in-memory store of student eligibility attributes, for reverse eligibility:
+ * "which students qualify for this scheme".
+ * 
+ * Rows are indexed by student ID (student IDs are user IDs, so the range is dense) and each
+ * attribute is one primitive array: dictionary-encoded state, category, gender, academic level,
+ * subject and institute type, date of birth as yyyymmdd and income in whole rupees. A scheme is
+ * matched by a parallel scan over fixed-size row chunks comparing dictionary codes, followed by
+ * the scheme's compiled eligibility rule on the surviving rows. Unlike the student-facing
+ * eligible-schemes list, a student qualifies only if every restricted attribute is known.
+ * 
+ * The store is built from the database once the application is ready, kept current from
+ * StudentProfileChangedEvent after each commit, and rebuilt periodically to pick up changes
+ * made by other nodes.
+ */
+@Component
+public class StudentAttributeStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StudentAttributeStore.class);
+    
+    // Rows per parallel scan task; a multiple of 64 so chunks never share a presence word
+    private static final int CHUNK_ROWS = 1 << 16;
+    
+    private static final int MISSING_INCOME = -1;
+    
+    @Value("${student.attributes.enabled:true}")
+    private boolean enabled;
+    
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Guarded by lock; replaced wholesale by rebuild()
+    private Columns columns = new Columns();
+    
+    // Non-null while a rebuild is streaming, so changes committed meanwhile are replayed onto the new columns
+    private List<StudentProfileChangedEvent> changedDuringRebuild;
+    
+    private volatile boolean ready;
+    
+    private Timer rebuildTimer;
+    
+    private Timer scanTimer;
+    
+    /**
+     * Registers the store metrics.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        rebuildTimer = Timer.builder("student.attributes.rebuild")
+            .description("Time taken to rebuild the student attribute store from the database")
+            .register(meterRegistry);
+        scanTimer = Timer.builder("student.attributes.scan")
+            .description("Time taken to find the students eligible for a scheme")
+            .register(meterRegistry);
+        Gauge.builder("student.attributes.students", this, StudentAttributeStore::size)
+            .description("Students held in the attribute store")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Builds the store once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Periodically rebuilds the store to pick up profile changes made by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${student.attributes.rebuild-interval-ms:3600000}",
+               initialDelayString = "${student.attributes.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Rebuilds the columns by streaming all student attributes from the database.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Columns next = new Columns();
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = studentProfileRepository.streamEligibilityAttributes()) {
+                    rows.forEach(row -> next.put(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        (String) row[3], (LocalDate) row[4], (BigDecimal) row[5], (String) row[6], (String) row[7],
+                        (String) row[8]));
+                }
+            });
+            
+            lock.writeLock().lock();
+            try {
+                for (StudentProfileChangedEvent event : changedDuringRebuild) {
+                    apply(next, event);
+                }
+                columns = next;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("Student attribute store built with " + next.count + " students");
+        } catch (Exception e) {
+            logger.warn("Could not rebuild student attribute store: " + e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Applies a committed profile change.
+     * 
+     * @param event the change event published by StudentProfileListener
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentProfileChanged(StudentProfileChangedEvent event) {
+        if (!enabled || event.getStudentId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(columns, event);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds every student eligible for a scheme.
+     * 
+     * @param scheme the scheme whose attribute restrictions and income limit apply
+     * @param rule the scheme's compiled eligibility rule, or null
+     * @param asOf the date ages are computed at
+     * @return eligible student IDs in ascending order
+     * @throws IllegalStateException if the store has not been built yet
+     */
+    public long[] findEligible(ScholarshipScheme scheme, EligibilityRule rule, LocalDate asOf) {
+        if (!ready) {
+            throw new IllegalStateException("Student attribute store is not ready");
+        }
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            Query query = new Query(current, scheme, rule, asOf);
+            if (query.impossible) {
+                return new long[0];
+            }
+            int chunks = (current.capacity + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            long[][] parts = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> current.scan(query, chunk * CHUNK_ROWS, Math.min(current.capacity, (chunk + 1) * CHUNK_ROWS)))
+                .toArray(long[][]::new);
+            
+            int total = 0;
+            for (long[] part : parts) {
+                total += part.length;
+            }
+            long[] result = new long[total];
+            int offset = 0;
+            for (long[] part : parts) {
+                System.arraycopy(part, 0, result, offset, part.length);
+                offset += part.length;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+            scanTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Returns the number of students in the store.
+     * 
+     * @return the student count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static void apply(Columns target, StudentProfileChangedEvent event) {
+        if (event.isRemoved()) {
+            target.remove(event.getStudentId());
+        } else {
+            target.put(event.getStudentId(), event.getDomicileState(), event.getCategory(), event.getGender(),
+                event.getDateOfBirth(), event.getFamilyIncome(), event.getAcademicLevel(), event.getSubject(),
+                event.getInstituteType());
+        }
+    }
+    
+    // yyyymmdd, so completed years between two dates is (later - earlier) / 10000
+    private static int packDate(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+    
+    /**
+     * Text attribute columns, in the order of Columns.text.
+     */
+    private enum TextColumn {
+        STATE(EligibilityField.STATE),
+        CATEGORY(EligibilityField.CATEGORY),
+        GENDER(EligibilityField.GENDER),
+        ACADEMIC_LEVEL(EligibilityField.ACADEMIC_LEVEL),
+        SUBJECT(EligibilityField.SUBJECT),
+        INSTITUTE_TYPE(EligibilityField.INSTITUTE_TYPE);
+        
+        final EligibilityField field;
+        
+        TextColumn(EligibilityField field) {
+            this.field = field;
+        }
+    }
+    
+    /**
+     * The column arrays. Only mutated under the write lock; scans run under the read lock.
+     */
+    private static final class Columns {
+        
+        private static final TextColumn[] TEXT_COLUMNS = TextColumn.values();
+        
+        int capacity;
+        int count;
+        long[] present = new long[0];
+        final short[][] text = new short[TEXT_COLUMNS.length][0];
+        final Dictionary[] dictionaries = new Dictionary[TEXT_COLUMNS.length];
+        int[] birthDate = new int[0];
+        int[] income = new int[0];
+        
+        Columns() {
+            for (int c = 0; c < dictionaries.length; c++) {
+                dictionaries[c] = new Dictionary();
+            }
+        }
+        
+        void put(long studentId, String state, String category, String gender, LocalDate dateOfBirth,
+                 BigDecimal familyIncome, String academicLevel, String subject, String instituteType) {
+            int row = row(studentId);
+            ensureCapacity(row + 1);
+            if ((present[row >>> 6] & (1L << row)) == 0) {
+                present[row >>> 6] |= 1L << row;
+                count++;
+            }
+            String[] values = {state, category, gender, academicLevel, subject, instituteType};
+            for (int c = 0; c < values.length; c++) {
+                text[c][row] = dictionaries[c].encode(EligibilityIndex.normalize(values[c]));
+            }
+            birthDate[row] = dateOfBirth == null ? 0 : packDate(dateOfBirth);
+            income[row] = familyIncome == null ? MISSING_INCOME : rupees(familyIncome);
+        }
+        
+        void remove(long studentId) {
+            int row = row(studentId);
+            if (row < capacity && (present[row >>> 6] & (1L << row)) != 0) {
+                present[row >>> 6] &= ~(1L << row);
+                count--;
+            }
+        }
+        
+        long[] scan(Query query, int from, int to) {
+            long[] ids = new long[64];
+            int found = 0;
+            EligibilityFacts facts = query.rule != null ? new EligibilityFacts() : null;
+            for (int row = from; row < to; row++) {
+                if ((present[row >>> 6] & (1L << row)) == 0) {
+                    continue;
+                }
+                if (!query.matches(this, row)) {
+                    continue;
+                }
+                if (facts != null && !query.rule.test(load(facts, row, query.asOf))) {
+                    continue;
+                }
+                if (found == ids.length) {
+                    ids = Arrays.copyOf(ids, found * 2);
+                }
+                ids[found++] = row;
+            }
+            return Arrays.copyOf(ids, found);
+        }
+        
+        private EligibilityFacts load(EligibilityFacts facts, int row, int asOf) {
+            facts.clear();
+            if (birthDate[row] != 0) {
+                facts.setNumber(EligibilityField.AGE, (asOf - birthDate[row]) / 10000);
+            }
+            if (income[row] != MISSING_INCOME) {
+                facts.setNumber(EligibilityField.INCOME, income[row]);
+            }
+            for (int c = 0; c < TEXT_COLUMNS.length; c++) {
+                facts.setText(TEXT_COLUMNS[c].field, dictionaries[c].decode(text[c][row]));
+            }
+            return facts;
+        }
+        
+        private void ensureCapacity(int rows) {
+            if (rows <= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(rows, Math.max(1024, capacity + (capacity >> 1)));
+            newCapacity = (newCapacity + 63) & ~63;
+            present = Arrays.copyOf(present, newCapacity >>> 6);
+            for (int c = 0; c < text.length; c++) {
+                text[c] = Arrays.copyOf(text[c], newCapacity);
+            }
+            birthDate = Arrays.copyOf(birthDate, newCapacity);
+            income = Arrays.copyOf(income, newCapacity);
+            capacity = newCapacity;
+        }
+        
+        private static int row(long studentId) {
+            if (studentId < 0 || studentId >= Integer.MAX_VALUE - 64) {
+                throw new IllegalArgumentException("Student ID out of range: " + studentId);
+            }
+            return (int) studentId;
+        }
+        
+        // Rounded up so an income just above a limit is never treated as within it
+        private static int rupees(BigDecimal value) {
+            BigDecimal rounded = value.setScale(0, RoundingMode.CEILING);
+            return rounded.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE - 1)) >= 0
+                ? Integer.MAX_VALUE - 1
+                : Math.max(0, rounded.intValue());
+        }
+    }
+    
+    /**
+     * Per-column dictionary of normalised values; code 0 means missing.
+     */
+    private static final class Dictionary {
+        
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>(List.of(""));
+        
+        short encode(String normalized) {
+            if (normalized == null) {
+                return 0;
+            }
+            Short code = codes.get(normalized);
+            if (code == null) {
+                if (values.size() > Short.MAX_VALUE) {
+                    return 0;
+                }
+                code = (short) values.size();
+                codes.put(normalized, code);
+                values.add(normalized);
+            }
+            return code;
+        }
+        
+        int lookup(String normalized) {
+            Short code = codes.get(normalized);
+            return code == null ? -1 : code;
+        }
+        
+        String decode(short code) {
+            return code == 0 ? null : values.get(code);
+        }
+    }
+    
+    /**
+     * A scheme's restrictions translated to dictionary codes of one Columns instance.
+     */
+    private static final class Query {
+        
+        // Required code per text column, or -1 when the scheme accepts any value
+        final int[] requiredCodes = new int[TextColumn.values().length];
+        final long incomeLimit;
+        final EligibilityRule rule;
+        final int asOf;
+        boolean impossible;
+        
+        Query(Columns columns, ScholarshipScheme scheme, EligibilityRule rule, LocalDate asOf) {
+            String[] restrictions = {scheme.getDomicileState(), scheme.getCategory(), scheme.getGender(),
+                scheme.getAcademicLevel(), scheme.getSubject(), scheme.getInstituteType()};
+            for (int c = 0; c < restrictions.length; c++) {
+                String normalized = EligibilityIndex.normalize(restrictions[c]);
+                if (EligibilityIndex.isWildcard(normalized)) {
+                    requiredCodes[c] = -1;
+                } else {
+                    requiredCodes[c] = columns.dictionaries[c].lookup(normalized);
+                    if (requiredCodes[c] < 0) {
+                        // No student has this value at all
+                        impossible = true;
+                    }
+                }
+            }
+            BigDecimal limit = scheme.getFamilyIncomeLimit();
+            this.incomeLimit = limit == null ? Long.MAX_VALUE : limit.setScale(0, RoundingMode.FLOOR).longValue();
+            this.rule = rule;
+            this.asOf = packDate(asOf);
+        }
+        
+        boolean matches(Columns columns, int row) {
+            for (int c = 0; c < requiredCodes.length; c++) {
+                if (requiredCodes[c] >= 0 && columns.text[c][row] != requiredCodes[c]) {
+                    return false;
+                }
+            }
+            if (incomeLimit != Long.MAX_VALUE) {
+                int value = columns.income[row];
+                return value != MISSING_INCOME && value <= incomeLimit;
+            }
+            return true;
+        }
+    }
+}
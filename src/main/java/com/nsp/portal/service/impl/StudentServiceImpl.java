@@ -1,27 +1,48 @@
 package com.nsp.portal.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nsp.portal.dto.ResourceStamp;
+import com.nsp.portal.dto.ScholarshipApplicationRequest;
 import com.nsp.portal.dto.StudentProfileUpdateRequest;
 import com.nsp.portal.entity.ScholarshipScheme;
+import com.nsp.portal.entity.ScholarshipSchemeVersion;
 import com.nsp.portal.entity.ScholarshipApplication;
 import com.nsp.portal.entity.StudentProfile;
 import com.nsp.portal.entity.ApplicationDocument;
+import com.nsp.portal.entity.UploadSession;
 import com.nsp.portal.entity.User;
 import com.nsp.portal.enums.ApplicationStatus;
-import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.enums.UploadStatus;
 import com.nsp.portal.repository.ScholarshipApplicationRepository;
+import com.nsp.portal.repository.ScholarshipSchemeRepository;
+import com.nsp.portal.repository.ScholarshipSchemeVersionRepository;
 import com.nsp.portal.repository.StudentProfileRepository;
 import com.nsp.portal.repository.ApplicationDocumentRepository;
+import com.nsp.portal.repository.UploadSessionRepository;
 import com.nsp.portal.repository.UserRepository;
 import com.nsp.portal.service.StudentService;
-import com.nsp.portal.service.FileStorageService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of StudentService for student operations.
@@ -36,9 +57,30 @@ import java.util.Optional;
 @Service
 public class StudentServiceImpl implements StudentService {
     
+    @Autowired
+    private SchemeCatalog schemeCatalog;
+    
+    @Autowired
+    private SchemeSearchIndex schemeSearchIndex;
+    
+    @Autowired
+    private ResourceStampRegistry resourceStampRegistry;
+    
+    @Autowired
+    private SchemeWindowScheduler schemeWindowScheduler;
+    
     @Autowired
     private ScholarshipSchemeRepository scholarshipSchemeRepository;
     
+    @Autowired
+    private SchemeVersionRegistry schemeVersionRegistry;
+    
+    @Autowired
+    private ScholarshipSchemeVersionRepository schemeVersionRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @Autowired
     private ScholarshipApplicationRepository applicationRepository;
     
@@ -52,7 +94,35 @@ public class StudentServiceImpl implements StudentService {
     private UserRepository userRepository;
     
     @Autowired
-    private FileStorageService fileStorageService;
+    private UploadSessionRepository uploadSessionRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${scheme.eligibility.cache.max-size:200000}")
+    private long eligibilityCacheMaxSize;
+    
+    @Value("${scheme.eligibility.cache.ttl-seconds:600}")
+    private long eligibilityCacheTtlSeconds;
+    
+    @Value("${scheme.search.max-results:100}")
+    private int maxSearchResults;
+    
+    // Student eligibility attributes by user ID, so the eligible-schemes endpoint runs without SQL
+    private Cache<Long, EligibilityIndex.Criteria> eligibilityCache;
+    
+    /**
+     * Builds the eligibility criteria cache and registers its metrics.
+     */
+    @PostConstruct
+    public void initCache() {
+        eligibilityCache = Caffeine.newBuilder()
+            .maximumSize(eligibilityCacheMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(eligibilityCacheTtlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, eligibilityCache, "scheme.eligibility.criteria");
+    }
     
     /**
      * Retrieves all available scholarship schemes.
@@ -62,16 +132,8 @@ public class StudentServiceImpl implements StudentService {
     @Override
     public Object getAllSchemes() {
         try {
-            List<ScholarshipScheme> schemes = scholarshipSchemeRepository.findByIsActiveTrue();
-            
-            // Filter schemes based on current date and application period
-            LocalDate currentDate = LocalDate.now();
-            List<ScholarshipScheme> availableSchemes = schemes.stream()
-                .filter(scheme -> scheme.getApplicationStartDate().isBefore(currentDate) || 
-                                scheme.getApplicationStartDate().isEqual(currentDate))
-                .filter(scheme -> scheme.getApplicationEndDate().isAfter(currentDate) || 
-                                scheme.getApplicationEndDate().isEqual(currentDate))
-                .toList();
+            // Served from the catalog snapshot, which is indexed by application window
+            List<ScholarshipScheme> availableSchemes = schemeCatalog.openSchemes(LocalDate.now());
             
             return availableSchemes;
         } catch (Exception e) {
@@ -79,46 +141,195 @@ public class StudentServiceImpl implements StudentService {
         }
     }
     
+    /**
+     * Returns the currently open scholarship schemes as JSON, straight from the catalog
+     * snapshot without loading or serialising any entity.
+     * 
+     * @return UTF-8 JSON array bytes
+     */
+    @Override
+    public byte[] getAvailableSchemesJson() {
+        return schemeCatalog.openSchemesJson(LocalDate.now());
+    }
+    
+    /**
+     * Returns the ETag of today's open-scheme JSON, hashed when the catalog was built.
+     * 
+     * @return the quoted ETag
+     */
+    @Override
+    public String getAvailableSchemesEtag() {
+        return schemeCatalog.openSchemesEtag(LocalDate.now());
+    }
+    
+    /**
+     * Returns the open scholarship schemes the student is eligible for, matched against the
+     * catalog's eligibility index.
+     * 
+     * @param studentId the student's user ID
+     * @return UTF-8 JSON array bytes, or an error message
+     */
+    @Override
+    public Object getEligibleSchemesJson(Long studentId) {
+        try {
+            EligibilityIndex.Criteria criteria = eligibilityCache.get(studentId, id ->
+                studentProfileRepository.findByUserId(id).map(EligibilityIndex.Criteria::new).orElse(null));
+            if (criteria == null) {
+                return "Student profile not found";
+            }
+            return schemeCatalog.eligibleSchemesJson(LocalDate.now(), criteria);
+        } catch (Exception e) {
+            return "Error retrieving eligible schemes: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Searches active scholarship schemes by free text, ranked by relevance.
+     * 
+     * @param query the search text
+     * @param limit maximum number of results (capped at scheme.search.max-results)
+     * @return ranked list of scheme summaries, or an error message
+     */
+    @Override
+    public Object searchSchemes(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return "Search query is required";
+        }
+        try {
+            return schemeSearchIndex.search(query, Math.min(limit, maxSearchResults));
+        } catch (Exception e) {
+            return "Error searching schemes: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Suggests search words for typeahead.
+     * 
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions (capped at scheme.search.max-results)
+     * @return list of suggested words, or an error message
+     */
+    @Override
+    public Object suggestSchemeSearch(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return "Search prefix is required";
+        }
+        try {
+            return schemeSearchIndex.suggest(prefix, Math.min(limit, maxSearchResults));
+        } catch (Exception e) {
+            return "Error suggesting search terms: " + e.getMessage();
+        }
+    }
+    
     /**
      * Submits a new scholarship application with documents.
      * 
-     * @param applicationData the application form data (JSON string)
-     * @param documents the uploaded documents
+     * Documents are uploaded beforehand through upload sessions; the application only
+     * references completed uploads, so the transaction does no file I/O and lasts a few
+     * statements.
+     * 
+     * A student applies to a scheme at most once per academic year; a duplicate is refused
+     * up front, and one racing in from another request is stopped by the unique constraint.
+     * An application without an academic year is filed under the current one.
+     * 
+     * @param studentId the student's user ID
+     * @param applicationData the application form data (JSON string) with the upload IDs
      * @return application submission result
      */
     @Override
     @Transactional
-    public Object submitApplication(String applicationData, MultipartFile[] documents) {
+    public Object submitApplication(Long studentId, String applicationData) {
         try {
-            // TODO: Parse applicationData JSON string to extract schemeId and other details
-            // For now, we'll create a basic application
+            ScholarshipApplicationRequest request = objectMapper.readValue(applicationData, ScholarshipApplicationRequest.class);
+            if (request.getSchemeId() == null) {
+                return "Scheme ID is required";
+            }
+            
+            // Window check is a set lookup maintained by the window scheduler; no scheme row is read
+            if (!schemeWindowScheduler.isAcceptingApplications(request.getSchemeId())) {
+                return "Scheme is not accepting applications";
+            }
+            
+            StudentProfile student = studentProfileRepository.findByUserId(studentId).orElse(null);
+            if (student == null) {
+                return "Student profile not found";
+            }
+            
+            Set<String> uploadIds = request.getUploadIds() != null ? new LinkedHashSet<>(request.getUploadIds()) : Collections.emptySet();
+            List<UploadSession> uploads = uploadIds.isEmpty()
+                ? Collections.emptyList()
+                : uploadSessionRepository.findByIdInAndStudentUserIdAndStatus(uploadIds, studentId, UploadStatus.COMPLETED);
+            if (uploads.size() != uploadIds.size()) {
+                return "Uploads not found or not completed: " + uploadIds.size() + " referenced, " + uploads.size() + " completed";
+            }
+            
+            BigDecimal familyIncome = student.getFamilyIncome();
+            if (request.getFamilyIncome() != null && !request.getFamilyIncome().isBlank()) {
+                try {
+                    familyIncome = new BigDecimal(request.getFamilyIncome().trim());
+                } catch (NumberFormatException e) {
+                    return "Invalid family income: " + request.getFamilyIncome();
+                }
+            }
+            if (familyIncome == null || familyIncome.signum() <= 0) {
+                return "Family income is required";
+            }
+            
+            // Pin the terms in effect today; the registry only reads the database for a scheme never versioned
+            LocalDate today = LocalDate.now();
+            ScholarshipSchemeVersion version = schemeVersionRegistry.effectiveVersion(request.getSchemeId(), today);
+            if (version == null) {
+                version = schemeVersionRegistry.recordVersion(request.getSchemeId());
+            }
             
-            // Create a basic application (this would be enhanced with proper JSON parsing)
-            ScholarshipApplication application = new ScholarshipApplication();
-            // Set application details based on parsed data
+            // Never null, so the unique constraint covers every application
+            String academicYear = request.getAcademicYear() != null && !request.getAcademicYear().isBlank()
+                ? request.getAcademicYear().trim()
+                : academicYearOf(today);
+            if (applicationRepository.existsByStudentIdAndSchemeIdAndAcademicYear(student.getId(), request.getSchemeId(), academicYear)) {
+                return "An application to this scheme for academic year " + academicYear + " already exists";
+            }
+            
+            ScholarshipApplication application = new ScholarshipApplication(student,
+                scholarshipSchemeRepository.getReferenceById(request.getSchemeId()), today, familyIncome);
+            application.setAcademicYear(academicYear);
+            // Complete with documents, it goes straight to the institute queue; without, it stays APPLIED
+            // and is closed as incomplete at the scheme's deadline
+            if (!uploads.isEmpty()) {
+                application.setStatus(ApplicationStatus.PENDING_INSTITUTE_VERIFICATION);
+            }
+            if (version != null) {
+                application.setSchemeVersion(schemeVersionRepository.getReferenceById(version.getId()));
+            }
             
             // Save the application
             ScholarshipApplication savedApplication = applicationRepository.save(application);
             
-            // Handle document uploads if provided
-            if (documents != null && documents.length > 0) {
-                for (MultipartFile document : documents) {
-                    String fileName = fileStorageService.storeFile(document, "scholarship_documents");
-                    
-                    ApplicationDocument doc = new ApplicationDocument();
-                    doc.setFilePath(fileName);
-                    doc.setOriginalFileName(document.getOriginalFilename());
-                    doc.setFileExtension(document.getOriginalFilename().substring(document.getOriginalFilename().lastIndexOf(".") + 1));
-                    doc.setFileSize(document.getSize());
-                    doc.setApplication(savedApplication);
-                    doc.setDocumentType("SUPPORTING_DOCUMENT");
-                    
-                    documentRepository.save(doc);
+            // Reference the uploaded files; claiming the sessions fails if one was attached or expired meanwhile
+            if (!uploads.isEmpty()) {
+                List<ApplicationDocument> documents = new ArrayList<>(uploads.size());
+                for (UploadSession upload : uploads) {
+                    ApplicationDocument document = new ApplicationDocument(savedApplication, upload.getDocumentType(),
+                        upload.getFilePath(), upload.getOriginalFileName(), upload.getFileExtension(), upload.getTotalSize());
+                    document.setSha256(upload.getSha256());
+                    documents.add(document);
+                }
+                documentRepository.saveAll(documents);
+                if (uploadSessionRepository.attach(uploadIds, studentId, savedApplication.getId(), LocalDateTime.now()) != uploads.size()) {
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                    return "Uploads were attached or removed concurrently; please resubmit";
                 }
             }
             
             return "Application submitted successfully with ID: " + savedApplication.getId();
             
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission won the unique constraint; roll back quietly and report it
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            if (String.valueOf(e.getMessage()).contains("uk_applications_student_scheme_year")) {
+                return "An application to this scheme for this academic year already exists";
+            }
+            return "Error submitting application: " + e.getMessage();
         } catch (Exception e) {
             return "Error submitting application: " + e.getMessage();
         }
@@ -153,12 +364,24 @@ public class StudentServiceImpl implements StudentService {
             if (profile == null) {
                 return "Student profile not found";
             }
+            resourceStampRegistry.recordStudentProfile(profile);
             return profile;
         } catch (Exception e) {
             return "Error retrieving profile: " + e.getMessage();
         }
     }
     
+    /**
+     * Returns the student profile stamp recorded by the last read, if still valid.
+     * 
+     * @param studentId the student's user ID
+     * @return the stamp, or null if unknown
+     */
+    @Override
+    public ResourceStamp getStudentProfileStamp(Long studentId) {
+        return resourceStampRegistry.studentProfile(studentId);
+    }
+    
     /**
      * Updates the profile information for a specific student.
      * 
@@ -222,9 +445,22 @@ public class StudentServiceImpl implements StudentService {
                 if (updateRequest.getIfscCode() != null) {
                     existingProfile.setIfscCode(updateRequest.getIfscCode());
                 }
+                if (updateRequest.getFamilyIncome() != null) {
+                    existingProfile.setFamilyIncome(updateRequest.getFamilyIncome());
+                }
+                if (updateRequest.getAcademicLevel() != null) {
+                    existingProfile.setAcademicLevel(updateRequest.getAcademicLevel());
+                }
+                if (updateRequest.getSubject() != null) {
+                    existingProfile.setSubject(updateRequest.getSubject());
+                }
+                if (updateRequest.getInstituteType() != null) {
+                    existingProfile.setInstituteType(updateRequest.getInstituteType());
+                }
                 
                 // Save the updated profile
                 StudentProfile updatedProfile = studentProfileRepository.save(existingProfile);
+                eligibilityCache.invalidate(studentId);
                 return updatedProfile;
             } else {
                 return "Invalid profile update data format";
@@ -234,4 +470,10 @@ public class StudentServiceImpl implements StudentService {
             return "Error updating profile: " + e.getMessage();
         }
     }
+    
+    // Academic years run April to March, written as "2026-27"
+    private static String academicYearOf(LocalDate date) {
+        int start = date.getMonthValue() >= 4 ? date.getYear() : date.getYear() - 1;
+        return start + "-" + String.format("%02d", (start + 1) % 100);
+    }
 }
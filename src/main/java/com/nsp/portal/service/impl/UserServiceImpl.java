@@ -1,10 +1,16 @@
 package com.nsp.portal.service.impl;
 
 import com.nsp.portal.entity.User;
+import com.nsp.portal.enums.Role;
+import com.nsp.portal.event.UserCredentialsChangedEvent;
 import com.nsp.portal.repository.UserRepository;
 import com.nsp.portal.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
 
 /**
  * Implementation of UserService for user operations.
@@ -15,6 +21,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Gets the user ID by email address.
      * 
@@ -45,4 +54,70 @@ public class UserServiceImpl implements UserService {
             return null;
         }
     }
+    
+    /**
+     * Changes a user's password and revokes previously issued tokens.
+     * 
+     * @param userId the user ID
+     * @param expectedHash the password hash the change was verified against
+     * @param hashedPassword the new password hash
+     * @return true if the user exists, still had expectedHash and was updated
+     */
+    @Override
+    @Transactional
+    public boolean changePassword(Long userId, String expectedHash, String hashedPassword) {
+        // One conditional UPDATE: of two concurrent changes verified against the same hash, one wins
+        if (userRepository.changePasswordHash(userId, expectedHash, hashedPassword) != 1) {
+            return false;
+        }
+        User user = userRepository.findById(userId).orElseThrow();
+        eventPublisher.publishEvent(
+            new UserCredentialsChangedEvent(user.getId(), user.getEmail(), user.getTokenVersion()));
+        return true;
+    }
+    
+    /**
+     * Changes a user's role and revokes previously issued tokens.
+     * 
+     * @param userId the user ID
+     * @param role the new role
+     * @return true if the user exists and was updated
+     */
+    @Override
+    @Transactional
+    public boolean changeRole(Long userId, Role role) {
+        return updateCredentials(userId, user -> user.setRole(role));
+    }
+    
+    /**
+     * Enables or disables a user account and revokes previously issued tokens.
+     * 
+     * @param userId the user ID
+     * @param enabled whether the account should be enabled
+     * @return true if the user exists and was updated
+     */
+    @Override
+    @Transactional
+    public boolean setEnabled(Long userId, boolean enabled) {
+        return updateCredentials(userId, user -> user.setEnabled(enabled));
+    }
+    
+    /**
+     * Applies a credential change, bumps the token version and publishes
+     * a UserCredentialsChangedEvent so caches and issued tokens are invalidated.
+     */
+    private boolean updateCredentials(Long userId, Consumer<User> change) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return false;
+        }
+        
+        change.accept(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        
+        eventPublisher.publishEvent(
+            new UserCredentialsChangedEvent(user.getId(), user.getEmail(), user.getTokenVersion()));
+        return true;
+    }
 }
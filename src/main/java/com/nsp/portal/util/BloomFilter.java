@@ -0,0 +1,132 @@
+package com.nsp.portal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * 
+ * mightContain() never returns false for a value that has been put, so a negative
+ * answer is definite. Positive answers are wrong with roughly the configured
+ * false-positive probability while the filter stays within its expected size.
+ */
+public class BloomFilter {
+    
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLong bitsSet = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+    private final long expectedInsertions;
+    
+    /**
+     * Creates a filter sized for the expected number of values.
+     * 
+     * @param expectedInsertions the number of values the filter is sized for
+     * @param falsePositiveProbability the target false-positive probability (0 < p < 1)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False-positive probability must be between 0 and 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+    
+    /**
+     * Adds a value to the filter. Null values are ignored.
+     * 
+     * @param value the value to add
+     */
+    public void put(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, bitSize));
+        }
+        insertions.incrementAndGet();
+    }
+    
+    /**
+     * Checks whether a value may have been added.
+     * 
+     * @param value the value to check
+     * @return false if the value has definitely not been added
+     */
+    public boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Estimates the current false-positive probability from the fraction of set bits.
+     * 
+     * @return the estimated false-positive probability
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) bitsSet.get() / bitSize, hashCount);
+    }
+    
+    /**
+     * Checks whether more values have been added than the filter was sized for.
+     * 
+     * @return true if the filter is over capacity
+     */
+    public boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+    
+    public long getInsertions() {
+        return insertions.get();
+    }
+    
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+        bitsSet.incrementAndGet();
+    }
+    
+    // FNV-1a over the UTF-8 bytes, finalized with a 64-bit mixer
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,150 @@
+package com.nsp.portal.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel for large numbers of coarse-grained timers.
+ * 
+ * Time is divided into ticks of tickMillis. A timer is hashed into the bucket of its deadline
+ * tick modulo the wheel size and carries the number of full wheel turns still to wait, so
+ * scheduling and cancelling are O(1) and each tick only visits one bucket, however far ahead
+ * the deadlines are. A timer fires on the first tick that starts at or after its deadline.
+ * 
+ * Not driven by a thread of its own: the owner calls advance() with the current time and
+ * handles the returned payloads. All methods are synchronized.
+ */
+public final class HashedTimingWheel<T> {
+    
+    private final long tickMillis;
+    private final long originMillis;
+    private final int mask;
+    private final List<List<Timeout<T>>> buckets;
+    
+    // Last tick whose bucket has been processed
+    private long processedTick;
+    private int size;
+    
+    /**
+     * Creates an empty wheel.
+     * 
+     * @param tickMillis tick duration in milliseconds
+     * @param wheelSize number of buckets, rounded up to a power of two
+     * @param originMillis the time of tick 0, normally now
+     */
+    public HashedTimingWheel(long tickMillis, int wheelSize, long originMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.mask = buckets - 1;
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+        this.processedTick = 0;
+    }
+    
+    /**
+     * Schedules a payload. A deadline in the past fires on the next tick.
+     * 
+     * @param payload the value returned by advance() when the timer fires
+     * @param deadlineMillis epoch millis at which the timer is due
+     * @return handle that can cancel the timer
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        long tick = Math.max(processedTick + 1, ceilDiv(deadlineMillis - originMillis, tickMillis));
+        long rounds = (tick - processedTick - 1) / buckets.size();
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis, rounds);
+        buckets.get((int) (tick & mask)).add(timeout);
+        size++;
+        return timeout;
+    }
+    
+    /**
+     * Processes every tick that has started by the given time.
+     * 
+     * @param nowMillis the current epoch millis
+     * @return payloads of the timers that fired, in tick order
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        // Missed ticks are replayed after a pause, so late timers still fire in deadline order
+        while (processedTick < targetTick) {
+            processedTick++;
+            Iterator<Timeout<T>> iterator = buckets.get((int) (processedTick & mask)).iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.cancelled) {
+                    iterator.remove();
+                    size--;
+                } else if (timeout.remainingRounds <= 0) {
+                    iterator.remove();
+                    size--;
+                    expired.add(timeout.payload);
+                } else {
+                    timeout.remainingRounds--;
+                }
+            }
+        }
+        return expired;
+    }
+    
+    /**
+     * Returns the time at which the next tick starts.
+     * 
+     * @return epoch millis
+     */
+    public synchronized long nextTickMillis() {
+        return originMillis + (processedTick + 1) * tickMillis;
+    }
+    
+    /**
+     * Returns the number of pending timers, including cancelled ones not yet swept.
+     * 
+     * @return pending timer count
+     */
+    public synchronized int size() {
+        return size;
+    }
+    
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+    
+    /**
+     * Handle of a scheduled timer.
+     */
+    public static final class Timeout<T> {
+        
+        private final T payload;
+        private final long deadlineMillis;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        
+        Timeout(T payload, long deadlineMillis, long remainingRounds) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.remainingRounds = remainingRounds;
+        }
+        
+        /**
+         * Cancels the timer; it is dropped the next time its bucket is visited.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        public T getPayload() {
+            return payload;
+        }
+        
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+}
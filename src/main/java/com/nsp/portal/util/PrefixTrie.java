@@ -0,0 +1,108 @@
+package com.nsp.portal.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Counted prefix trie for typeahead suggestions.
+ * 
+ * Each word carries a count (e.g. the number of documents containing it); add() and remove()
+ * adjust it incrementally and prune empty branches. suggest() returns the most frequent words
+ * under a prefix, ties broken alphabetically. Not thread-safe; callers synchronise.
+ */
+public class PrefixTrie {
+    
+    private static final Comparator<Map.Entry<String, Integer>> RANKING =
+        Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+    
+    private final Node root = new Node();
+    
+    /**
+     * Increments the count of a word.
+     * 
+     * @param word the word
+     */
+    public void add(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+        }
+        node.count++;
+    }
+    
+    /**
+     * Decrements the count of a word, removing it when the count reaches zero.
+     * 
+     * @param word the word
+     */
+    public void remove(String word) {
+        remove(root, word, 0);
+    }
+    
+    /**
+     * Returns the most frequent words starting with a prefix.
+     * 
+     * @param prefix the prefix
+     * @param limit maximum number of suggestions
+     * @return suggestions, most frequent first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        List<String> result = new ArrayList<>();
+        if (node == null || limit <= 0) {
+            return result;
+        }
+        // Min-heap of the best `limit` words seen so far
+        PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>(RANKING.reversed());
+        collect(node, new StringBuilder(prefix), best, limit);
+        while (!best.isEmpty()) {
+            result.add(best.poll().getKey());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+    
+    private static boolean remove(Node node, String word, int depth) {
+        if (depth == word.length()) {
+            if (node.count > 0) {
+                node.count--;
+            }
+        } else {
+            Node child = node.children.get(word.charAt(depth));
+            if (child != null && remove(child, word, depth + 1)) {
+                node.children.remove(word.charAt(depth));
+            }
+        }
+        return node.count == 0 && node.children.isEmpty();
+    }
+    
+    private static void collect(Node node, StringBuilder path, PriorityQueue<Map.Entry<String, Integer>> best, int limit) {
+        if (node.count > 0) {
+            Map.Entry<String, Integer> entry = Map.entry(path.toString(), node.count);
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (RANKING.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            path.append(child.getKey());
+            collect(child.getValue(), path, best, limit);
+            path.setLength(path.length() - 1);
+        }
+    }
+    
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        int count;
+    }
+}
@@ -0,0 +1,163 @@
+package com.nsp.portal.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokeniser for scheme search, suited to English and Hindi written in Latin script.
+ * 
+ * Text is lower-cased, accents are stripped and it is split on anything that is not a letter
+ * or digit (Devanagari words survive as tokens). Index terms additionally drop English and
+ * common transliterated Hindi stop words, get a light English suffix stemmer and a spelling
+ * fold for the usual transliteration variants (aa/a, ee/i, oo/u, sh/s, ph/f, w/v, z/j), so
+ * "kanyaa shiksha" and "kanya siksha" produce the same terms. Stateless and thread-safe.
+ */
+public final class TextAnalyzer {
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+        // English
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "its",
+        "of", "on", "or", "per", "shall", "that", "the", "their", "this", "to", "which", "who",
+        "will", "with",
+        // Hindi (transliterated)
+        "aur", "evam", "hai", "hain", "ka", "ke", "ki", "ko", "lie", "liye", "me", "mein", "par",
+        "se", "tatha", "ya"
+    );
+    
+    private TextAnalyzer() {
+    }
+    
+    /**
+     * Splits text into index terms.
+     * 
+     * @param text the text to analyse, may be null
+     * @return the terms in order of occurrence, including repeats
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            if (!STOP_WORDS.contains(word)) {
+                terms.add(fold(stem(word)));
+            }
+        }
+        return terms;
+    }
+    
+    /**
+     * Splits text into lower-cased, accent-free words, as shown for autocomplete.
+     * 
+     * @param text the text to split, may be null
+     * @return the words in order of occurrence, including repeats
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return words;
+        }
+        String normalized = stripAccents(text.toLowerCase(Locale.ROOT));
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && isWordChar(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+    
+    /**
+     * Returns whether a word is a stop word.
+     * 
+     * @param word a word as returned by words()
+     * @return true if the word is ignored by terms()
+     */
+    public static boolean isStopWord(String word) {
+        return STOP_WORDS.contains(word);
+    }
+    
+    private static boolean isWordChar(char c) {
+        // Letters, digits and Devanagari combining marks (matras), which are not letters themselves
+        return Character.isLetterOrDigit(c) || (c >= '\u0900' && c <= '\u097F');
+    }
+    
+    private static String stripAccents(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            // Drop Latin combining accents only; Devanagari marks carry meaning
+            if (c < '\u0300' || c > '\u036F') {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+    
+    // Light English suffix stripping: plurals, -ing and a trailing silent e
+    private static String stem(String word) {
+        if (!isAscii(word) || word.length() <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies") && word.length() > 4) {
+            word = word.substring(0, word.length() - 3) + "y";
+        } else if (word.endsWith("sses")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            word = word.substring(0, word.length() - 1);
+        }
+        if (word.endsWith("ing") && word.length() > 6) {
+            word = word.substring(0, word.length() - 3);
+        }
+        if (word.endsWith("e") && word.length() > 4) {
+            word = word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+    
+    // Collapses common transliteration spelling variants; applied to index and query alike
+    private static String fold(String word) {
+        if (!isAscii(word)) {
+            return word;
+        }
+        StringBuilder out = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            char next = i + 1 < word.length() ? word.charAt(i + 1) : 0;
+            if ((c == 'a' && next == 'a') || (c == 'i' && next == 'i') || (c == 'u' && next == 'u')) {
+                out.append(c);
+                i++;
+            } else if (c == 'e' && next == 'e') {
+                out.append('i');
+                i++;
+            } else if (c == 'o' && next == 'o') {
+                out.append('u');
+                i++;
+            } else if ((c == 's' || c == 'p') && next == 'h') {
+                out.append(c == 's' ? 's' : 'f');
+                i++;
+            } else if (c == 'w') {
+                out.append('v');
+            } else if (c == 'z') {
+                out.append('j');
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+    
+    private static boolean isAscii(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
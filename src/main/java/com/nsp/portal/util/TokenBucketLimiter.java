@@ -0,0 +1,140 @@
+package com.nsp.portal.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keyed token-bucket rate limiter with lock striping.
+ * 
+ * Each key gets a bucket holding up to capacity tokens, refilled continuously at a fixed
+ * rate. Buckets are guarded by one of a fixed set of stripe locks chosen by key hash, so
+ * unrelated keys rarely contend and an acquire allocates nothing once the bucket exists.
+ * Idle buckets are dropped by evictIdle() to keep memory bounded.
+ */
+public class TokenBucketLimiter {
+    
+    // Tokens are stored in millionths so fractional refills need no floating point state
+    private static final long SCALE = 1_000_000L;
+    
+    private final long capacity;
+    private final long nanosPerToken;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Object[] locks;
+    private final int stripeMask;
+    
+    /**
+     * Creates a limiter.
+     * 
+     * @param capacity maximum burst size in tokens
+     * @param refillPerMinute tokens added per minute
+     * @param stripes number of stripe locks (rounded up to a power of two)
+     */
+    public TokenBucketLimiter(int capacity, int refillPerMinute, int stripes) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity * SCALE;
+        this.nanosPerToken = 60_000_000_000L / refillPerMinute;
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
+        }
+        this.stripeMask = size - 1;
+    }
+    
+    /**
+     * Takes one token for the given key.
+     * 
+     * @param key the rate-limit key (client IP, e-mail, ...)
+     * @return 0 if the request is allowed, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Object lock = locks[stripe(key)];
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            synchronized (lock) {
+                if (bucket.evicted) {
+                    continue;
+                }
+                refill(bucket, now);
+                if (bucket.tokens >= SCALE) {
+                    bucket.tokens -= SCALE;
+                    return 0;
+                }
+                return (SCALE - bucket.tokens) * nanosPerToken / SCALE;
+            }
+        }
+    }
+    
+    /**
+     * Removes buckets that have been idle long enough to be full again.
+     * 
+     * @param idleNanos minimum idle time before a bucket is dropped
+     * @return number of buckets removed
+     */
+    public int evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Iterator<Map.Entry<String, Bucket>> it = buckets.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Bucket> entry = it.next();
+            Bucket bucket = entry.getValue();
+            synchronized (locks[stripe(entry.getKey())]) {
+                if (now - bucket.lastRefill >= idleNanos) {
+                    refill(bucket, now);
+                    if (bucket.tokens >= capacity) {
+                        bucket.evicted = true;
+                        it.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Returns the number of tracked keys.
+     * 
+     * @return the bucket count
+     */
+    public int size() {
+        return buckets.size();
+    }
+    
+    private void refill(Bucket bucket, long now) {
+        long elapsed = now - bucket.lastRefill;
+        if (elapsed <= 0) {
+            return;
+        }
+        long wholeTokens = elapsed / nanosPerToken;
+        long added = wholeTokens >= capacity / SCALE
+            ? capacity
+            : wholeTokens * SCALE + (elapsed % nanosPerToken) * SCALE / nanosPerToken;
+        if (added > 0) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + added);
+            bucket.lastRefill = now;
+        }
+    }
+    
+    private int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+    
+    /**
+     * Mutable bucket state, only accessed under its stripe lock.
+     */
+    private static final class Bucket {
+        long tokens;
+        long lastRefill;
+        boolean evicted;
+        
+        Bucket(long tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+}